@@ -0,0 +1,67 @@
+package com.havana.backend.service;
+
+import com.havana.backend.repository.MonthlyCategoryRollupRepository;
+import com.havana.backend.repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link AnalysisService#dailySpending} for a 30-day and a one-year window over cached
+ * {@link TransactionColumns}: the cost is the binary search plus a scan of the window's rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class AnalysisBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int transactions;
+
+    @Param({"30", "365"})
+    int days;
+
+    private AnalysisService analysisService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticHistory history = new SyntheticHistory(transactions);
+
+        TransactionColumnStore columnStore = mock(TransactionColumnStore.class);
+        when(columnStore.get(SyntheticHistory.USER_ID)).thenReturn(history.columns());
+
+        analysisService = new AnalysisService(
+                columnStore,
+                mock(UserRepository.class),
+                mock(MonthlyCategoryRollupRepository.class)
+        );
+    }
+
+    @Benchmark
+    public Map<String, Object> dailySpending() {
+        return analysisService.dailySpending(SyntheticHistory.USER_ID, days, null);
+    }
+
+    @Benchmark
+    public Map<String, Object> dailySpendingForCategory() {
+        return analysisService.dailySpending(SyntheticHistory.USER_ID, days, 4);
+    }
+}
@@ -0,0 +1,52 @@
+package com.havana.backend.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CSV parsing and row validation of {@link TransactionImportService}, everything an import does
+ * before it talks to the database. Score is whole files per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ImportBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int transactions;
+
+    private byte[] csv;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        csv = new SyntheticHistory(transactions).csv();
+    }
+
+    @Benchmark
+    public void mapCsvRows(Blackhole bh) {
+        TransactionImportService.readCsv(new ByteArrayInputStream(csv), row -> {
+            try {
+                bh.consume(TransactionImportService.validate(row));
+            } catch (TransactionImportService.RowRejectedException e) {
+                bh.consume(e.getMessage());
+            }
+        });
+    }
+}
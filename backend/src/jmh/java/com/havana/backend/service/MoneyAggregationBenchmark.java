@@ -0,0 +1,111 @@
+package com.havana.backend.service;
+
+import com.havana.backend.model.Money;
+import com.havana.backend.model.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summing amounts the way the aggregators used to ({@code BigDecimal.add} in a loop, or
+ * {@code doubleValue()} sums) against {@link Money} cents, for a plain total and for the per
+ * (month, category) rollup deltas of an import chunk. Amounts are converted to cents once in
+ * setup, as they are at the JDBC boundary; run with {@code -prof gc} to compare
+ * {@code gc.alloc.rate.norm} per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class MoneyAggregationBenchmark {
+
+    @Param({"1000", "100000"})
+    int transactions;
+
+    private BigDecimal[] amounts;
+    private Money[] money;
+    private long[] cents;
+    private LocalDate[] dates;
+    private int[] categories;
+
+    // kljuc kao u MonthlyRollupService.Deltas
+    private record Key(LocalDate monthStart, int categoryId) {}
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticHistory history = new SyntheticHistory(transactions);
+
+        amounts = new BigDecimal[transactions];
+        money = new Money[transactions];
+        cents = new long[transactions];
+        dates = new LocalDate[transactions];
+        categories = new int[transactions];
+        for (int i = 0; i < transactions; i++) {
+            Transaction t = history.transactions.get(i);
+            amounts[i] = t.getAmount();
+            money[i] = Money.of(t.getAmount());
+            cents[i] = money[i].cents();
+            dates[i] = t.getTransactionDate();
+            categories[i] = t.getCategory() != null ? t.getCategory().getId() : 0;
+        }
+    }
+
+    @Benchmark
+    public BigDecimal totalBigDecimal() {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (BigDecimal amount : amounts) sum = sum.add(amount);
+        return sum;
+    }
+
+    @Benchmark
+    public double totalDouble() {
+        double sum = 0.0;
+        for (BigDecimal amount : amounts) sum += amount.doubleValue();
+        return sum;
+    }
+
+    @Benchmark
+    public long totalCents() {
+        long sum = 0;
+        for (long c : cents) sum += c;
+        return sum;
+    }
+
+    // rollup delte prije prelaska na cente
+    @Benchmark
+    public Map<Key, BigDecimal> rollupDeltasBigDecimal() {
+        Map<Key, BigDecimal> byKey = new TreeMap<>(
+                Comparator.comparing(Key::monthStart).thenComparingInt(Key::categoryId));
+        for (int i = 0; i < transactions; i++) {
+            byKey.merge(new Key(dates[i].withDayOfMonth(1), categories[i]), amounts[i], BigDecimal::add);
+        }
+        return byKey;
+    }
+
+    @Benchmark
+    public MonthlyRollupService.Deltas rollupDeltas() {
+        MonthlyRollupService.Deltas deltas = new MonthlyRollupService.Deltas();
+        for (int i = 0; i < transactions; i++) {
+            deltas.add(dates[i], categories[i], money[i]);
+        }
+        return deltas;
+    }
+}
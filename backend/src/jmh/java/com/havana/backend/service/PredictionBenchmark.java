@@ -0,0 +1,107 @@
+package com.havana.backend.service;
+
+import com.havana.backend.repository.MonthlyCategoryRollupRepository;
+import com.havana.backend.repository.TransactionRepository;
+import com.havana.backend.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link PredictionService} over a user history of the given size. Repositories are stubbed with
+ * what the database would return, so the numbers are the service's own cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PredictionBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int transactions;
+
+    private PredictionService predictionService;
+    private PredictionModelCache modelCache;
+    private SpendingStatistics statistics;
+    private final LocalDate futureDate = LocalDate.now().plusDays(3);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticHistory history = new SyntheticHistory(transactions);
+        statistics = history.statistics();
+
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.existsById(SyntheticHistory.USER_ID)).thenReturn(true);
+
+        CategoryCache categoryCache = mock(CategoryCache.class);
+        when(categoryCache.visible(anyInt(), anyInt()))
+                .thenAnswer(inv -> Optional.of(CategoryCache.CachedCategory.of(history.category(inv.getArgument(1)))));
+
+        TransactionColumnStore columnStore = mock(TransactionColumnStore.class);
+        when(columnStore.get(SyntheticHistory.USER_ID)).thenReturn(history.columns());
+
+        SpendingStatisticsService statisticsService = mock(SpendingStatisticsService.class);
+        when(statisticsService.get(SyntheticHistory.USER_ID)).thenReturn(statistics);
+
+        modelCache = new PredictionModelCache(100, Duration.ofHours(1), new SimpleMeterRegistry());
+        predictionService = new PredictionService(
+                mock(TransactionRepository.class),
+                userRepository,
+                categoryCache,
+                mock(MonthlyCategoryRollupRepository.class),
+                modelCache,
+                statisticsService,
+                columnStore,
+                new SimpleMeterRegistry()
+        );
+    }
+
+    @Benchmark
+    public double predictCached() {
+        return predictionService.predict(SyntheticHistory.USER_ID, futureDate, 8);
+    }
+
+    // svaki poziv nakon promjene transakcija: model se ponovno rjesava iz statistika
+    @Benchmark
+    public double predictAfterWrite() {
+        modelCache.invalidate(SyntheticHistory.USER_ID);
+        return predictionService.predict(SyntheticHistory.USER_ID, futureDate, 8);
+    }
+
+    @Benchmark
+    public PredictionService.CategoryModel fitCategoryModel() {
+        return statistics.categoryModel();
+    }
+
+    @Benchmark
+    public PredictionService.PredictionAnalysisDTO analyzeDailySpending() {
+        return predictionService.analyzeDailySpending(SyntheticHistory.USER_ID);
+    }
+
+    @Benchmark
+    public Map<String, Double> rollingMonthlySeries() {
+        return predictionService.rollingMonthlySeries(SyntheticHistory.USER_ID, 3);
+    }
+}
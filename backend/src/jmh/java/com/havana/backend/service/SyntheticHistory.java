@@ -0,0 +1,135 @@
+package com.havana.backend.service;
+
+import com.havana.backend.model.Category;
+import com.havana.backend.model.CategoryType;
+import com.havana.backend.model.Money;
+import com.havana.backend.model.Transaction;
+import com.havana.backend.model.User;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic transaction history of one user for the benchmarks. Uses the nine global categories
+ * from {@code BAZA/PopunjenjeBaze.sql} (same ids), spread over the last three years with a
+ * December peak and more spending on weekends.
+ */
+final class SyntheticHistory {
+
+    static final int USER_ID = 1;
+    static final int DAYS = 3 * 365;
+
+    // id, naziv i tip kao u PopunjenjeBaze.sql, tezine su udio u broju transakcija
+    private static final Object[][] CATEGORIES = {
+            {1, "Plaća", CategoryType.INCOME, 0.02, 1500.0},
+            {2, "Bonus", CategoryType.INCOME, 0.01, 400.0},
+            {3, "Pokloni", CategoryType.INCOME, 0.02, 50.0},
+            {4, "Hrana", CategoryType.EXPENSE, 0.43, 18.0},
+            {5, "Najam", CategoryType.EXPENSE, 0.02, 450.0},
+            {6, "Režije", CategoryType.EXPENSE, 0.06, 60.0},
+            {7, "Prijevoz", CategoryType.EXPENSE, 0.20, 8.0},
+            {8, "Zabava", CategoryType.EXPENSE, 0.16, 25.0},
+            {9, "Zdravlje", CategoryType.EXPENSE, 0.04, 30.0},
+    };
+
+    final User user;
+    final List<Category> categories = new ArrayList<>();
+    final List<Transaction> transactions;
+    final LocalDate end = LocalDate.now();
+    final LocalDate start = end.minusDays(DAYS - 1);
+
+    SyntheticHistory(int size) {
+        user = new User();
+        user.setId(USER_ID);
+        user.setEmail("bench@fintrack.local");
+
+        double[] cumulative = new double[CATEGORIES.length];
+        double weight = 0.0;
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            Category c = new Category();
+            c.setId((Integer) CATEGORIES[i][0]);
+            c.setName((String) CATEGORIES[i][1]);
+            c.setType((CategoryType) CATEGORIES[i][2]);
+            categories.add(c);
+
+            weight += (Double) CATEGORIES[i][3];
+            cumulative[i] = weight;
+        }
+
+        Random random = new Random(size);
+        transactions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            LocalDate date = start.plusDays(random.nextInt(DAYS));
+
+            double pick = random.nextDouble() * weight;
+            int c = 0;
+            while (cumulative[c] < pick) c++;
+
+            double amount = (Double) CATEGORIES[c][4] * seasonality(date) * Math.exp(0.5 * random.nextGaussian());
+
+            Transaction t = new Transaction();
+            t.setId(i + 1);
+            t.setUser(user);
+            // svaka dvadeseta transakcija bez kategorije, kao rucni unos bez odabira
+            t.setCategory(i % 20 == 0 ? null : categories.get(c));
+            t.setAmount(BigDecimal.valueOf(Math.max(0.01, amount)).setScale(2, RoundingMode.HALF_UP));
+            t.setTransactionDate(date);
+            t.setDescription("tx " + i);
+            transactions.add(t);
+        }
+    }
+
+    Category category(int id) {
+        return categories.get(id - 1);
+    }
+
+    SpendingStatistics statistics() {
+        SpendingStatistics stats = new SpendingStatistics();
+        for (Transaction t : transactions) {
+            TransactionsChangedEvent.inserted(t).deltas().forEach(stats::apply);
+        }
+        return stats;
+    }
+
+    // ono sto bi TransactionColumnStore ucitao iz baze: retci po datumu
+    TransactionColumns columns() {
+        TransactionColumns columns = new TransactionColumns(transactions.size());
+        transactions.stream()
+                .sorted(Comparator.comparing(Transaction::getTransactionDate))
+                .forEach(t -> columns.append(
+                        (int) t.getTransactionDate().toEpochDay(),
+                        Money.cents(t.getAmount()),
+                        t.getCategory() != null ? t.getCategory().getId() : TransactionColumns.UNCATEGORIZED,
+                        TransactionsChangedEvent.isExpense(t.getCategory() != null ? t.getCategory().getType() : null)
+                ));
+        return columns;
+    }
+
+    // CSV u formatu importa; svaki stoti redak je neispravan da se izmjeri i put odbijanja
+    byte[] csv() {
+        StringBuilder sb = new StringBuilder("transaction_date,amount,description,category_name,category_type\n");
+        for (int i = 0; i < transactions.size(); i++) {
+            Transaction t = transactions.get(i);
+            Category c = t.getCategory() != null ? t.getCategory() : category(4);
+            sb.append(t.getTransactionDate()).append(',')
+                    .append(i % 100 == 99 ? "n/a" : t.getAmount().toPlainString()).append(',')
+                    .append(t.getDescription()).append(',')
+                    .append(c.getName()).append(',')
+                    .append(c.getType()).append('\n');
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static double seasonality(LocalDate date) {
+        double season = 1.0 + 0.25 * Math.cos(2 * Math.PI * (date.getMonthValue() - 12) / 12.0);
+        DayOfWeek dow = date.getDayOfWeek();
+        return dow == DayOfWeek.SATURDAY || dow == DayOfWeek.SUNDAY ? season * 1.3 : season;
+    }
+}
@@ -0,0 +1,57 @@
+package com.havana.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link TransactionTemplateXlsxService#templateFor} for the nine global categories. With
+ * {@code maxTemplates = 0} nothing stays cached and every call renders the workbook; with the
+ * default size every call after the first is a lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class TemplateBenchmark {
+
+    @Param({"0", "500"})
+    long maxTemplates;
+
+    private TransactionTemplateXlsxService templateService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticHistory history = new SyntheticHistory(0);
+
+        CategoryCache categoryCache = mock(CategoryCache.class);
+        when(categoryCache.forUser(SyntheticHistory.USER_ID)).thenReturn(
+                history.categories.stream().map(CategoryCache.CachedCategory::of).toList());
+
+        templateService = new TransactionTemplateXlsxService(
+                categoryCache, maxTemplates, Duration.ofHours(1), new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public TransactionTemplateXlsxService.XlsxTemplate templateFor() {
+        return templateService.templateFor(SyntheticHistory.USER_ID);
+    }
+}
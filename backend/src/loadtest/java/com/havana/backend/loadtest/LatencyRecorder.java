@@ -0,0 +1,112 @@
+package com.havana.backend.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Latencies per operation. Every sample is kept (a few million longs at most), so percentiles are
+ * exact rather than bucketed.
+ */
+class LatencyRecorder {
+
+    private final Map<String, Samples> byOperation = new ConcurrentSkipListMap<>();
+
+    private static final class Samples {
+        private long[] nanos = new long[1024];
+        private int size;
+        private int errors;
+
+        synchronized void add(long latency, boolean ok) {
+            if (size == nanos.length) {
+                nanos = Arrays.copyOf(nanos, size * 2);
+            }
+            nanos[size++] = latency;
+            if (!ok) errors++;
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(nanos, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+
+        synchronized int errors() {
+            return errors;
+        }
+    }
+
+    record Result(String operation, int count, int errors, double throughput,
+                  double p50Ms, double p95Ms, double p99Ms, double maxMs) {}
+
+    void record(String operation, long latencyNanos, boolean ok) {
+        byOperation.computeIfAbsent(operation, k -> new Samples()).add(latencyNanos, ok);
+    }
+
+    List<Result> results(double seconds) {
+        List<Result> results = new ArrayList<>();
+        long[] all = new long[0];
+        int allErrors = 0;
+
+        for (Map.Entry<String, Samples> e : byOperation.entrySet()) {
+            long[] sorted = e.getValue().sorted();
+            int errors = e.getValue().errors();
+            results.add(result(e.getKey(), sorted, errors, seconds));
+
+            long[] merged = Arrays.copyOf(all, all.length + sorted.length);
+            System.arraycopy(sorted, 0, merged, all.length, sorted.length);
+            all = merged;
+            allErrors += errors;
+        }
+
+        Arrays.sort(all);
+        results.add(result("TOTAL", all, allErrors, seconds));
+        return results;
+    }
+
+    static void print(List<Result> results, PrintStream out) {
+        out.printf(Locale.ROOT, "%-34s %8s %7s %9s %9s %9s %9s %9s%n",
+                "operation", "count", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        for (Result r : results) {
+            out.printf(Locale.ROOT, "%-34s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    r.operation(), r.count(), r.errors(), r.throughput(), r.p50Ms(), r.p95Ms(), r.p99Ms(), r.maxMs());
+        }
+    }
+
+    static void writeCsv(List<Result> results, Path file) throws IOException {
+        StringBuilder sb = new StringBuilder("operation,count,errors,throughput,p50_ms,p95_ms,p99_ms,max_ms\n");
+        for (Result r : results) {
+            sb.append(String.format(Locale.ROOT, "%s,%d,%d,%.2f,%.3f,%.3f,%.3f,%.3f%n",
+                    r.operation(), r.count(), r.errors(), r.throughput(), r.p50Ms(), r.p95Ms(), r.p99Ms(), r.maxMs()));
+        }
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        Files.writeString(file, sb);
+    }
+
+    private static Result result(String operation, long[] sorted, int errors, double seconds) {
+        return new Result(
+                operation,
+                sorted.length,
+                errors,
+                sorted.length / seconds,
+                percentile(sorted, 0.50),
+                percentile(sorted, 0.95),
+                percentile(sorted, 0.99),
+                sorted.length > 0 ? sorted[sorted.length - 1] / 1e6 : 0.0
+        );
+    }
+
+    // nearest-rank
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0.0;
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1e6;
+    }
+}
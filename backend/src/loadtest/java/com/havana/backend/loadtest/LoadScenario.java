@@ -0,0 +1,229 @@
+package com.havana.backend.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiFunction;
+
+/**
+ * Closed-loop HTTP scenario over the real controllers: {@code concurrency} virtual users each pick a
+ * logged-in session and a weighted operation, send it, and immediately go again.
+ */
+class LoadScenario {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadScenario.class);
+
+    private static final String JSON = "application/json";
+
+    private static final String[] SEARCH_TERMS = {"lidl", "konzum", "kino", "gorivo", "struja"};
+
+    private record Session(int userId, String cookie) {}
+
+    private record Operation(String name, int weight, BiFunction<Session, ThreadLocalRandom, HttpRequest> request) {}
+
+    private final URI baseUri;
+    private final LoadTestConfig config;
+    private final List<Integer> expenseCategoryIds;
+    private final HttpClient client;
+    private final List<Operation> operations = new ArrayList<>();
+    private final int totalWeight;
+
+    LoadScenario(URI baseUri, LoadTestConfig config, List<Integer> expenseCategoryIds) {
+        this.baseUri = baseUri;
+        this.config = config;
+        this.expenseCategoryIds = expenseCategoryIds;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        operations.add(new Operation("GET dashboard/summary", 10, (s, r) ->
+                get(s, "/api/dashboard/summary")));
+        operations.add(new Operation("GET dashboard/spending-by-category", 20, (s, r) ->
+                get(s, "/api/dashboard/spending-by-category")));
+        operations.add(new Operation("GET dashboard/weekly-goal", 5, (s, r) ->
+                get(s, "/api/dashboard/weekly-goal")));
+        operations.add(new Operation("GET transactions/monthly-balance", 10, (s, r) ->
+                get(s, "/api/transactions/monthly-balance")));
+        operations.add(new Operation("GET transactions (keyset)", 10, (s, r) ->
+                get(s, "/api/transactions?mode=keyset&size=20")));
+        operations.add(new Operation("POST transactions/search", 10, (s, r) ->
+                post(s, "/api/transactions/search?size=20", """
+                        {"description":"%s","categoryType":"EXPENSE","sortBy":"date_desc"}
+                        """.formatted(SEARCH_TERMS[r.nextInt(SEARCH_TERMS.length)]))));
+        operations.add(new Operation("GET predict", 10, (s, r) ->
+                get(s, "/api/predict?categoryId=" + expenseCategory(r) + "&date=" + LocalDate.now().plusDays(1 + r.nextInt(30)))));
+        operations.add(new Operation("GET predict/daily", 5, (s, r) ->
+                get(s, "/api/predict/daily?date=" + LocalDate.now().plusDays(1 + r.nextInt(30)))));
+        operations.add(new Operation("GET predict/analyze-daily", 5, (s, r) ->
+                get(s, "/api/predict/analyze-daily")));
+        operations.add(new Operation("GET analysis/monthly", 8, (s, r) ->
+                get(s, "/api/analysis/monthly?months=12")));
+        operations.add(new Operation("GET analysis/daily", 8, (s, r) ->
+                get(s, "/api/analysis/daily?days=30")));
+        operations.add(new Operation("POST transactions", 5, (s, r) ->
+                post(s, "/api/transactions", String.format(Locale.ROOT, """
+                        {"categoryId":%d,"amount":%.2f,"transactionDate":"%s","description":"load"}
+                        """, expenseCategory(r), 5 + r.nextDouble() * 50, LocalDate.now().minusDays(r.nextInt(30))))));
+        operations.add(new Operation("POST transactions/import", 1, this::importRequest));
+
+        this.totalWeight = operations.stream().mapToInt(Operation::weight).sum();
+    }
+
+    /**
+     * Runs the warmup and the measured phase and returns what was recorded in the latter.
+     */
+    LatencyRecorder run(List<Integer> userIds) throws InterruptedException {
+        List<Session> sessions = login(userIds.subList(0, Math.min(config.sessions(), userIds.size())));
+        if (sessions.isEmpty()) {
+            throw new IllegalStateException("No session could log in");
+        }
+
+        log.info("Warming up for {}", config.warmup());
+        drive(sessions, config.warmup(), new LatencyRecorder());
+
+        log.info("Measuring {} virtual users for {}", config.concurrency(), config.duration());
+        LatencyRecorder recorder = new LatencyRecorder();
+        drive(sessions, config.duration(), recorder);
+        return recorder;
+    }
+
+    private void drive(List<Session> sessions, Duration duration, LatencyRecorder recorder) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < config.concurrency(); i++) {
+                workers.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        Session session = sessions.get(random.nextInt(sessions.size()));
+                        Operation op = pick(random);
+                        HttpRequest request = op.request().apply(session, random);
+
+                        long started = System.nanoTime();
+                        boolean ok;
+                        try {
+                            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            ok = status >= 200 && status < 300;
+                        } catch (IOException e) {
+                            ok = false;
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                        recorder.record(op.name(), System.nanoTime() - started, ok);
+                    }
+                });
+            }
+        }
+    }
+
+    // BCrypt je namjerno spor, pa se sesije otvaraju paralelno prije mjerenja
+    private List<Session> login(List<Integer> userIds) throws InterruptedException {
+        List<Session> sessions = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors())) {
+            List<Future<Session>> futures = new ArrayList<>();
+            for (int i = 0; i < userIds.size(); i++) {
+                int index = i;
+                int userId = userIds.get(i);
+                futures.add(executor.submit(() -> login(userId, SyntheticDataGenerator.email(config.seed(), index))));
+            }
+            for (Future<Session> f : futures) {
+                try {
+                    sessions.add(f.get());
+                } catch (ExecutionException e) {
+                    log.warn("Login failed", e.getCause());
+                }
+            }
+        }
+        log.info("Logged in {} sessions", sessions.size());
+        return sessions;
+    }
+
+    private Session login(int userId, String email) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve("/api/auth/login"))
+                .header("Content-Type", JSON)
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"email\":\"" + email + "\",\"password\":\"" + SyntheticDataGenerator.PASSWORD + "\"}"))
+                .build();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IOException("Login of " + email + " returned " + response.statusCode());
+        }
+
+        String cookie = response.headers().allValues("Set-Cookie").stream()
+                .filter(c -> c.startsWith("JSESSIONID="))
+                .map(c -> c.substring(0, c.indexOf(';') > 0 ? c.indexOf(';') : c.length()))
+                .findFirst()
+                .orElseThrow(() -> new IOException("No session cookie for " + email));
+        return new Session(userId, cookie);
+    }
+
+    private Operation pick(ThreadLocalRandom random) {
+        int ticket = random.nextInt(totalWeight);
+        for (Operation op : operations) {
+            ticket -= op.weight();
+            if (ticket < 0) return op;
+        }
+        return operations.getLast();
+    }
+
+    private HttpRequest get(Session session, String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .header("Cookie", session.cookie())
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(Session session, String path, String json) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .header("Cookie", session.cookie())
+                .header("Content-Type", JSON)
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    // mali CSV od 100 redaka; mjeri se predaja posla, sam import ide u pozadini
+    private HttpRequest importRequest(Session session, ThreadLocalRandom random) {
+        StringBuilder csv = new StringBuilder("transaction_date,amount,description,category_name,category_type\n");
+        for (int i = 0; i < 100; i++) {
+            csv.append(LocalDate.now().minusDays(random.nextInt(365))).append(',')
+                    .append(String.format(Locale.ROOT, "%.2f", 1 + random.nextDouble() * 100)).append(',')
+                    .append("import ").append(i).append(",Hrana,EXPENSE\n");
+        }
+
+        String boundary = UUID.randomUUID().toString();
+        String body = "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"load.csv\"\r\n"
+                + "Content-Type: text/csv\r\n\r\n"
+                + csv
+                + "\r\n--" + boundary + "--\r\n";
+
+        return HttpRequest.newBuilder(baseUri.resolve("/api/transactions/import"))
+                .header("Cookie", session.cookie())
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                .build();
+    }
+
+    private int expenseCategory(ThreadLocalRandom random) {
+        return expenseCategoryIds.get(random.nextInt(expenseCategoryIds.size()));
+    }
+}
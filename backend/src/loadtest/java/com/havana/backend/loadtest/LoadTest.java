@@ -0,0 +1,101 @@
+package com.havana.backend.loadtest;
+
+import com.havana.backend.BackendApplication;
+import com.havana.backend.service.MonthlyRollupService;
+import com.havana.backend.service.TransactionPartitionService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Generates data, starts the backend in-process on a random port and drives it over HTTP.
+ * Without {@code jdbc-url} an embedded PostgreSQL is started in a temp directory, so nothing but
+ * a JDK is needed:
+ * <pre>
+ * ./mvnw -Ploadtest -DskipTests test-compile exec:exec -Dloadtest.args="users=200 transactions=3000 duration=2m"
+ * </pre>
+ * Platform against virtual request threads at 1000 concurrent clients:
+ * <pre>
+ * ./mvnw -Ploadtest -DskipTests test-compile exec:exec -Dloadtest.args="threads=both concurrency=1000 sessions=500 users=500"
+ * </pre>
+ */
+public class LoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTest.class);
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+
+        EmbeddedPostgres embedded = null;
+        String jdbcUrl = config.jdbcUrl();
+        String username = config.jdbcUsername();
+        String password = config.jdbcPassword();
+        if (jdbcUrl == null) {
+            embedded = EmbeddedPostgres.builder().start();
+            jdbcUrl = embedded.getJdbcUrl("postgres", "postgres");
+            username = "postgres";
+            password = "postgres";
+        }
+
+        // sistemska svojstva imaju prednost pred application.properties (i .env se ne ucitava)
+        System.setProperty("spring.datasource.url", jdbcUrl);
+        System.setProperty("spring.datasource.username", username);
+        System.setProperty("spring.datasource.password", password);
+        System.setProperty("FRONTEND_URL", "http://localhost");
+        System.setProperty("server.port", "0");
+        System.setProperty("management.server.port", "0");
+        System.setProperty("spring.jpa.show-sql", "false");
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        try {
+            for (boolean virtualThreads : config.threads()) {
+                run(config, virtualThreads);
+            }
+        } finally {
+            if (embedded != null) {
+                embedded.close();
+            }
+        }
+    }
+
+    private static void run(LoadTestConfig config, boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        System.setProperty("spring.threads.virtual.enabled", String.valueOf(virtualThreads));
+
+        try (ConfigurableApplicationContext app = new SpringApplicationBuilder(BackendApplication.class).run()) {
+            DataSource dataSource = app.getBean(DataSource.class);
+
+            // drugi prolaz (threads=both) ponovno koristi iste korisnike
+            SyntheticDataGenerator generator = new SyntheticDataGenerator(dataSource, config);
+            List<Integer> userIds = generator.generate();
+            // generirani retci starijih godina su u default particiji dok im se ne otvori godina
+            app.getBean(TransactionPartitionService.class).ensurePartitions();
+            app.getBean(MonthlyRollupService.class).rebuild();
+
+            int port = app.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            LoadScenario scenario = new LoadScenario(
+                    URI.create("http://localhost:" + port), config, generator.expenseCategoryIds());
+
+            log.info("Running scenario against {} request threads", mode);
+            LatencyRecorder recorder = scenario.run(userIds);
+            List<LatencyRecorder.Result> results = recorder.results(config.duration().toMillis() / 1000.0);
+
+            System.out.println();
+            System.out.println("== " + mode + " threads, " + config.concurrency() + " concurrent clients ==");
+            LatencyRecorder.print(results, System.out);
+
+            Path report = config.threads().size() > 1
+                    ? config.report().resolveSibling(mode + "-" + config.report().getFileName())
+                    : config.report();
+            LatencyRecorder.writeCsv(results, report);
+            log.info("Report written to {}", report.toAbsolutePath());
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.havana.backend.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Load test settings, given as {@code key=value} program arguments, e.g.
+ * {@code users=500 transactions=3000 concurrency=64 duration=2m}.
+ *
+ * @param users              generated users
+ * @param transactions       average transactions per user; actual counts are skewed so a few users are heavy
+ * @param years              length of the generated history, ending today
+ * @param categoryWeights    share of transactions per seeded category name
+ * @param seed               random seed; a rerun against the same local database reuses the users of that seed
+ * @param threads            request threads of the backend: {@code virtual}, {@code platform}, or {@code both}
+ *                           to run the same scenario against each and compare
+ * @param concurrency        parallel virtual users sending requests back to back
+ * @param sessions           logged-in users the virtual users pick from
+ * @param warmup             time before latencies are recorded
+ * @param duration           measured time
+ * @param jdbcUrl            local PostgreSQL to use instead of the embedded one, or null
+ * @param seedScript         script with the global categories
+ * @param report             CSV file the results are written to
+ */
+record LoadTestConfig(
+        int users,
+        int transactions,
+        int years,
+        Map<String, Double> categoryWeights,
+        long seed,
+        List<Boolean> threads,
+        int concurrency,
+        int sessions,
+        Duration warmup,
+        Duration duration,
+        String jdbcUrl,
+        String jdbcUsername,
+        String jdbcPassword,
+        Path seedScript,
+        Path report
+) {
+
+    // udio transakcija po kategoriji iz PopunjenjeBaze.sql
+    static final String DEFAULT_WEIGHTS =
+            "Plaća=2,Bonus=1,Pokloni=2,Hrana=43,Najam=2,Režije=6,Prijevoz=20,Zabava=16,Zdravlje=4";
+
+    static LoadTestConfig parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Expected key=value, got '" + arg + "'");
+            }
+            values.put(arg.substring(0, eq).trim(), arg.substring(eq + 1).trim());
+        }
+
+        int users = Integer.parseInt(values.getOrDefault("users", "100"));
+        return new LoadTestConfig(
+                users,
+                Integer.parseInt(values.getOrDefault("transactions", "2000")),
+                Integer.parseInt(values.getOrDefault("years", "3")),
+                parseWeights(values.getOrDefault("weights", DEFAULT_WEIGHTS)),
+                Long.parseLong(values.getOrDefault("seed", "42")),
+                parseThreads(values.getOrDefault("threads", "virtual")),
+                Integer.parseInt(values.getOrDefault("concurrency", "32")),
+                Integer.parseInt(values.getOrDefault("sessions", String.valueOf(Math.min(users, 100)))),
+                DurationStyle.detectAndParse(values.getOrDefault("warmup", "15s")),
+                DurationStyle.detectAndParse(values.getOrDefault("duration", "60s")),
+                values.get("jdbc-url"),
+                values.getOrDefault("jdbc-username", "postgres"),
+                values.getOrDefault("jdbc-password", "postgres"),
+                Path.of(values.getOrDefault("seed-script", "../BAZA/PopunjenjeBaze.sql")),
+                Path.of(values.getOrDefault("report", "target/loadtest-report.csv"))
+        );
+    }
+
+    // true = virtualne niti
+    private static List<Boolean> parseThreads(String spec) {
+        return switch (spec) {
+            case "virtual" -> List.of(true);
+            case "platform" -> List.of(false);
+            case "both" -> List.of(false, true);
+            default -> throw new IllegalArgumentException("threads must be virtual, platform or both");
+        };
+    }
+
+    private static Map<String, Double> parseWeights(String spec) {
+        Map<String, Double> weights = new LinkedHashMap<>();
+        for (String part : spec.split(",")) {
+            String[] kv = part.split("=");
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("Invalid category weight '" + part + "'");
+            }
+            weights.put(kv[0].trim(), Double.parseDouble(kv[1].trim()));
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,243 @@
+package com.havana.backend.loadtest;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Fills the database with users and transaction histories through COPY. Histories are seasonal
+ * (December peak, summer dip), spend more on weekends, and the number of transactions per user is
+ * log-normal around the configured average so there are a few heavy users.
+ */
+class SyntheticDataGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+    static final String PASSWORD = "loadtest";
+
+    private static final int COPY_BATCH_ROWS = 100_000;
+
+    // tipican iznos po kategoriji, u eurima
+    private static final Map<String, Double> BASE_AMOUNTS = Map.of(
+            "Plaća", 1500.0,
+            "Bonus", 400.0,
+            "Pokloni", 50.0,
+            "Hrana", 18.0,
+            "Najam", 450.0,
+            "Režije", 60.0,
+            "Prijevoz", 8.0,
+            "Zabava", 25.0,
+            "Zdravlje", 30.0
+    );
+
+    private static final Map<String, String[]> DESCRIPTIONS = Map.of(
+            "Hrana", new String[]{"Konzum", "Lidl", "Spar", "Pekara", "Restoran"},
+            "Prijevoz", new String[]{"ZET karta", "Gorivo", "Taxi", "Parking"},
+            "Zabava", new String[]{"Kino", "Koncert", "Netflix", "Kafic"},
+            "Režije", new String[]{"Struja", "Voda", "Plin", "Internet"},
+            "Zdravlje", new String[]{"Ljekarna", "Pregled", "Teretana"}
+    );
+
+    private final DataSource dataSource;
+    private final LoadTestConfig config;
+
+    SyntheticDataGenerator(DataSource dataSource, LoadTestConfig config) {
+        this.dataSource = dataSource;
+        this.config = config;
+    }
+
+    static String email(long seed, int index) {
+        return "load-" + seed + "-" + index + "@fintrack.local";
+    }
+
+    /**
+     * @return ids of the generated users, in the order of {@link #email}
+     */
+    List<Integer> generate() throws SQLException, IOException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            Map<String, Integer> categories = seedCategories(connection);
+
+            List<Integer> userIds = userIds(connection);
+            if (!userIds.isEmpty()) {
+                log.info("Reusing {} generated users of seed {}", userIds.size(), config.seed());
+                return userIds;
+            }
+
+            CopyManager copy = connection.unwrap(PGConnection.class).getCopyAPI();
+            long started = System.nanoTime();
+
+            String hash = new BCryptPasswordEncoder().encode(PASSWORD);
+            StringBuilder users = new StringBuilder();
+            LocalDateTime now = LocalDateTime.now();
+            for (int i = 0; i < config.users(); i++) {
+                users.append(email(config.seed(), i)).append(',')
+                        .append(hash).append(',')
+                        .append("load").append(i).append(",false,")
+                        .append(now).append('\n');
+            }
+            copy.copyIn("COPY users (email, password_hash, username, is_admin, created_at) FROM STDIN WITH (FORMAT csv)",
+                    new StringReader(users.toString()));
+            userIds = userIds(connection);
+
+            long rows = copyTransactions(copy, userIds, categories);
+
+            // rollup se puni iz transakcija nakon pokretanja (MonthlyRollupService.rebuild)
+            try (Statement st = connection.createStatement()) {
+                st.execute("ANALYZE transactions");
+            }
+
+            log.info("Generated {} users and {} transactions in {} ms",
+                    userIds.size(), rows, (System.nanoTime() - started) / 1_000_000);
+            return userIds;
+        }
+    }
+
+    private long copyTransactions(CopyManager copy, List<Integer> userIds, Map<String, Integer> categories)
+            throws SQLException, IOException {
+        Random random = new Random(config.seed());
+
+        List<String> names = new ArrayList<>(config.categoryWeights().keySet());
+        double[] cumulative = new double[names.size()];
+        double total = 0.0;
+        for (int i = 0; i < names.size(); i++) {
+            if (!categories.containsKey(names.get(i))) {
+                throw new IllegalArgumentException("Unknown category '" + names.get(i) + "'");
+            }
+            total += config.categoryWeights().get(names.get(i));
+            cumulative[i] = total;
+        }
+
+        LocalDate end = LocalDate.now();
+        int days = config.years() * 365;
+        LocalDateTime createdAt = LocalDateTime.now();
+
+        StringBuilder batch = new StringBuilder();
+        int batchRows = 0;
+        long rows = 0;
+
+        for (Integer userId : userIds) {
+            // log-normalno, srednja vrijednost = transactions
+            double sigma = 0.75;
+            int count = Math.max(1, (int) Math.round(
+                    config.transactions() * Math.exp(sigma * random.nextGaussian() - sigma * sigma / 2)));
+            double userScale = Math.exp(0.3 * random.nextGaussian());
+
+            for (int i = 0; i < count; i++) {
+                LocalDate date = end.minusDays(random.nextInt(days));
+
+                double pick = random.nextDouble() * total;
+                int c = 0;
+                while (cumulative[c] < pick) c++;
+                String name = names.get(c);
+
+                double amount = BASE_AMOUNTS.getOrDefault(name, 20.0) * userScale
+                        * seasonality(date) * Math.exp(0.5 * random.nextGaussian());
+                String[] descriptions = DESCRIPTIONS.get(name);
+                String description = descriptions != null
+                        ? descriptions[random.nextInt(descriptions.length)]
+                        : name;
+
+                batch.append(userId).append(',')
+                        .append(categories.get(name)).append(',')
+                        .append(String.format(Locale.ROOT, "%.2f", Math.max(0.01, amount))).append(',')
+                        .append(date).append(',')
+                        .append(description).append(',')
+                        .append(createdAt).append('\n');
+
+                if (++batchRows == COPY_BATCH_ROWS) {
+                    rows += copyBatch(copy, batch);
+                    batch.setLength(0);
+                    batchRows = 0;
+                }
+            }
+        }
+        if (batchRows > 0) {
+            rows += copyBatch(copy, batch);
+        }
+        return rows;
+    }
+
+    private static long copyBatch(CopyManager copy, StringBuilder batch) throws SQLException, IOException {
+        return copy.copyIn(
+                "COPY transactions (user_id, category_id, amount, transaction_date, description, created_at) "
+                        + "FROM STDIN WITH (FORMAT csv)",
+                new StringReader(batch.toString()));
+    }
+
+    // globalne kategorije iz PopunjenjeBaze.sql, ako ih baza jos nema
+    private Map<String, Integer> seedCategories(Connection connection) throws SQLException {
+        Map<String, Integer> categories = globalCategories(connection);
+        if (categories.isEmpty()) {
+            ScriptUtils.executeSqlScript(connection, new FileSystemResource(config.seedScript()));
+            categories = globalCategories(connection);
+        }
+        return categories;
+    }
+
+    List<Integer> expenseCategoryIds() throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery(
+                     "SELECT id FROM categories WHERE user_id IS NULL AND type = 'EXPENSE' ORDER BY id")) {
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+        }
+        return ids;
+    }
+
+    private static Map<String, Integer> globalCategories(Connection connection) throws SQLException {
+        Map<String, Integer> categories = new LinkedHashMap<>();
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT id, name FROM categories WHERE user_id IS NULL ORDER BY id")) {
+            while (rs.next()) {
+                categories.put(rs.getString("name"), rs.getInt("id"));
+            }
+        }
+        return categories;
+    }
+
+    private List<Integer> userIds(Connection connection) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT id FROM users WHERE email LIKE ? ORDER BY id")) {
+            ps.setString(1, "load-" + config.seed() + "-%");
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static double seasonality(LocalDate date) {
+        double season = 1.0 + 0.25 * Math.cos(2 * Math.PI * (date.getMonthValue() - 12) / 12.0);
+        DayOfWeek dow = date.getDayOfWeek();
+        return dow == DayOfWeek.SATURDAY || dow == DayOfWeek.SUNDAY ? season * 1.3 : season;
+    }
+}
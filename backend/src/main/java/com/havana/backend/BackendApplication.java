@@ -3,10 +3,14 @@ package com.havana.backend;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import io.github.cdimascio.dotenv.Dotenv;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 @SpringBootApplication
 public class BackendApplication {
 
+    private static final Logger log = LoggerFactory.getLogger(BackendApplication.class);
+
     public static void main(String[] args) {
 
         // Check if we're running in Docker (env var set in docker-compose.yml)
@@ -15,9 +19,9 @@ public class BackendApplication {
             dotenv.entries().forEach(entry ->
                     System.setProperty(entry.getKey(), entry.getValue())
             );
-            System.out.println("Loaded .env file for local environment");
+            log.info("Loaded .env file for local environment");
         } else {
-            System.out.println("Running inside Docker - skipping .env load");
+            log.info("Running inside Docker - skipping .env load");
         }
 
         SpringApplication.run(BackendApplication.class, args);
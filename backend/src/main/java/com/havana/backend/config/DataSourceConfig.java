@@ -0,0 +1,36 @@
+package com.havana.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+@Configuration
+public class DataSourceConfig {
+
+    // static, da se post-processor registrira prije nego sto se kreira DataSource
+    @Bean
+    public static BeanPostProcessor dataSourceWrappingPostProcessor(Environment env) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource hikari)) return bean;
+
+                DataSource dataSource = hikari;
+                if (env.getProperty("fintrack.db.limit-concurrency", Boolean.class, true)) {
+                    dataSource = new ConnectionLimitingDataSource(
+                            hikari,
+                            hikari.getMaximumPoolSize(),
+                            env.getProperty("fintrack.db.max-waiting", Integer.class, 2000),
+                            env.getProperty("fintrack.db.acquire-timeout", Duration.class, Duration.ofSeconds(10))
+                    );
+                }
+                return new StatementCountingDataSource(dataSource);
+            }
+        };
+    }
+}
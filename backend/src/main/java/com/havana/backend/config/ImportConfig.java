@@ -0,0 +1,30 @@
+package com.havana.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ImportConfig {
+
+    // mali, ograniceni pool - importi su teski za bazu pa ih ne pustamo previse paralelno
+    @Bean
+    public ThreadPoolTaskExecutor importExecutor(
+            @Value("${fintrack.import.workers:2}") int workers,
+            @Value("${fintrack.import.queue-capacity:50}") int queueCapacity,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("import-");
+        if (virtualThreads) {
+            // isti broj radnika i isti red, ali dok cekaju bazu ne drze platformsku nit
+            executor.setThreadFactory(Thread.ofVirtual().name("import-", 0).factory());
+        }
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+}
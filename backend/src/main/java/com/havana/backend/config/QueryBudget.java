@@ -0,0 +1,20 @@
+package com.havana.backend.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Most SQL statements a route may execute per request. Exceeding it is logged and counted as
+ * {@code fintrack.sql.budget.exceeded}; with {@code fintrack.sql.expose-headers} the budget is also
+ * sent as {@code X-SQL-Budget}, which the integration tests check.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+    int statements();
+}
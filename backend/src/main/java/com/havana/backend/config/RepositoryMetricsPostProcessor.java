@@ -0,0 +1,74 @@
+package com.havana.backend.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.aop.framework.autoproxy.AbstractBeanFactoryAwareAdvisingPostProcessor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.RootClassFilter;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.repository.Repository;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times every call on our Spring Data repositories as {@code fintrack.repository.invocations},
+ * tagged with repository, method and outcome. Repositories are already AOP proxies, so the
+ * interceptor is simply added in front of their advice chain.
+ */
+public class RepositoryMetricsPostProcessor extends AbstractBeanFactoryAwareAdvisingPostProcessor {
+
+    private static final String OWN_PACKAGE = "com.havana.backend.";
+
+    private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+    public RepositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        MethodInterceptor timing = invocation -> {
+            Timer.Sample sample = Timer.start();
+            String outcome = "success";
+            try {
+                return invocation.proceed();
+            } catch (Throwable e) {
+                outcome = "error";
+                throw e;
+            } finally {
+                sample.stop(Timer.builder("fintrack.repository.invocations")
+                        .tag("repository", repositoryName(invocation))
+                        .tag("method", invocation.getMethod().getName())
+                        .tag("outcome", outcome)
+                        .register(meterRegistry.getObject()));
+            }
+        };
+
+        StaticMethodMatcherPointcut pointcut = new StaticMethodMatcherPointcut() {
+            @Override
+            public boolean matches(Method method, Class<?> targetClass) {
+                return method.getDeclaringClass() != Object.class;
+            }
+        };
+        pointcut.setClassFilter(new RootClassFilter(Repository.class));
+
+        this.advisor = new DefaultPointcutAdvisor(pointcut, timing);
+        this.beforeExistingAdvisors = true;
+    }
+
+    // ime nase repository interfejsa (TransactionRepository), ne CrudRepository koji deklarira findById
+    private String repositoryName(MethodInvocation invocation) {
+        Class<?> type = invocation instanceof ProxyMethodInvocation pmi
+                ? pmi.getProxy().getClass()
+                : invocation.getMethod().getDeclaringClass();
+
+        return repositoryNames.computeIfAbsent(type, t -> {
+            for (Class<?> iface : ClassUtils.getAllInterfacesForClassAsSet(t)) {
+                if (iface.getName().startsWith(OWN_PACKAGE)) return iface.getSimpleName();
+            }
+            return ClassUtils.getUserClass(t).getSimpleName();
+        });
+    }
+}
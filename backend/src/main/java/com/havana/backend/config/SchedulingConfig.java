@@ -0,0 +1,10 @@
+package com.havana.backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// nocno odrzavanje particija transakcija (TransactionPartitionService)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,46 @@
+package com.havana.backend.config;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.query.sqm.function.SqmFunctionRegistry;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * PostgreSQL search functions for Criteria queries. The SQL is written exactly as the GIN indexes
+ * in {@code db/migration/V3__pretraga_opisa.sql} are defined, otherwise the planner would not use them:
+ * <ul>
+ *     <li>{@code fts_match(description, query)} / {@code fts_rank(description, query)}: word search
+ *     over {@code to_tsvector('simple', ...)} with {@code websearch_to_tsquery} syntax</li>
+ *     <li>{@code trgm_similarity(description, term)}: pg_trgm similarity, relevance for substring search
+ *     (the substring condition itself stays {@code lower(description) LIKE}, which the trigram index serves)</li>
+ * </ul>
+ * Registered through {@code META-INF/services}.
+ */
+public class SearchFunctionContributor implements FunctionContributor {
+
+    static final String TS_VECTOR = "to_tsvector('simple', coalesce(?1, ''))";
+    static final String TS_QUERY = "websearch_to_tsquery('simple', ?2)";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        SqmFunctionRegistry registry = functionContributions.getFunctionRegistry();
+        BasicTypeRegistry types = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+
+        registry.registerPattern(
+                "fts_match",
+                "(" + TS_VECTOR + " @@ " + TS_QUERY + ")",
+                types.resolve(StandardBasicTypes.BOOLEAN)
+        );
+        registry.registerPattern(
+                "fts_rank",
+                "ts_rank(" + TS_VECTOR + ", " + TS_QUERY + ")",
+                types.resolve(StandardBasicTypes.FLOAT)
+        );
+        registry.registerPattern(
+                "trgm_similarity",
+                "similarity(lower(?1), lower(?2))",
+                types.resolve(StandardBasicTypes.FLOAT)
+        );
+    }
+}
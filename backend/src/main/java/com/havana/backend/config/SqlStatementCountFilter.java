@@ -0,0 +1,151 @@
+package com.havana.backend.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Counts the SQL statements and rows of every request and records them per route as
+ * {@code fintrack.sql.statements} and {@code fintrack.sql.rows}. With {@code fintrack.sql.expose-headers}
+ * (dev and tests) they are also returned as {@code X-SQL-Statements} and {@code X-SQL-Rows}; the
+ * headers go out with the first byte of the body, so they cover everything done before rendering.
+ */
+@Component
+public class SqlStatementCountFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENTS_HEADER = "X-SQL-Statements";
+    public static final String ROWS_HEADER = "X-SQL-Rows";
+    public static final String BUDGET_HEADER = "X-SQL-Budget";
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatementCountFilter.class);
+
+    private final MeterRegistry meterRegistry;
+    private final boolean exposeHeaders;
+
+    public SqlStatementCountFilter(
+            MeterRegistry meterRegistry,
+            @Value("${fintrack.sql.expose-headers:false}") boolean exposeHeaders
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.exposeHeaders = exposeHeaders;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlStatementCounter.Counts counts = SqlStatementCounter.start();
+        CountHeaders headers = exposeHeaders ? new CountHeaders(request, response, counts) : null;
+        try {
+            chain.doFilter(request, headers != null ? headers : response);
+            if (headers != null) headers.write();
+        } finally {
+            SqlStatementCounter.stop(counts);
+            record(request, counts);
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlStatementCounter.Counts counts) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+
+        DistributionSummary.builder("fintrack.sql.statements")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(counts.statements());
+        DistributionSummary.builder("fintrack.sql.rows")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(counts.rows());
+
+        QueryBudget budget = budget(request);
+        if (budget != null && counts.statements() > budget.statements()) {
+            meterRegistry.counter("fintrack.sql.budget.exceeded", "method", request.getMethod(), "uri", uri).increment();
+            log.warn("{} {} ran {} SQL statements, budget is {}",
+                    request.getMethod(), uri, counts.statements(), budget.statements());
+        }
+    }
+
+    private static QueryBudget budget(HttpServletRequest request) {
+        return request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handler
+                ? handler.getMethodAnnotation(QueryBudget.class)
+                : null;
+    }
+
+    // zaglavlja se postavljaju tik prije prvog zapisa tijela, poslije bi bilo prekasno
+    private static final class CountHeaders extends HttpServletResponseWrapper {
+
+        private final HttpServletRequest request;
+        private final SqlStatementCounter.Counts counts;
+        private boolean written;
+
+        CountHeaders(HttpServletRequest request, HttpServletResponse response, SqlStatementCounter.Counts counts) {
+            super(response);
+            this.request = request;
+            this.counts = counts;
+        }
+
+        void write() {
+            if (written || isCommitted()) return;
+            written = true;
+            setHeader(STATEMENTS_HEADER, String.valueOf(counts.statements()));
+            setHeader(ROWS_HEADER, String.valueOf(counts.rows()));
+            QueryBudget budget = budget(request);
+            if (budget != null) {
+                setHeader(BUDGET_HEADER, String.valueOf(budget.statements()));
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            write();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            write();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            write();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            write();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            write();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            write();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.havana.backend.config;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statement and row counts of the current HTTP request. The counts are inherited by threads the
+ * request starts (the dashboard fan-out, cache loads), so their queries are charged to it as well.
+ */
+public final class SqlStatementCounter {
+
+    private static final InheritableThreadLocal<Counts> CURRENT = new InheritableThreadLocal<>();
+
+    private SqlStatementCounter() {
+    }
+
+    public static final class Counts {
+        private final LongAdder statements = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private volatile boolean open = true;
+
+        public long statements() {
+            return statements.sum();
+        }
+
+        public long rows() {
+            return rows.sum();
+        }
+
+        void statement() {
+            statements.increment();
+        }
+
+        void row() {
+            rows.increment();
+        }
+    }
+
+    static Counts start() {
+        Counts counts = new Counts();
+        CURRENT.set(counts);
+        return counts;
+    }
+
+    static void stop(Counts counts) {
+        counts.open = false;
+        CURRENT.remove();
+    }
+
+    // nit iz poola koju je stvorio neki raniji zahtjev naslijedi njegove (zatvorene) brojace
+    static Counts current() {
+        Counts counts = CURRENT.get();
+        return counts != null && counts.open ? counts : null;
+    }
+}
@@ -0,0 +1,92 @@
+package com.havana.backend.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Counts executed statements and fetched rows into the {@link SqlStatementCounter} of the request
+ * that opened the connection. Connections opened outside a request (imports, startup) are returned
+ * as they are. A JDBC batch is one round trip and is counted as one statement.
+ */
+public class StatementCountingDataSource extends DelegatingDataSource {
+
+    public StatementCountingDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return counting(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return counting(super.getConnection(username, password));
+    }
+
+    private static Connection counting(Connection connection) {
+        SqlStatementCounter.Counts counts = SqlStatementCounter.current();
+        if (counts == null) return connection;
+
+        return proxy(Connection.class, connection, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            return switch (method.getName()) {
+                case "createStatement" -> statement(Statement.class, (Statement) result, counts);
+                case "prepareStatement" -> statement(PreparedStatement.class, (PreparedStatement) result, counts);
+                case "prepareCall" -> statement(CallableStatement.class, (CallableStatement) result, counts);
+                default -> result;
+            };
+        });
+    }
+
+    private static <S extends Statement> S statement(Class<S> type, S statement, SqlStatementCounter.Counts counts) {
+        return proxy(type, statement, (proxy, method, args) -> {
+            if (method.getName().startsWith("execute")) {
+                counts.statement();
+            }
+            Object result = invoke(statement, method, args);
+            return result instanceof ResultSet rs ? resultSet(rs, counts) : result;
+        });
+    }
+
+    private static ResultSet resultSet(ResultSet resultSet, SqlStatementCounter.Counts counts) {
+        return proxy(ResultSet.class, resultSet, (proxy, method, args) -> {
+            Object result = invoke(resultSet, method, args);
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                counts.row();
+            }
+            return result;
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, T target, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getName().equals("equals") && method.getParameterCount() == 1) {
+                return proxy == args[0];
+            }
+            if (method.getName().equals("hashCode") && method.getParameterCount() == 0) {
+                return System.identityHashCode(proxy);
+            }
+            return handler.invoke(proxy, method, args);
+        }));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -4,10 +4,15 @@ import com.havana.backend.data.AdminCreateUserRequest;
 import com.havana.backend.data.AdminUpdateUserRequest;
 import com.havana.backend.data.CreateCategoryRequest;
 import com.havana.backend.data.RegularUserResponse;
+import com.havana.backend.data.RollupCheckResponse;
+import com.havana.backend.data.TransactionPartitionResponse;
 import com.havana.backend.model.Category;
 import com.havana.backend.model.User;
 import com.havana.backend.service.AdminService;
 import com.havana.backend.service.CategoryService;
+import com.havana.backend.service.MonthlyRollupService;
+import com.havana.backend.service.PredictionModelCache;
+import com.havana.backend.service.TransactionPartitionService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -21,6 +26,9 @@ public class AdminController {
 
     private final AdminService adminService;
     private final CategoryService categoryService;
+    private final MonthlyRollupService monthlyRollupService;
+    private final PredictionModelCache predictionModelCache;
+    private final TransactionPartitionService transactionPartitionService;
 
     // dodavanje
     @GetMapping("/users/admins")
@@ -30,10 +38,17 @@ public class AdminController {
         );
     }
 
+    // stranicenje, sortiranje (npr. sort=balance&direction=desc) i pretraga po emailu idu na bazu
     @GetMapping("/users/regular")
-    public ResponseEntity<?> getRegularUsers() {
+    public ResponseEntity<?> getRegularUsers(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(required = false) String email
+    ) {
         return ResponseEntity.ok(
-                adminService.getRegularUsers()
+                adminService.getRegularUsers(page, size, sort, direction, email)
         );
     }
 
@@ -88,4 +103,40 @@ public class AdminController {
         categoryService.deleteCategory(categoryId);
         return ResponseEntity.noContent().build();
     }
+
+    // ponovno racunanje mjesecnog rollupa iz transakcija
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<RollupCheckResponse> rebuildRollups() {
+        return ResponseEntity.ok(monthlyRollupService.rebuild());
+    }
+
+    // usporedba rollupa s transakcijama bez mijenjanja, vraca retke koji se razlikuju
+    @GetMapping("/rollups/verify")
+    public ResponseEntity<RollupCheckResponse> verifyRollups() {
+        return ResponseEntity.ok(monthlyRollupService.verify());
+    }
+
+    // godisnje particije transakcija, live i arhivirane
+    @GetMapping("/partitions")
+    public ResponseEntity<List<TransactionPartitionResponse>> partitions() {
+        return ResponseEntity.ok(transactionPartitionService.partitions());
+    }
+
+    // otvara particije koje nedostaju, isto sto radi nocno odrzavanje
+    @PostMapping("/partitions/ensure")
+    public ResponseEntity<List<String>> ensurePartitions() {
+        return ResponseEntity.ok(transactionPartitionService.ensurePartitions());
+    }
+
+    // arhivira godine prije "before"; tekuca i prosla godina ostaju live
+    @PostMapping("/partitions/archive")
+    public ResponseEntity<List<String>> archivePartitions(@RequestParam int before) {
+        return ResponseEntity.ok(transactionPartitionService.archiveBefore(before));
+    }
+
+    // hit/miss statistika cachea fitanih modela za predikciju
+    @GetMapping("/prediction-cache")
+    public ResponseEntity<?> predictionCacheStats() {
+        return ResponseEntity.ok(predictionModelCache.stats());
+    }
 }
@@ -1,5 +1,6 @@
 package com.havana.backend.controller;
 
+import com.havana.backend.config.QueryBudget;
 import com.havana.backend.service.AnalysisService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -21,6 +22,7 @@ public class AnalysisController {
 
     // GET /api/analisys/monthly?months=6[&categoryId=1]
     @GetMapping("/monthly")
+    @QueryBudget(statements = 2)
     public ResponseEntity<Map<String, Double>> monthly(
             @RequestParam int months,
             @RequestParam(required = false) Integer categoryId,
@@ -36,6 +38,7 @@ public class AnalysisController {
 
     // GET /api/analisys/daily?days=30[&categoryId=1]
     @GetMapping("/daily")
+    @QueryBudget(statements = 2)
     public ResponseEntity<Map<String, Object>> daily(
             @RequestParam int days,
             @RequestParam(required = false) Integer categoryId,
@@ -1,36 +1,54 @@
 package com.havana.backend.controller;
 
-import com.havana.backend.model.User;
-import com.havana.backend.service.UserService;
+import com.havana.backend.config.QueryBudget;
+import com.havana.backend.service.DashboardService;
 import com.havana.backend.service.TransactionService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+
 @RestController
 @RequestMapping("/api/dashboard")
 @RequiredArgsConstructor
 public class DashboardController {
 
     private final TransactionService transactionService;
-    private final UserService userService;
+    private final DashboardService dashboardService;
+
+    // sve za nadzornu plocu u jednom zahtjevu
+    @GetMapping("/summary")
+    @QueryBudget(statements = 7)
+    public ResponseEntity<?> getSummary(Authentication authentication) {
+        Integer userId = (Integer) authentication.getPrincipal();
+        if (userId == null) return ResponseEntity.status(401).body("You are not logged in");
 
+        return ResponseEntity.ok(dashboardService.getSummary(userId));
+    }
+
+    // opcionalni from/to (yyyy-MM-dd) ogranicavaju pie chart na period
     @GetMapping("/spending-by-category")
-    public ResponseEntity<?> getSpendingByCategory(Authentication authentication) {
+    @QueryBudget(statements = 1)
+    public ResponseEntity<?> getSpendingByCategory(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            Authentication authentication
+    ) {
         Integer userId = (Integer) authentication.getPrincipal();
         if (userId == null) return ResponseEntity.status(401).body("You are not logged in");
-        
-        User user = userService.findById((Integer) userId);
-        return ResponseEntity.ok(transactionService.getSpendingByCategory(user));
+
+        return ResponseEntity.ok(transactionService.getSpendingByCategory(userId, from, to));
     }
 
     @GetMapping("/weekly-goal")
+    @QueryBudget(statements = 1)
     public ResponseEntity<?> getWeeklyGoal(Authentication authentication) {
         Integer userId = (Integer) authentication.getPrincipal();
         if (userId == null) return ResponseEntity.status(401).build();
         
-        User user = userService.findById((Integer) userId);
-        return ResponseEntity.ok(transactionService.getWeeklyGoal(user));
+        return ResponseEntity.ok(transactionService.getWeeklyGoal(userId));
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.havana.backend.controller;
 
+import com.havana.backend.config.QueryBudget;
 import com.havana.backend.service.PredictionService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -66,6 +67,7 @@ public class PredictionController {
 
     // Predikcija dnevne potrošnje
     @GetMapping("/daily")
+    @QueryBudget(statements = 3)
     public ResponseEntity<Double> predictDaily(
             @RequestParam String date,
             Authentication authentication
@@ -80,6 +82,7 @@ public class PredictionController {
 
     // Rolling monthly average (jedan broj za zadnjih n mjeseci)
     @GetMapping("/rolling-average")
+    @QueryBudget(statements = 2)
     public ResponseEntity<Double> rollingAverage(
             @RequestParam int months,
             Authentication authentication
@@ -1,5 +1,6 @@
 package com.havana.backend.controller;
 
+import com.havana.backend.config.QueryBudget;
 import com.havana.backend.data.AddSavingAmountRequest;
 import com.havana.backend.data.CreateSavingGoalRequest;
 import com.havana.backend.service.SavingGoalService;
@@ -16,6 +17,7 @@ public class SavingGoalController {
     private final SavingGoalService savingGoalService;
 
     @GetMapping
+    @QueryBudget(statements = 1)
     public ResponseEntity<?> getSavingGoals(Authentication authentication) {
         Integer userId = (Integer) authentication.getPrincipal();
         return ResponseEntity.ok(
@@ -1,23 +1,32 @@
 package com.havana.backend.controller;
 
+import com.havana.backend.config.QueryBudget;
 import com.havana.backend.data.AddTransactionRequest;
-import com.havana.backend.data.ImportResultResponse;
+import com.havana.backend.data.ImportJobResponse;
 import com.havana.backend.data.TransactionFilterRequest;
 import com.havana.backend.data.TransactionResponse;
 import com.havana.backend.model.Transaction;
+import com.havana.backend.service.DescriptionHighlighter;
+import com.havana.backend.service.ImportJobService;
+import com.havana.backend.service.TransactionExportService;
 import com.havana.backend.service.TransactionService;
 import com.havana.backend.service.TransactionTemplateXlsxService;
+import com.havana.backend.service.TransactionTemplateXlsxService.XlsxTemplate;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.InputStreamResource;
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/transactions")
@@ -25,31 +34,31 @@ import java.io.ByteArrayInputStream;
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final ImportJobService importJobService;
     private final TransactionTemplateXlsxService transactionTemplateXlsxService;
+    private final TransactionExportService transactionExportService;
 
     // prikazujemo 10 transakcija po stranici koje pripadaju nekom korisniku
+    // mode=keyset (ili bilo koji cursor) vraca slice bez ukupnog broja, sljedeca stranica ide preko nextCursor
     @GetMapping
-    public ResponseEntity<Page<TransactionResponse>> getMyTransactions(
+    @QueryBudget(statements = 3)
+    public ResponseEntity<?> getMyTransactions(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "offset") String mode,
             Authentication authentication
     ) {
+        Integer userId = (Integer) authentication.getPrincipal();
+
+        if (cursor != null || "keyset".equalsIgnoreCase(mode)) {
+            return ResponseEntity.ok(transactionService.getTransactionsAfter(cursor, size, userId));
+        }
 
         Page<Transaction> transactions = transactionService
-                .getTransactionsForCurrentUser(page, size, (Integer) authentication.getPrincipal());
-
-        Page<TransactionResponse> response =
-                transactions.map(t -> new TransactionResponse(
-                        t.getId(),
-                        t.getAmount(),
-                        t.getTransactionDate(),
-                        t.getDescription(),
-                        t.getCategory() != null ? t.getCategory().getId() : null,
-                        t.getCategory() != null ? t.getCategory().getName() : "Ostalo",
-                        t.getCategory() != null ? t.getCategory().getType() : null
-                ));
-
-        return ResponseEntity.ok(response);
+                .getTransactionsForCurrentUser(page, size, userId);
+
+        return ResponseEntity.ok(transactions.map(TransactionResponse::from));
     }
 
     // za dodavanje transakcija
@@ -75,64 +84,117 @@ public class TransactionController {
 
     // pretrazivanje na osnovi zeljenih filtera
     @PostMapping("/search")
-    public ResponseEntity<Page<TransactionResponse>> search(
+    public ResponseEntity<?> search(
             @RequestBody TransactionFilterRequest filter,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "offset") String mode,
             Authentication authentication
     ) {
+        Integer userId = (Integer) authentication.getPrincipal();
+
+        if (cursor != null || "keyset".equalsIgnoreCase(mode)) {
+            return ResponseEntity.ok(transactionService.searchTransactionsAfter(filter, cursor, size, userId));
+        }
+
         Page<Transaction> result =
-                transactionService.searchTransactions(filter, page, size, (Integer) authentication.getPrincipal());
-
-        Page<TransactionResponse> response =
-                result.map(t -> new TransactionResponse(
-                        t.getId(),
-                        t.getAmount(),
-                        t.getTransactionDate(),
-                        t.getDescription(),
-                        t.getCategory() != null ? t.getCategory().getId() : null,
-                        t.getCategory() != null ? t.getCategory().getName() : "Ostalo",
-                        t.getCategory() != null ? t.getCategory().getType() : null
-                ));
-
-        return ResponseEntity.ok(response);
+                transactionService.searchTransactions(filter, page, size, userId);
+
+        return ResponseEntity.ok(result.map(t ->
+                TransactionResponse.from(t, DescriptionHighlighter.highlights(t.getDescription(), filter))));
+    }
+
+    // izvoz svih transakcija koje prolaze filter, bez stranicenja; tijelo se pise dok se redovi citaju
+    @PostMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestBody TransactionFilterRequest filter,
+            @RequestParam(defaultValue = "csv") String format,
+            Authentication authentication
+    ) {
+        Integer userId = (Integer) authentication.getPrincipal();
+
+        return switch (format.toLowerCase()) {
+            case "csv" -> ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=transactions.csv")
+                    .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                    .body(out -> transactionExportService.exportCsv(filter, userId, out));
+            case "xlsx" -> ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=transactions.xlsx")
+                    .contentType(MediaType.parseMediaType(
+                            "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
+                    .body(out -> transactionExportService.exportXlsx(filter, userId, out));
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "format must be csv or xlsx");
+        };
     }
 
     // skidanje templatea xlsx datoteke lokalno
+    // ETag i Last-Modified: Spring sam vraca 304 na If-None-Match / If-Modified-Since
     @GetMapping("/template")
-    public ResponseEntity<InputStreamResource> downloadTemplate() {
-
-        ByteArrayInputStream stream =
-                transactionTemplateXlsxService.generateExcelTemplate();
+    public ResponseEntity<byte[]> downloadTemplate(Authentication authentication) {
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.add(
-                "Content-Disposition",
-                "attachment; filename=transaction-template.xlsx"
-        );
+        Integer userId = (Integer) authentication.getPrincipal();
+        XlsxTemplate template = transactionTemplateXlsxService.templateFor(userId);
 
+        // polje se salje bez kopiranja, zato se nigdje ne smije mijenjati
         return ResponseEntity.ok()
-                .headers(headers)
+                .header(
+                        HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=transaction-template.xlsx"
+                )
+                .eTag(template.etag())
+                .lastModified(template.lastModified())
+                .cacheControl(CacheControl.noCache().cachePrivate())
                 .contentType(
                         MediaType.parseMediaType(
                                 "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"
                         )
                 )
-                .body(new InputStreamResource(stream));
+                .contentLength(template.content().length)
+                .body(template.content());
     }
 
+    // upload se samo spremi i pokrene u pozadini, napredak se prati preko /import/jobs/{jobId}
     @PostMapping("/import")
-    public ResponseEntity<ImportResultResponse> importTransactions(
+    public ResponseEntity<ImportJobResponse> importTransactions(
             @RequestParam("file") MultipartFile file,
             Authentication authentication
     ) {
-        ImportResultResponse result =
-                transactionService.importCsv(file, (Integer) authentication.getPrincipal());
+        ImportJobResponse job =
+                importJobService.submit(file, (Integer) authentication.getPrincipal());
+
+        return ResponseEntity.accepted().body(job);
+    }
 
-        return ResponseEntity.ok(result);
+    @GetMapping("/import/jobs")
+    public ResponseEntity<List<ImportJobResponse>> getImportJobs(Authentication authentication) {
+        return ResponseEntity.ok(
+                importJobService.getJobs((Integer) authentication.getPrincipal())
+        );
+    }
+
+    @GetMapping("/import/jobs/{jobId}")
+    public ResponseEntity<ImportJobResponse> getImportJob(
+            @PathVariable Integer jobId,
+            Authentication authentication
+    ) {
+        return ResponseEntity.ok(
+                importJobService.getJob(jobId, (Integer) authentication.getPrincipal())
+        );
+    }
+
+    @PostMapping("/import/jobs/{jobId}/cancel")
+    public ResponseEntity<ImportJobResponse> cancelImportJob(
+            @PathVariable Integer jobId,
+            Authentication authentication
+    ) {
+        return ResponseEntity.ok(
+                importJobService.cancel(jobId, (Integer) authentication.getPrincipal())
+        );
     }
 
     @GetMapping("/monthly-balance")
+    @QueryBudget(statements = 1)
     public ResponseEntity<?> getMonthlyBalance(Authentication authentication) { // ovo kad budem imao front, popravi zbog payloada
 
         Integer userId = (Integer) authentication.getPrincipal();
@@ -0,0 +1,9 @@
+package com.havana.backend.data;
+
+import java.math.BigDecimal;
+
+// jedan red GROUP BY upita, serijalizira se direktno u {name, value} za pie chart
+public record CategorySpendingRow(
+        String name,
+        BigDecimal value
+) {}
@@ -0,0 +1,14 @@
+package com.havana.backend.data;
+
+import com.havana.backend.model.CategoryType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record DailyCategoryTotalRow(
+        LocalDate date,
+        Integer categoryId,
+        CategoryType type,
+        Long count,
+        BigDecimal total
+) {}
@@ -0,0 +1,15 @@
+package com.havana.backend.data;
+
+import java.util.List;
+import java.util.Map;
+
+public record DashboardSummaryResponse(
+        List<CategorySpendingRow> spendingByCategory,
+        Map<String, Object> weeklyGoal,
+        MonthlyBalanceRecord monthlyBalance,
+        List<SavingGoalResponse> savingGoals,
+        double predictedTomorrow,
+        double rollingMonthlyAverage,
+        Map<String, Double> monthlySpending,
+        Map<String, Object> dailySpending
+) {}
@@ -0,0 +1,23 @@
+package com.havana.backend.data;
+
+import com.havana.backend.model.ImportJobStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record ImportJobResponse(
+        Integer id,
+        String fileName,
+        ImportJobStatus status,
+        long rowsParsed,
+        long rowsImported,
+        long rowsFailed,
+        double percentComplete,
+        Long etaSeconds, // null dok se ne moze procijeniti
+        double rowsPerSecond,
+        String errorMessage,
+        List<ImportRowError> errors,
+        LocalDateTime createdAt,
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt
+) {}
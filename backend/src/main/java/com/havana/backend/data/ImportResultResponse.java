@@ -1,6 +1,11 @@
 package com.havana.backend.data;
 
+import java.util.List;
+
 public record ImportResultResponse(
         int imported,
-        int failed
+        int failed,
+        long durationMs,
+        double rowsPerSecond,
+        List<ImportRowError> errors // samo prvih N gresaka, failed broji sve
 ) {}
@@ -0,0 +1,6 @@
+package com.havana.backend.data;
+
+public record ImportRowError(
+        long row,
+        String reason
+) {}
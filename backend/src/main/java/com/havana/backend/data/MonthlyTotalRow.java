@@ -0,0 +1,9 @@
+package com.havana.backend.data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record MonthlyTotalRow(
+        LocalDate monthStart,
+        BigDecimal total
+) {}
@@ -0,0 +1,22 @@
+package com.havana.backend.data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// projekcija agregatnog upita iz UserRepository, imena getera odgovaraju aliasima u upitu
+public interface RegularUserSummary {
+
+    Integer getId();
+
+    String getEmail();
+
+    String getUsername();
+
+    BigDecimal getTotalIncome();
+
+    BigDecimal getTotalExpense();
+
+    BigDecimal getBalance();
+
+    LocalDateTime getCreatedAt();
+}
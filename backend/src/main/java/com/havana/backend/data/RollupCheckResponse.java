@@ -0,0 +1,10 @@
+package com.havana.backend.data;
+
+import java.util.List;
+
+public record RollupCheckResponse(
+        int rowsWritten, // samo kod rebuilda
+        int driftedRows,
+        List<RollupDrift> drift, // najvise prvih 100
+        long durationMs
+) {}
@@ -0,0 +1,15 @@
+package com.havana.backend.data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// razlika izmedu rollup retka i onoga sto bi trebao biti prema transactions tablici
+public record RollupDrift(
+        Integer userId,
+        LocalDate monthStart,
+        Integer categoryId,
+        BigDecimal expectedTotal,
+        BigDecimal actualTotal,
+        long expectedCount,
+        long actualCount
+) {}
@@ -0,0 +1,7 @@
+package com.havana.backend.data;
+
+/**
+ * A matched part of a text, {@code start} inclusive and {@code end} exclusive, in UTF-16 indices
+ * as in {@code String.substring}.
+ */
+public record TextRange(int start, int end) {}
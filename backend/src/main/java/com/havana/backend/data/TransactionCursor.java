@@ -0,0 +1,34 @@
+package com.havana.backend.data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a keyset-paginated transaction listing: the sort key of the last row that was
+ * returned plus its id as a tie breaker. Clients only ever see the encoded, opaque form.
+ */
+public record TransactionCursor(
+        String sortBy,
+        String value,
+        Integer id
+) {
+
+    public String encode() {
+        String raw = sortBy + "|" + value + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TransactionCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 3);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new TransactionCursor(parts[0], parts[1], Integer.valueOf(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
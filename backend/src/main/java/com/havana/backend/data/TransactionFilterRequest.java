@@ -11,5 +11,23 @@ public record TransactionFilterRequest(
         BigDecimal minAmount,
         LocalDate fromDate,
         LocalDate toDate,
-        String sortBy
-) {}
+        String sortBy,       // date_desc | date_asc | amount_desc | amount_asc | relevance
+        String searchMode    // contains (dio teksta, zadano) | words (rijeci, "navodnici", -iskljuci, or)
+) {
+
+    public static final String SEARCH_CONTAINS = "contains";
+    public static final String SEARCH_WORDS = "words";
+
+    public boolean hasDescription() {
+        return description != null && !description.isBlank();
+    }
+
+    public boolean wordSearch() {
+        return SEARCH_WORDS.equalsIgnoreCase(searchMode);
+    }
+
+    // relevance ima smisla samo kad se nesto trazi, inace vrijedi zadano sortiranje
+    public boolean sortByRelevance() {
+        return hasDescription() && "relevance".equalsIgnoreCase(sortBy);
+    }
+}
@@ -0,0 +1,13 @@
+package com.havana.backend.data;
+
+/**
+ * One yearly partition of transactions.
+ *
+ * @param estimatedRows planner estimate from the last ANALYZE, -1 if the partition was never analysed
+ */
+public record TransactionPartitionResponse(
+        String name,
+        int year,
+        boolean archived,
+        long estimatedRows
+) {}
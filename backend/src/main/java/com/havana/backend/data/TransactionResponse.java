@@ -1,9 +1,11 @@
 package com.havana.backend.data;
 
 import com.havana.backend.model.CategoryType;
+import com.havana.backend.model.Transaction;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 
 public record TransactionResponse(
         Integer id,
@@ -12,5 +14,24 @@ public record TransactionResponse(
         String description,
         Integer categoryId,
         String categoryName,
-        CategoryType categoryType
-) {}
+        CategoryType categoryType,
+        List<TextRange> highlights // dijelovi opisa koji odgovaraju pretrazi, null izvan pretrage
+) {
+
+    public static TransactionResponse from(Transaction t) {
+        return from(t, null);
+    }
+
+    public static TransactionResponse from(Transaction t, List<TextRange> highlights) {
+        return new TransactionResponse(
+                t.getId(),
+                t.getAmount(),
+                t.getTransactionDate(),
+                t.getDescription(),
+                t.getCategory() != null ? t.getCategory().getId() : null,
+                t.getCategory() != null ? t.getCategory().getName() : "Ostalo",
+                t.getCategory() != null ? t.getCategory().getType() : null,
+                highlights
+        );
+    }
+}
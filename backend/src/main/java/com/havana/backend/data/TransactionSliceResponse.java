@@ -0,0 +1,10 @@
+package com.havana.backend.data;
+
+import java.util.List;
+
+public record TransactionSliceResponse(
+        List<TransactionResponse> content,
+        int size,
+        boolean hasNext,
+        String nextCursor // null na zadnjoj stranici
+) {}
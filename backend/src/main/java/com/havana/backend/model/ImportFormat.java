@@ -0,0 +1,6 @@
+package com.havana.backend.model;
+
+public enum ImportFormat {
+    CSV,
+    XLSX
+}
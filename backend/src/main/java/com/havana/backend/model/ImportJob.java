@@ -0,0 +1,89 @@
+package com.havana.backend.model;
+
+import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "import_jobs")
+public class ImportJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "import_jobs_id_seq")
+    @SequenceGenerator(name = "import_jobs_id_seq", sequenceName = "import_jobs_id_seq", allocationSize = 50)
+    @Column(columnDefinition = "integer default nextval('import_jobs_id_seq')")
+    private Integer id;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
+    @JsonIgnore
+    private User user;
+
+    @Column(name = "file_name")
+    private String fileName;
+
+    // lokalna kopija uploada, zivi dok job ne zavrsi
+    @Column(name = "spool_path", nullable = false)
+    private String spoolPath;
+
+    // host koji ima spool datoteku, samo on moze nastaviti job nakon restarta
+    @Column(name = "spool_host", nullable = false)
+    private String spoolHost;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ImportFormat format = ImportFormat.CSV;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ImportJobStatus status = ImportJobStatus.QUEUED;
+
+    @Column(name = "total_bytes", nullable = false)
+    private long totalBytes;
+
+    @Column(name = "bytes_read", nullable = false)
+    private long bytesRead;
+
+    // zadnji redak datoteke koji je obraden i commitan, od njega se nastavlja
+    @Column(name = "rows_parsed", nullable = false)
+    private long rowsParsed;
+
+    @Column(name = "rows_imported", nullable = false)
+    private long rowsImported;
+
+    @Column(name = "rows_failed", nullable = false)
+    private long rowsFailed;
+
+    @Column(name = "cancel_requested", nullable = false)
+    private boolean cancelRequested;
+
+    @Column(name = "error_message")
+    private String errorMessage;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @OneToMany(mappedBy = "job", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("rowNumber")
+    @JsonIgnore
+    private List<ImportJobError> errors = new ArrayList<>();
+
+    public boolean isFinished() {
+        return status == ImportJobStatus.COMPLETED
+                || status == ImportJobStatus.FAILED
+                || status == ImportJobStatus.CANCELLED;
+    }
+}
@@ -0,0 +1,31 @@
+package com.havana.backend.model;
+
+import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "import_job_errors")
+public class ImportJobError {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "import_job_errors_id_seq")
+    @SequenceGenerator(name = "import_job_errors_id_seq", sequenceName = "import_job_errors_id_seq", allocationSize = 50)
+    @Column(columnDefinition = "integer default nextval('import_job_errors_id_seq')")
+    private Integer id;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "job_id")
+    @JsonIgnore
+    private ImportJob job;
+
+    @Column(name = "row_number", nullable = false)
+    private long rowNumber;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String reason;
+}
@@ -0,0 +1,80 @@
+package com.havana.backend.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount as a whole number of cents, the same precision as the {@code NUMERIC(12,2)} amount
+ * columns. Internal totals are exact {@code long} additions; {@link BigDecimal} only appears when
+ * an amount crosses the JDBC or API boundary.
+ */
+public record Money(long cents) implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+
+    public static final Money ZERO = new Money(0);
+
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    public static Money of(BigDecimal amount) {
+        return ofCents(cents(amount));
+    }
+
+    /**
+     * Cents of a decimal amount. More than two decimals are rounded half up, as PostgreSQL does
+     * when it stores the amount in a {@code NUMERIC(12,2)} column.
+     */
+    public static long cents(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    // iznos kakav ce biti spremljen, za entitete prije save-a
+    public static BigDecimal round(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP);
+    }
+
+    // za double API-je (serije, regresija), tek nakon zbrajanja
+    public static double toDouble(long cents) {
+        return cents / 100.0;
+    }
+
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    public Money minus(Money other) {
+        return ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    public Money times(long factor) {
+        return ofCents(Math.multiplyExact(cents, factor));
+    }
+
+    public Money abs() {
+        return cents >= 0 ? this : ofCents(Math.negateExact(cents));
+    }
+
+    public int signum() {
+        return Long.signum(cents);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    public double toDouble() {
+        return toDouble(cents);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
@@ -0,0 +1,29 @@
+package com.havana.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Running per-user, per-month, per-category totals of the transactions table. Kept up to date in
+ * the same database transaction as every write to transactions, see {@code MonthlyRollupService}.
+ * The category type is not stored here but joined from categories when reading.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "user_month_category_rollup")
+public class MonthlyCategoryRollup {
+
+    @EmbeddedId
+    private MonthlyCategoryRollupId id;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal total;
+
+    @Column(name = "tx_count", nullable = false)
+    private long txCount;
+}
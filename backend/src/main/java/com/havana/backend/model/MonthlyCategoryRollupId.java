@@ -0,0 +1,27 @@
+package com.havana.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+@Embeddable
+public class MonthlyCategoryRollupId implements Serializable {
+
+    @Column(name = "user_id", nullable = false)
+    private Integer userId;
+
+    // prvi dan u mjesecu
+    @Column(name = "month_start", nullable = false)
+    private LocalDate monthStart;
+
+    // 0 za transakcije bez kategorije, da kljuc ne bude NULL
+    @Column(name = "category_id", nullable = false)
+    private Integer categoryId;
+}
@@ -16,10 +16,12 @@ import lombok.*;
 public class SavingGoal {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "saving_goals_id_seq")
+    @SequenceGenerator(name = "saving_goals_id_seq", sequenceName = "saving_goals_id_seq", allocationSize = 50)
+    @Column(columnDefinition = "integer default nextval('saving_goals_id_seq')")
     private Integer id;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     @JsonIgnore
     private User user;
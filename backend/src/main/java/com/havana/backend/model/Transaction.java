@@ -14,19 +14,29 @@ import lombok.*;
 @AllArgsConstructor
 @Entity
 @Table(name = "transactions")
+// citanja koja prikazuju kategoriju je dohvacaju u istom upitu, ostala je ne diraju
+@NamedEntityGraph(name = Transaction.WITH_CATEGORY, attributeNodes = @NamedAttributeNode("category"))
 @JsonIgnoreProperties({"user"})
 public class Transaction {
 
+    public static final String WITH_CATEGORY = "Transaction.category";
+
+    // Hibernate uzima blok od ID_ALLOCATION_SIZE id-eva po jednom nextval; import iz CSV-a radi isto
+    public static final String ID_SEQUENCE = "transactions_id_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
+    @Column(columnDefinition = "integer default nextval('" + ID_SEQUENCE + "')")
     private Integer id;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     @JsonIgnore
     private User user;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     private Category category;
 
@@ -14,11 +14,9 @@ public interface CategoryRepository extends JpaRepository<Category, Integer> {
 
     List<Category> findByUserId(Integer userId );
 
-    List<Category> findByUserAndType(User user, CategoryType type);
-
-    Optional<Category> findByUserAndName(User user, String name);
+    List<Category> findByUserIsNull();
 
-    Optional<Category> findByNameAndUserAndType(String name, User user, CategoryType type);
+    List<Category> findByUserAndType(User user, CategoryType type);
 
     @Query("""
     SELECT c FROM Category c
@@ -0,0 +1,27 @@
+package com.havana.backend.repository;
+
+import com.havana.backend.model.ImportJobError;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ImportJobErrorRepository extends JpaRepository<ImportJobError, Integer> {
+
+    List<ImportJobError> findTop100ByJobIdOrderByRowNumber(Integer jobId);
+
+    // isto kao findTop100ByJobIdOrderByRowNumber, ali za vise poslova jednim upitom (popis poslova)
+    @Query(value = """
+        SELECT id, job_id, row_number, reason
+        FROM (
+            SELECT e.*, ROW_NUMBER() OVER (PARTITION BY e.job_id ORDER BY e.row_number) AS rn
+            FROM import_job_errors e
+            WHERE e.job_id IN (:jobIds)
+        ) ranked
+        WHERE rn <= 100
+        ORDER BY job_id, row_number
+    """, nativeQuery = true)
+    List<ImportJobError> findTop100PerJob(@Param("jobIds") Collection<Integer> jobIds);
+}
@@ -0,0 +1,81 @@
+package com.havana.backend.repository;
+
+import com.havana.backend.model.ImportJob;
+import com.havana.backend.model.ImportJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ImportJobRepository extends JpaRepository<ImportJob, Integer> {
+
+    Optional<ImportJob> findByIdAndUserId(Integer id, Integer userId);
+
+    List<ImportJob> findTop20ByUserIdOrderByCreatedAtDesc(Integer userId);
+
+    List<ImportJob> findBySpoolHostAndStatusIn(String spoolHost, Collection<ImportJobStatus> statuses);
+
+    @Query("SELECT j.cancelRequested FROM ImportJob j WHERE j.id = :id")
+    boolean isCancelRequested(@Param("id") Integer id);
+
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE ImportJob j
+        SET j.cancelRequested = true
+        WHERE j.id = :id
+          AND j.status IN (com.havana.backend.model.ImportJobStatus.QUEUED,
+                           com.havana.backend.model.ImportJobStatus.RUNNING)
+    """)
+    int requestCancel(@Param("id") Integer id);
+
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE ImportJob j
+        SET j.status = :status,
+            j.startedAt = COALESCE(j.startedAt, :now)
+        WHERE j.id = :id
+    """)
+    void markStarted(@Param("id") Integer id, @Param("status") ImportJobStatus status, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE ImportJob j
+        SET j.status = :status,
+            j.errorMessage = :errorMessage,
+            j.finishedAt = :now
+        WHERE j.id = :id
+    """)
+    void markFinished(
+            @Param("id") Integer id,
+            @Param("status") ImportJobStatus status,
+            @Param("errorMessage") String errorMessage,
+            @Param("now") LocalDateTime now
+    );
+
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE ImportJob j
+        SET j.rowsParsed = :rowsParsed,
+            j.bytesRead = :bytesRead,
+            j.rowsImported = j.rowsImported + :imported,
+            j.rowsFailed = j.rowsFailed + :failed
+        WHERE j.id = :id
+    """)
+    void recordChunk(
+            @Param("id") Integer id,
+            @Param("rowsParsed") long rowsParsed,
+            @Param("bytesRead") long bytesRead,
+            @Param("imported") long imported,
+            @Param("failed") long failed
+    );
+}
@@ -0,0 +1,90 @@
+package com.havana.backend.repository;
+
+import com.havana.backend.data.CategorySpendingRow;
+import com.havana.backend.data.MonthlyBalanceRecord;
+import com.havana.backend.data.MonthlyTotalRow;
+import com.havana.backend.model.MonthlyCategoryRollup;
+import com.havana.backend.model.MonthlyCategoryRollupId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// pisanje ide preko MonthlyRollupService (upsert), ovdje su samo citanja
+public interface MonthlyCategoryRollupRepository extends JpaRepository<MonthlyCategoryRollup, MonthlyCategoryRollupId> {
+
+    @Query("""
+        SELECT new com.havana.backend.data.MonthlyBalanceRecord(
+            COALESCE(SUM(CASE WHEN c.type = 'INCOME' THEN r.total ELSE 0 END), 0),
+            COALESCE(SUM(CASE WHEN c.type = 'EXPENSE' THEN r.total ELSE 0 END), 0),
+            COALESCE(SUM(CASE WHEN c.type = 'INCOME' THEN r.total
+                              WHEN c.type = 'EXPENSE' THEN -r.total
+                              ELSE 0 END), 0)
+        )
+        FROM MonthlyCategoryRollup r
+        LEFT JOIN Category c ON c.id = r.id.categoryId
+        WHERE r.id.userId = :userId
+          AND r.id.monthStart = :monthStart
+    """)
+    MonthlyBalanceRecord balanceForMonth(
+            @Param("userId") Integer userId,
+            @Param("monthStart") LocalDate monthStart
+    );
+
+    // rashodi i transakcije bez kategorije, isto kao expense bit u TransactionColumns
+    @Query("""
+        SELECT new com.havana.backend.data.MonthlyTotalRow(r.id.monthStart, SUM(r.total))
+        FROM MonthlyCategoryRollup r
+        LEFT JOIN Category c ON c.id = r.id.categoryId
+        WHERE r.id.userId = :userId
+          AND r.id.monthStart BETWEEN :from AND :to
+          AND (c.id IS NULL OR c.type = 'EXPENSE')
+        GROUP BY r.id.monthStart
+        ORDER BY r.id.monthStart
+    """)
+    List<MonthlyTotalRow> monthlyExpenseTotals(
+            @Param("userId") Integer userId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to
+    );
+
+    @Query("""
+        SELECT new com.havana.backend.data.MonthlyTotalRow(r.id.monthStart, SUM(r.total))
+        FROM MonthlyCategoryRollup r
+        JOIN Category c ON c.id = r.id.categoryId
+        WHERE r.id.userId = :userId
+          AND r.id.categoryId = :categoryId
+          AND r.id.monthStart BETWEEN :from AND :to
+          AND c.type = 'EXPENSE'
+        GROUP BY r.id.monthStart
+        ORDER BY r.id.monthStart
+    """)
+    List<MonthlyTotalRow> monthlyExpenseTotalsForCategory(
+            @Param("userId") Integer userId,
+            @Param("categoryId") Integer categoryId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to
+    );
+
+    // potrosnja po kategoriji kroz cijelu povijest, ukljucuje i arhivirane godine
+    @Query("""
+        SELECT new com.havana.backend.data.CategorySpendingRow(c.name, SUM(r.total))
+        FROM MonthlyCategoryRollup r
+        JOIN Category c ON c.id = r.id.categoryId
+        WHERE r.id.userId = :userId
+          AND c.type = 'EXPENSE'
+        GROUP BY c.name
+        HAVING SUM(r.txCount) > 0
+        ORDER BY SUM(r.total) DESC
+    """)
+    List<CategorySpendingRow> sumExpenseByCategory(@Param("userId") Integer userId);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM MonthlyCategoryRollup r WHERE r.id.userId = :userId")
+    void deleteByUserId(@Param("userId") Integer userId);
+}
@@ -0,0 +1,99 @@
+package com.havana.backend.repository;
+
+import com.havana.backend.data.CategorySpendingRow;
+import com.havana.backend.data.DailyCategoryTotalRow;
+import com.havana.backend.model.CategoryType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Read-only queries over {@code transaction_history}, the live transactions together with the
+ * archived yearly partitions. Used where an answer has to cover the whole history; lists, search
+ * and writes stay on {@link TransactionRepository} and see only live rows.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TransactionHistoryRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // broj i zbroj korisnikovih transakcija po danu i kategoriji (s tipom), kroz cijelu povijest ukljucujuci arhivu
+    public List<DailyCategoryTotalRow> sumByDateAndCategory(Integer userId) {
+        return jdbcTemplate.query("""
+                SELECT t.transaction_date, c.id AS category_id, c.type, COUNT(*) AS tx_count, SUM(t.amount) AS total
+                FROM transaction_history t
+                LEFT JOIN categories c ON c.id = t.category_id
+                WHERE t.user_id = ?
+                GROUP BY t.transaction_date, c.id, c.type
+                """,
+                (rs, i) -> new DailyCategoryTotalRow(
+                        rs.getDate("transaction_date").toLocalDate(),
+                        (Integer) rs.getObject("category_id"),
+                        rs.getString("type") != null ? CategoryType.valueOf(rs.getString("type")) : null,
+                        rs.getLong("tx_count"),
+                        rs.getBigDecimal("total")
+                ),
+                userId
+        );
+    }
+
+    // potrosnja po kategoriji u razdoblju; raspon datuma ogranici citanje na particije tih godina
+    public List<CategorySpendingRow> sumExpenseByCategory(Integer userId, LocalDate start, LocalDate end) {
+        return jdbcTemplate.query("""
+                SELECT c.name, SUM(t.amount) AS total
+                FROM transaction_history t
+                JOIN categories c ON c.id = t.category_id
+                WHERE t.user_id = ?
+                  AND c.type = 'EXPENSE'
+                  AND t.transaction_date BETWEEN ? AND ?
+                GROUP BY c.name
+                ORDER BY SUM(t.amount) DESC
+                """,
+                (rs, i) -> new CategorySpendingRow(rs.getString("name"), rs.getBigDecimal("total")),
+                userId, start, end
+        );
+    }
+
+    /**
+     * One row of the analytics columns, with the date as epoch day and the amount in cents.
+     */
+    @FunctionalInterface
+    public interface ColumnRowHandler {
+        void row(int epochDay, long cents, int categoryId, boolean expense);
+    }
+
+    /**
+     * Streams a user's whole history sorted by date, as the primitives the analytics columns hold;
+     * without a category the id is 0 and the row counts as an expense.
+     */
+    public void forEachColumnRow(Integer userId, ColumnRowHandler handler) {
+        jdbcTemplate.query("""
+                SELECT t.transaction_date - DATE '1970-01-01' AS epoch_day,
+                       (t.amount * 100)::bigint AS cents,
+                       COALESCE(t.category_id, 0) AS category_id,
+                       c.type IS NULL OR c.type = 'EXPENSE' AS expense
+                FROM transaction_history t
+                LEFT JOIN categories c ON c.id = t.category_id
+                WHERE t.user_id = ?
+                ORDER BY t.transaction_date, t.id
+                """,
+                rs -> {
+                    handler.row(rs.getInt(1), rs.getLong(2), rs.getInt(3), rs.getBoolean(4));
+                },
+                userId
+        );
+    }
+
+    // arhivirane transakcije i dalje drze kategoriju
+    public boolean existsByCategoryId(Integer categoryId) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM transaction_history WHERE category_id = ?)",
+                Boolean.class,
+                categoryId
+        ));
+    }
+}
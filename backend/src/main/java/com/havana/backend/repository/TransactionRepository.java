@@ -1,67 +1,54 @@
 package com.havana.backend.repository;
 
-import com.havana.backend.model.Category;
 import com.havana.backend.model.Transaction;
 import com.havana.backend.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.List;
+import java.util.Optional;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Integer>, JpaSpecificationExecutor<Transaction> {
 
-    List<Transaction> findByUser(User user);
+    @EntityGraph(Transaction.WITH_CATEGORY)
+    Page<Transaction> findByUser(User user, Pageable pageable);
 
-    List<Transaction> findByUserAndTransactionDateBetween(
-            User user,
-            LocalDate start,
-            LocalDate end
-    );
+    // pretraga; COUNT upit za stranicu ostaje bez joina
+    @Override
+    @EntityGraph(Transaction.WITH_CATEGORY)
+    Page<Transaction> findAll(Specification<Transaction> spec, Pageable pageable);
 
-    Page<Transaction> findByUser(User user, Pageable pageable);
+    // brisanje treba kategoriju za rollup i statistike
+    @EntityGraph(Transaction.WITH_CATEGORY)
+    Optional<Transaction> findWithCategoryById(Integer id);
 
-    List<Transaction> findByUserAndCategoryId(User user, Integer categoryId);
+    // brisanje s kljucem particije, Hibernateov delete(t) bi trazio id po svim particijama
+    @Modifying
+    @Query("DELETE FROM Transaction t WHERE t.id = :id AND t.transactionDate = :date")
+    void deleteByIdAndTransactionDate(@Param("id") Integer id, @Param("date") LocalDate date);
 
-    boolean existsByCategory(Category category);
+    // prosjek kategorije preko svih korisnika (samo live particije), null ako nema transakcija
+    @Query("SELECT AVG(t.amount) FROM Transaction t WHERE t.category.id = :categoryId")
+    Double averageAmountByCategory(@Param("categoryId") Integer categoryId);
 
+    // tjedni cilj treba samo zbroj, ne transakcije
     @Query("""
-        SELECT t
+        SELECT COALESCE(SUM(t.amount), 0)
         FROM Transaction t
         WHERE t.user.id = :userId
           AND t.transactionDate BETWEEN :start AND :end
     """)
-    List<Transaction> findForUserAndMonth(
+    BigDecimal sumAmountBetween(
             @Param("userId") Integer userId,
             @Param("start") LocalDate start,
             @Param("end") LocalDate end
     );
-
-    List<Transaction> findByUserAndTransactionDateAfter(User user, LocalDate fromDate);
-
-    @Query("""
-        SELECT COALESCE(SUM(t.amount), 0)
-        FROM Transaction t
-        JOIN t.category c
-        WHERE t.user.id = :userId
-          AND c.type = 'INCOME'
-    """)
-    BigDecimal sumIncome(Integer userId);
-
-    @Query("""
-        SELECT COALESCE(SUM(t.amount), 0)
-        FROM Transaction t
-        JOIN t.category c
-        WHERE t.user.id = :userId
-          AND c.type = 'EXPENSE'
-    """)
-    BigDecimal sumExpense(Integer userId);
-
-    // Added: find transactions across all users by category id (useful for global averages)
-    List<Transaction> findByCategoryId(Integer categoryId);
 }
@@ -1,7 +1,12 @@
 package com.havana.backend.repository;
 
+import com.havana.backend.data.RegularUserSummary;
 import com.havana.backend.model.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -15,4 +20,34 @@ public interface UserRepository extends JpaRepository<User, Integer> {
     User findUserById(Integer id);
 
     List<User> findAll();
+
+    // jedan grupirani upit za sve korisnike umjesto dva SUM upita po korisniku
+    // zbrojevi iz rollupa: manje redaka od transakcija i ukljucuje arhivirane godine
+    // sortira se po aliasima (balance, totalIncome, ...), pa count upit mora biti zaseban
+    @Query(value = """
+        SELECT u.id AS id,
+               u.email AS email,
+               u.username AS username,
+               COALESCE(SUM(CASE WHEN c.type = 'INCOME' THEN r.total ELSE 0 END), 0) AS totalIncome,
+               COALESCE(SUM(CASE WHEN c.type = 'EXPENSE' THEN r.total ELSE 0 END), 0) AS totalExpense,
+               COALESCE(SUM(CASE WHEN c.type = 'INCOME' THEN r.total
+                                 WHEN c.type = 'EXPENSE' THEN -r.total
+                                 ELSE 0 END), 0) AS balance,
+               u.createdAt AS createdAt
+        FROM User u
+        LEFT JOIN MonthlyCategoryRollup r ON r.id.userId = u.id
+        LEFT JOIN Category c ON c.id = r.id.categoryId
+        WHERE u.isAdmin = false
+          AND LOWER(u.email) LIKE :emailPattern ESCAPE '\\'
+        GROUP BY u.id, u.email, u.username, u.createdAt
+    """, countQuery = """
+        SELECT COUNT(u)
+        FROM User u
+        WHERE u.isAdmin = false
+          AND LOWER(u.email) LIKE :emailPattern ESCAPE '\\'
+    """)
+    Page<RegularUserSummary> findRegularUserSummaries(
+            @Param("emailPattern") String emailPattern,
+            Pageable pageable
+    );
 }
@@ -5,21 +5,27 @@ import com.havana.backend.data.AdminUpdateUserRequest;
 import com.havana.backend.data.AdminUserResponse;
 import com.havana.backend.data.RegularUserResponse;
 import com.havana.backend.model.User;
-import com.havana.backend.repository.TransactionRepository;
+import com.havana.backend.repository.MonthlyCategoryRollupRepository;
 import com.havana.backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.util.List;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class AdminService {
 
     private final UserRepository userRepository;
-    private final TransactionRepository transactionRepository;
+    private final MonthlyCategoryRollupRepository monthlyCategoryRollupRepository;
+    private final ApplicationEventPublisher eventPublisher;
     private final PasswordEncoder passwordEncoder;
 
     // dohvat svih korisnika
@@ -36,37 +42,47 @@ public class AdminService {
                 .toList();
     }
 
-    public List<RegularUserResponse> getRegularUsers() {
+    // sortirati se smije samo po aliasima iz agregatnog upita
+    private static final Set<String> REGULAR_USER_SORTS =
+            Set.of("balance", "totalIncome", "totalExpense", "email", "username", "createdAt", "id");
 
-        return userRepository.findAll()
-                .stream()
-                .filter(u -> !u.isAdmin())
-                .map(user -> {
-
-                    BigDecimal income =
-                            transactionRepository.sumIncome(user.getId());
-
-                    BigDecimal expense =
-                            transactionRepository.sumExpense(user.getId());
-
-                    income = income != null ? income : BigDecimal.ZERO;
-                    expense = expense != null ? expense : BigDecimal.ZERO;
-
-                    return new RegularUserResponse(
-                            user.getId(),
-                            user.getEmail(),
-                            user.getUsername(),
-                            income,
-                            expense,
-                            income.subtract(expense),
-                            user.getCreatedAt()
-                    );
-                })
-                .toList();
+    public Page<RegularUserResponse> getRegularUsers(
+            int page, int size, String sortBy, String direction, String email) {
+
+        if (!REGULAR_USER_SORTS.contains(sortBy)) {
+            throw new IllegalArgumentException("Unsupported sort: " + sortBy);
+        }
+
+        Sort sort = Sort.by(Sort.Direction.fromString(direction), sortBy)
+                .and(Sort.by("id"));
+
+        return userRepository
+                .findRegularUserSummaries(emailPattern(email), PageRequest.of(page, size, sort))
+                .map(u -> new RegularUserResponse(
+                        u.getId(),
+                        u.getEmail(),
+                        u.getUsername(),
+                        u.getTotalIncome(),
+                        u.getTotalExpense(),
+                        u.getBalance(),
+                        u.getCreatedAt()
+                ));
+    }
+
+    // % i _ iz unosa se escapeaju da pretraga bude doslovna
+    private static String emailPattern(String email) {
+        if (email == null || email.isBlank()) return "%";
+
+        String escaped = email.trim().toLowerCase()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
     }
 
 
     // brisanje korisnika
+    @Transactional
     public void deleteUser(Integer userId) {
 
         User user = userRepository.findById(userId)
@@ -76,8 +92,12 @@ public class AdminService {
             throw new IllegalStateException("Admin cannot be deleted");
         }
 
-        // ne brise se samo user nego i sve sto je vezano uz njega
+        // ne brise se samo user nego i sve sto je vezano uz njega: transakcije (i arhivirane),
+        // kategorije, ciljevi i rollup idu preko ON DELETE CASCADE; rollup se ipak brise i rucno
+        // jer ga je na starijim bazama mozda napravio ddl-auto, bez kaskade
+        monthlyCategoryRollupRepository.deleteByUserId(userId);
         userRepository.delete(user);
+        eventPublisher.publishEvent(TransactionsChangedEvent.reset(userId));
 
     }
 
@@ -134,22 +154,4 @@ public class AdminService {
 
         return userRepository.save(user);
     }
-
-
-
-    private RegularUserResponse toResponse(User user) {
-        BigDecimal income = transactionRepository.sumIncome(user.getId());
-        BigDecimal expense = transactionRepository.sumExpense(user.getId());
-
-        return new RegularUserResponse(
-                user.getId(),
-                user.getEmail(),
-                user.getUsername(),
-                income,
-                expense,
-                income.subtract(expense),
-                user.getCreatedAt()
-        );
-    }
 }
-
@@ -1,9 +1,8 @@
 package com.havana.backend.service;
 
-import com.havana.backend.model.Transaction;
-import com.havana.backend.model.User;
-import com.havana.backend.model.CategoryType;
-import com.havana.backend.repository.TransactionRepository;
+import com.havana.backend.data.MonthlyTotalRow;
+import com.havana.backend.model.Money;
+import com.havana.backend.repository.MonthlyCategoryRollupRepository;
 import com.havana.backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -16,15 +15,9 @@ import java.util.*;
 @RequiredArgsConstructor
 public class AnalysisService {
 
-    private final TransactionRepository transactionRepository;
+    private final TransactionColumnStore transactionColumnStore;
     private final UserRepository userRepository;
-
-    // Treat uncategorized as expense for analysis (same behaviour as PredictionService)
-    private static boolean isExpenseOrUncategorized(Transaction t) {
-        if (t == null) return false;
-        if (t.getCategory() == null) return true;
-        return t.getCategory().getType() == CategoryType.EXPENSE;
-    }
+    private final MonthlyCategoryRollupRepository monthlyCategoryRollupRepository;
 
     /**
      * Returns month -> total spending for the last `months` months (inclusive of current month).
@@ -33,28 +26,24 @@ public class AnalysisService {
     public Map<String, Double> monthlySpending(Integer userId, int months, Integer categoryId) {
         if (months <= 0) return Collections.emptyMap();
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found");
+        }
 
         YearMonth end = YearMonth.now();
         YearMonth start = end.minusMonths(Math.max(0, months - 1));
 
         LocalDate startDate = start.atDay(1);
-        LocalDate endDate = end.atEndOfMonth();
+        LocalDate endDate = end.atDay(1);
+
+        // Monthly expense (or uncategorized) totals come straight from the rollup table
+        List<MonthlyTotalRow> rows = categoryId != null
+                ? monthlyCategoryRollupRepository.monthlyExpenseTotalsForCategory(userId, categoryId, startDate, endDate)
+                : monthlyCategoryRollupRepository.monthlyExpenseTotals(userId, startDate, endDate);
 
-        List<Transaction> list = transactionRepository.findByUserAndTransactionDateBetween(user, startDate, endDate);
-        // Aggregate per YearMonth, but include only expense (or uncategorized) transactions
         Map<YearMonth, Double> agg = new HashMap<>();
-        for (Transaction t : list) {
-            if (t.getTransactionDate() == null || t.getAmount() == null) continue;
-            // only expenses (or uncategorized)
-            if (!isExpenseOrUncategorized(t)) continue;
-            if (categoryId != null) {
-                if (t.getCategory() == null || t.getCategory().getId() == null) continue;
-                if (!categoryId.equals(t.getCategory().getId())) continue;
-            }
-            YearMonth ym = YearMonth.from(t.getTransactionDate());
-            agg.merge(ym, t.getAmount().doubleValue(), Double::sum);
+        for (MonthlyTotalRow row : rows) {
+            agg.put(YearMonth.from(row.monthStart()), Money.of(row.total()).toDouble());
         }
 
         // Build ordered map from start..end
@@ -68,46 +57,51 @@ public class AnalysisService {
         return result;
     }
 
+    // isto bez filtra kategorije, nad vec ucitanim stupcima (dashboard summary)
+    public Map<String, Double> monthlySpending(TransactionColumns columns, int months) {
+        if (months <= 0) return Collections.emptyMap();
+
+        YearMonth start = YearMonth.now().minusMonths(months - 1);
+        long[] cents = new long[months];
+        columns.monthlyExpenseTotals(start, cents);
+
+        Map<String, Double> result = new LinkedHashMap<>();
+        for (int i = 0; i < months; i++) {
+            result.put(start.plusMonths(i).toString(), Money.toDouble(cents[i]));
+        }
+        return result;
+    }
+
     /**
      * Returns a map with keys: "series" -> Map<date, amount> for each of the last `days` days (inclusive)
      * and "total" -> total sum across the window. Optional category filter.
      */
     public Map<String, Object> dailySpending(Integer userId, int days, Integer categoryId) {
         if (days <= 0) return Collections.emptyMap();
+        return dailySpending(transactionColumnStore.get(userId), days, categoryId);
+    }
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    // isto, nad vec ucitanim stupcima (dashboard summary)
+    public Map<String, Object> dailySpending(TransactionColumns columns, int days, Integer categoryId) {
+        if (days <= 0) return Collections.emptyMap();
 
         LocalDate end = LocalDate.now();
         LocalDate start = end.minusDays(Math.max(0, days - 1));
 
-        List<Transaction> list = transactionRepository.findByUserAndTransactionDateBetween(user, start, end);
-
-        Map<LocalDate, Double> agg = new HashMap<>();
-        for (Transaction t : list) {
-            if (t.getTransactionDate() == null || t.getAmount() == null) continue;
-            // only expenses (or uncategorized)
-            if (!isExpenseOrUncategorized(t)) continue;
-            if (categoryId != null) {
-                if (t.getCategory() == null || t.getCategory().getId() == null) continue;
-                if (!categoryId.equals(t.getCategory().getId())) continue;
-            }
-            agg.merge(t.getTransactionDate(), t.getAmount().doubleValue(), Double::sum);
-        }
+        long[] cents = new long[(int) (end.toEpochDay() - start.toEpochDay()) + 1];
+        columns.dailyExpenseTotals(start, categoryId, cents);
 
+        // zbroj u centima, da total odgovara zbroju dana u seriji do na cent
         Map<String, Double> series = new LinkedHashMap<>();
-        double total = 0.0;
-        LocalDate cur = start;
-        while (!cur.isAfter(end)) {
-            double v = agg.getOrDefault(cur, 0.0);
-            series.put(cur.toString(), v);
-            total += v;
-            cur = cur.plusDays(1);
+        long total = 0;
+        for (int i = 0; i < cents.length; i++) {
+            series.put(start.plusDays(i).toString(), Money.toDouble(cents[i]));
+            total += cents[i];
         }
 
         Map<String, Object> resp = new LinkedHashMap<>();
         resp.put("series", series);
-        resp.put("total", total);
+        resp.put("total", Money.toDouble(total));
         resp.put("days", days);
         resp.put("start", start.toString());
         resp.put("end", end.toString());
@@ -0,0 +1,16 @@
+package com.havana.backend.service;
+
+/**
+ * Published whenever a category is created, deleted or changes type. Listeners that cache anything
+ * built from a user's category list drop it once the writing transaction commits;
+ * {@link CategoryCacheSync} announces it to the other backend instances.
+ *
+ * @param userId owner of the changed category, or {@code null} for a global category, which
+ *               changes the list of every user
+ */
+public record CategoriesChangedEvent(Integer userId) {
+
+    public static CategoriesChangedEvent global() {
+        return new CategoriesChangedEvent(null);
+    }
+}
@@ -0,0 +1,146 @@
+package com.havana.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.havana.backend.data.CategoryResponse;
+import com.havana.backend.model.Category;
+import com.havana.backend.model.CategoryType;
+import com.havana.backend.model.User;
+import com.havana.backend.repository.CategoryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Categories as immutable snapshots, in two regions: the global categories, shared by everyone,
+ * and each user's own categories. A region is dropped when a {@link CategoriesChangedEvent} for it
+ * completes here, or when another instance announces one (see {@link CategoryCacheSync}).
+ */
+@Service
+public class CategoryCache {
+
+    /**
+     * A category as the cache keeps it.
+     *
+     * @param global true for a global category, false for one owned by the user it was looked up for
+     */
+    public record CachedCategory(Integer id, boolean global, String name, CategoryType type) {
+
+        static CachedCategory of(Category c) {
+            return new CachedCategory(c.getId(), c.getUser() == null, c.getName(), c.getType());
+        }
+
+        public CategoryResponse toResponse() {
+            return new CategoryResponse(id, name, type);
+        }
+
+        /**
+         * A detached entity standing in for the row, for associations that only need its id (the
+         * foreign key) and type. It is never saved; {@code owner} is the user it was looked up for.
+         */
+        public Category toReference(User owner) {
+            return new Category(id, global ? null : owner, name, type);
+        }
+    }
+
+    private final CategoryRepository categoryRepository;
+
+    private final AtomicReference<List<CachedCategory>> globalCategories = new AtomicReference<>();
+    private final Cache<Integer, List<CachedCategory>> userCategories;
+
+    // povecava se na svaku promjenu kategorija, lista procitana prije promjene se ne sprema
+    private final AtomicLong generation = new AtomicLong();
+
+    public CategoryCache(
+            CategoryRepository categoryRepository,
+            @Value("${fintrack.categories.cache.max-users:10000}") long maxUsers,
+            @Value("${fintrack.categories.cache.expire-after-access:1h}") Duration expireAfterAccess,
+            MeterRegistry meterRegistry
+    ) {
+        this.categoryRepository = categoryRepository;
+        this.userCategories = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, userCategories, "user-categories");
+    }
+
+    /**
+     * Every category the user can pick: the global ones first, then their own.
+     */
+    public List<CachedCategory> forUser(Integer userId) {
+        return Stream.concat(global().stream(), own(userId).stream()).toList();
+    }
+
+    public List<CachedCategory> global() {
+        List<CachedCategory> categories = globalCategories.get();
+        if (categories == null) {
+            long before = generation.get();
+            categories = categoryRepository.findByUserIsNull().stream().map(CachedCategory::of).toList();
+            if (generation.get() == before) {
+                globalCategories.compareAndSet(null, categories);
+            }
+        }
+        return categories;
+    }
+
+    public List<CachedCategory> own(Integer userId) {
+        List<CachedCategory> categories = userCategories.getIfPresent(userId);
+        if (categories == null) {
+            // upit ide izvan Caffeine loadera da virtualna nit ne ceka na bazu pod lockom mape
+            long before = generation.get();
+            categories = categoryRepository.findByUserId(userId).stream().map(CachedCategory::of).toList();
+            if (generation.get() == before) {
+                userCategories.put(userId, categories);
+            }
+        }
+        return categories;
+    }
+
+    // globalna ili korisnikova, kao provjera prije spremanja transakcije
+    public Optional<CachedCategory> visible(Integer userId, Integer categoryId) {
+        if (categoryId == null) return Optional.empty();
+        return forUser(userId).stream().filter(c -> c.id().equals(categoryId)).findFirst();
+    }
+
+    // ime je jedinstveno po korisniku (UNIQUE user_id, name)
+    public Optional<CachedCategory> own(Integer userId, String name) {
+        return own(userId).stream().filter(c -> c.name().equals(name)).findFirst();
+    }
+
+    /**
+     * Drops the user's region, or the global one for {@code null}.
+     */
+    public void invalidate(Integer userId) {
+        generation.incrementAndGet();
+        if (userId == null) {
+            globalCategories.set(null);
+        } else {
+            userCategories.invalidate(userId);
+        }
+    }
+
+    // kad se propuste obavijesti (prekinuta LISTEN veza), nista iz cachea se vise ne zna sigurno
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        globalCategories.set(null);
+        userCategories.invalidateAll();
+    }
+
+    // i nakon rollbacka: unutar transakcije je mozda ucitana lista s kategorijom koja ne postoji
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onCategoriesChanged(CategoriesChangedEvent event) {
+        invalidate(event.userId());
+    }
+}
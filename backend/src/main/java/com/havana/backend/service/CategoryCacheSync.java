@@ -0,0 +1,148 @@
+package com.havana.backend.service;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Keeps the {@link CategoryCache} of every backend instance in step through PostgreSQL
+ * LISTEN/NOTIFY. A {@link CategoriesChangedEvent} sends {@code pg_notify} on the writer's own
+ * connection, so PostgreSQL delivers it only if that transaction commits. Each instance listens on
+ * a dedicated connection outside the pool and drops the named region. After the listening
+ * connection has been lost, it drops everything, because notifications sent while it was down
+ * are gone.
+ */
+@Service
+public class CategoryCacheSync implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(CategoryCacheSync.class);
+
+    static final String CHANNEL = "fintrack_categories";
+    static final String GLOBAL = "global";
+
+    private static final int POLL_MILLIS = 1000;
+
+    private final CategoryCache categoryCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final boolean enabled;
+    private final Duration reconnectDelay;
+
+    private volatile boolean running;
+    private volatile boolean listening;
+    private Thread listener;
+
+    public CategoryCacheSync(
+            CategoryCache categoryCache,
+            JdbcTemplate jdbcTemplate,
+            @Value("${spring.datasource.url:}") String url,
+            @Value("${spring.datasource.username:}") String username,
+            @Value("${spring.datasource.password:}") String password,
+            @Value("${fintrack.categories.listen.enabled:true}") boolean enabled,
+            @Value("${fintrack.categories.listen.reconnect-delay:5s}") Duration reconnectDelay
+    ) {
+        this.categoryCache = categoryCache;
+        this.jdbcTemplate = jdbcTemplate;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.enabled = enabled;
+        this.reconnectDelay = reconnectDelay;
+    }
+
+    // u transakciji koja mijenja kategoriju (ili odmah, bez nje); NOTIFY se isporucuje tek na commit
+    @EventListener
+    public void onCategoriesChanged(CategoriesChangedEvent event) {
+        String payload = event.userId() != null ? event.userId().toString() : GLOBAL;
+        jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", CHANNEL, payload);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!enabled || url.isBlank() || running) return;
+        running = true;
+        listener = Thread.ofPlatform().daemon().name("category-listener").start(this::listen);
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        listening = false;
+        if (listener == null) return;
+        listener.interrupt();
+        try {
+            listener.join(2L * POLL_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        listener = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // veza slusa i cache je ociscen nakon spajanja
+    boolean isListening() {
+        return listening;
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                // sve sto je stiglo dok veza nije slusala je propusteno
+                categoryCache.invalidateAll();
+                listening = true;
+                log.info("Listening for category changes on {}", CHANNEL);
+
+                PGConnection pg = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(POLL_MILLIS);
+                    if (notifications == null) continue;
+                    for (PGNotification notification : notifications) {
+                        handle(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                listening = false;
+                if (!running) return;
+                log.warn("Category change listener disconnected, retrying in {}", reconnectDelay, e);
+                try {
+                    Thread.sleep(reconnectDelay);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    void handle(String payload) {
+        if (GLOBAL.equals(payload)) {
+            categoryCache.invalidate(null);
+            return;
+        }
+        try {
+            categoryCache.invalidate(Integer.valueOf(payload));
+        } catch (NumberFormatException e) {
+            categoryCache.invalidateAll();
+        }
+    }
+}
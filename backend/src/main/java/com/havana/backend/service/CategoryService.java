@@ -4,9 +4,10 @@ import com.havana.backend.data.CategoryResponse;
 import com.havana.backend.data.CreateCategoryRequest;
 import com.havana.backend.model.Category;
 import com.havana.backend.repository.CategoryRepository;
-import com.havana.backend.repository.TransactionRepository;
+import com.havana.backend.repository.TransactionHistoryRepository;
 import lombok.RequiredArgsConstructor;
 import org.jspecify.annotations.Nullable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.stereotype.Service;
 
@@ -17,8 +18,10 @@ import java.util.List;
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final CategoryCache categoryCache;
     private final UserService userService;
-    private final TransactionRepository transactionRepository;
+    private final TransactionHistoryRepository transactionHistoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public Category createCategory(CreateCategoryRequest request, Integer userId) {
         Category category = new Category();
@@ -26,21 +29,20 @@ public class CategoryService {
         category.setType(request.type());
         category.setUser(userService.findById(userId));
 
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoriesChangedEvent(userId));
+        return saved;
     }
 
-    public List<Category> getCategoriesForUser(Integer userId) {
-        return categoryRepository.findForUser(userId);
+    public List<CategoryResponse> getCategoriesForUser(Integer userId) {
+        return categoryCache.forUser(userId).stream()
+                .map(CategoryCache.CachedCategory::toResponse)
+                .toList();
     }
 
     public List<CategoryResponse> getMyCustomCategories(Integer userId) {
-        return categoryRepository.findByUserId(userId)
-                .stream()
-                .map(c -> new CategoryResponse(
-                        c.getId(),
-                        c.getName(),
-                        c.getType()
-                ))
+        return categoryCache.own(userId).stream()
+                .map(CategoryCache.CachedCategory::toResponse)
                 .toList();
     }
 
@@ -52,8 +54,8 @@ public class CategoryService {
                         new IllegalArgumentException("Kategorija ne postoji ili ne pripada korisniku")
                 );
 
-        // zabrani brisanje kategorije ako ima transakcija
-        if (transactionRepository.existsByCategory(category)) {
+        // zabrani brisanje kategorije ako ima transakcija, i arhiviranih
+        if (transactionHistoryRepository.existsByCategoryId(category.getId())) {
             throw new IllegalStateException(
                     "Kategorija se ne može obrisati jer sadrži transakcije"
             );
@@ -74,6 +76,7 @@ public class CategoryService {
         }
 
         categoryRepository.delete(category);
+        eventPublisher.publishEvent(new CategoriesChangedEvent(userId));
     }
 
     public Category createGlobalCategory(CreateCategoryRequest request) {
@@ -83,7 +86,9 @@ public class CategoryService {
         category.setType(request.type());
         category.setUser(null);
 
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        eventPublisher.publishEvent(CategoriesChangedEvent.global());
+        return saved;
     }
 
     public void deleteCategory(Integer categoryId) {
@@ -91,5 +96,8 @@ public class CategoryService {
                 .orElseThrow(() -> new IllegalArgumentException("Category not found"));
 
         categoryRepository.delete(category);
+        eventPublisher.publishEvent(new CategoriesChangedEvent(
+                category.getUser() == null ? null : category.getUser().getId()
+        ));
     }
 }
@@ -0,0 +1,75 @@
+package com.havana.backend.service;
+
+import com.havana.backend.data.DashboardSummaryResponse;
+import com.havana.backend.data.SavingGoalResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Everything the dashboard shows, in one call. All the transaction figures (spending by category,
+ * the weekly goal, the month balance and the series) are computed from one load of the user's
+ * {@link TransactionColumns}; only the saving goals and the prediction are separate reads, and they
+ * run concurrently with it on virtual threads.
+ */
+@Service
+@RequiredArgsConstructor
+public class DashboardService {
+
+    static final int DAILY_DAYS = 30;
+    static final int MONTHLY_MONTHS = 6;
+    static final int ROLLING_MONTHS = 3;
+
+    private final TransactionColumnStore transactionColumnStore;
+    private final TransactionService transactionService;
+    private final SavingGoalService savingGoalService;
+    private final PredictionService predictionService;
+    private final AnalysisService analysisService;
+
+    public DashboardSummaryResponse getSummary(Integer userId) {
+        LocalDate today = LocalDate.now();
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            Future<List<SavingGoalResponse>> goals = executor.submit(
+                    () -> savingGoalService.getSavingGoals(userId));
+            Future<Double> tomorrow = executor.submit(
+                    () -> predictionService.predictDailySpending(userId, today.plusDays(1)));
+
+            // ucitavanje stupaca provjerava i korisnika ("User not found"), ostalo je racunanje nad njima
+            TransactionColumns history = transactionColumnStore.get(userId);
+
+            return new DashboardSummaryResponse(
+                    transactionService.getSpendingByCategory(userId, history),
+                    transactionService.getWeeklyGoal(history),
+                    transactionService.getCurrentMonthBalance(history),
+                    join(goals),
+                    join(tomorrow),
+                    predictionService.rollingMonthlyAverage(history, ROLLING_MONTHS),
+                    analysisService.monthlySpending(history, MONTHLY_MONTHS),
+                    analysisService.dailySpending(history, DAILY_DAYS, null)
+            );
+        } finally {
+            // nakon uspjeha su oba zadatka gotova; ako je nesto palo, ostali se prekidaju
+            executor.shutdownNow();
+        }
+    }
+
+    private static <T> T join(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Dashboard summary interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
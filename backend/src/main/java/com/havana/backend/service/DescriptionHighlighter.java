@@ -0,0 +1,79 @@
+package com.havana.backend.service;
+
+import com.havana.backend.data.TextRange;
+import com.havana.backend.data.TransactionFilterRequest;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the parts of a description that made it match a search, so the client can mark them
+ * without parsing the query itself. Mirrors the two search modes: case-insensitive occurrences of
+ * the whole term for {@code contains}, and whole words of the query for {@code words} (the
+ * {@code 'simple'} text search configuration lower-cases words but does not stem them).
+ */
+public final class DescriptionHighlighter {
+
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}]+");
+
+    // websearch_to_tsquery sintaksa: "fraza", -iskljuceno, or
+    private static final Pattern QUERY_PART = Pattern.compile("(-?)\"([^\"]*)\"?|(-?)(\\S+)");
+
+    private DescriptionHighlighter() {}
+
+    public static List<TextRange> highlights(String description, TransactionFilterRequest filter) {
+        if (!filter.hasDescription()) return null;
+        if (description == null || description.isEmpty()) return List.of();
+
+        return filter.wordSearch()
+                ? words(description, queryWords(filter.description()))
+                : occurrences(description, filter.description());
+    }
+
+    private static List<TextRange> occurrences(String text, String term) {
+        List<TextRange> ranges = new ArrayList<>();
+        int length = term.length();
+        for (int i = 0; i + length <= text.length(); i++) {
+            if (text.regionMatches(true, i, term, 0, length)) {
+                ranges.add(new TextRange(i, i + length));
+                i += length - 1;
+            }
+        }
+        return ranges;
+    }
+
+    private static List<TextRange> words(String text, Set<String> wanted) {
+        List<TextRange> ranges = new ArrayList<>();
+        Matcher word = WORD.matcher(text);
+        while (word.find()) {
+            if (wanted.contains(word.group().toLowerCase(Locale.ROOT))) {
+                ranges.add(new TextRange(word.start(), word.end()));
+            }
+        }
+        return ranges;
+    }
+
+    static Set<String> queryWords(String query) {
+        Set<String> words = new HashSet<>();
+        Matcher part = QUERY_PART.matcher(query);
+        while (part.find()) {
+            boolean phrase = part.group(2) != null;
+            String negation = phrase ? part.group(1) : part.group(3);
+            String content = phrase ? part.group(2) : part.group(4);
+
+            if (!negation.isEmpty()) continue;
+            if (!phrase && content.equalsIgnoreCase("or")) continue;
+
+            Matcher word = WORD.matcher(content);
+            while (word.find()) {
+                words.add(word.group().toLowerCase(Locale.ROOT));
+            }
+        }
+        return words;
+    }
+}
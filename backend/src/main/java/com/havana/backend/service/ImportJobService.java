@@ -0,0 +1,307 @@
+package com.havana.backend.service;
+
+import com.havana.backend.data.ImportJobResponse;
+import com.havana.backend.data.ImportRowError;
+import com.havana.backend.model.ImportFormat;
+import com.havana.backend.model.ImportJob;
+import com.havana.backend.model.ImportJobError;
+import com.havana.backend.model.ImportJobStatus;
+import com.havana.backend.model.User;
+import com.havana.backend.repository.ImportJobErrorRepository;
+import com.havana.backend.repository.ImportJobRepository;
+import com.havana.backend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Runs transaction imports in the background. The upload is spooled to a local file, a row in
+ * {@code import_jobs} tracks progress, and the actual parsing happens on a bounded executor so
+ * request threads are released immediately.
+ */
+@Service
+public class ImportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportJobService.class);
+
+    private static final List<ImportJobStatus> UNFINISHED =
+            List.of(ImportJobStatus.QUEUED, ImportJobStatus.RUNNING);
+
+    private final ImportJobRepository importJobRepository;
+    private final ImportJobErrorRepository importJobErrorRepository;
+    private final UserRepository userRepository;
+    private final TransactionImportService transactionImportService;
+    private final TaskExecutor importExecutor;
+    private final Path spoolDir;
+    private final String hostName;
+
+    public ImportJobService(
+            ImportJobRepository importJobRepository,
+            ImportJobErrorRepository importJobErrorRepository,
+            UserRepository userRepository,
+            TransactionImportService transactionImportService,
+            @Qualifier("importExecutor") TaskExecutor importExecutor,
+            @Value("${fintrack.import.spool-dir:${java.io.tmpdir}/fintrack-imports}") Path spoolDir
+    ) {
+        this.importJobRepository = importJobRepository;
+        this.importJobErrorRepository = importJobErrorRepository;
+        this.userRepository = userRepository;
+        this.transactionImportService = transactionImportService;
+        this.importExecutor = importExecutor;
+        this.spoolDir = spoolDir;
+        this.hostName = resolveHostName();
+    }
+
+    public ImportJobResponse submit(MultipartFile file, Integer userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        Path spoolFile;
+        try {
+            Files.createDirectories(spoolDir);
+            spoolFile = spoolDir.resolve(UUID.randomUUID() + ".upload");
+            file.transferTo(spoolFile);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not store uploaded file", e);
+        }
+
+        ImportJob job = new ImportJob();
+        job.setUser(user);
+        job.setFormat(detectFormat(spoolFile));
+        job.setFileName(file.getOriginalFilename());
+        job.setSpoolPath(spoolFile.toString());
+        job.setSpoolHost(hostName);
+        job.setTotalBytes(file.getSize());
+        job = importJobRepository.save(job);
+
+        try {
+            enqueue(job.getId());
+        } catch (TaskRejectedException e) {
+            importJobRepository.delete(job);
+            deleteQuietly(spoolFile);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many imports in progress, try again later");
+        }
+
+        return toResponse(job);
+    }
+
+    public ImportJobResponse getJob(Integer jobId, Integer userId) {
+        return toResponse(findOwned(jobId, userId));
+    }
+
+    public List<ImportJobResponse> getJobs(Integer userId) {
+        List<ImportJob> jobs = importJobRepository.findTop20ByUserIdOrderByCreatedAtDesc(userId);
+        if (jobs.isEmpty()) return List.of();
+
+        // greske svih poslova jednim upitom, ne po jedan za svaki posao
+        Map<Integer, List<ImportJobError>> errorsByJob = importJobErrorRepository
+                .findTop100PerJob(jobs.stream().map(ImportJob::getId).toList())
+                .stream()
+                .collect(Collectors.groupingBy(e -> e.getJob().getId()));
+
+        return jobs.stream()
+                .map(job -> toResponse(job, errorsByJob.getOrDefault(job.getId(), List.of())))
+                .toList();
+    }
+
+    public ImportJobResponse cancel(Integer jobId, Integer userId) {
+        ImportJob job = findOwned(jobId, userId);
+
+        // worker primijeti zahtjev prije sljedeceg chunka; zavrseni posao se ne mijenja
+        if (importJobRepository.requestCancel(jobId) > 0) {
+            job.setCancelRequested(true);
+        }
+        return toResponse(job);
+    }
+
+    // nakon restarta nastavljamo poslove cija je spool datoteka na ovom hostu
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinished() {
+        for (ImportJob job : importJobRepository.findBySpoolHostAndStatusIn(hostName, UNFINISHED)) {
+            if (!Files.exists(Path.of(job.getSpoolPath()))) {
+                finish(job.getId(), ImportJobStatus.FAILED, "Uploaded file was lost during restart");
+                continue;
+            }
+
+            log.info("Resuming import job {} from row {}", job.getId(), job.getRowsParsed());
+            try {
+                enqueue(job.getId());
+            } catch (TaskRejectedException e) {
+                finish(job.getId(), ImportJobStatus.FAILED, "Import queue full after restart");
+            }
+        }
+    }
+
+    private void enqueue(Integer jobId) {
+        importExecutor.execute(() -> run(jobId));
+    }
+
+    private void run(Integer jobId) {
+        ImportJob job = importJobRepository.findById(jobId).orElse(null);
+        if (job == null || job.isFinished()) return;
+
+        if (job.isCancelRequested()) {
+            finish(jobId, ImportJobStatus.CANCELLED, null);
+            return;
+        }
+
+        importJobRepository.markStarted(jobId, ImportJobStatus.RUNNING, LocalDateTime.now());
+
+        try {
+            transactionImportService.importFile(
+                    Path.of(job.getSpoolPath()),
+                    job.getFormat(),
+                    job.getUser().getId(),
+                    new JobProgress(job.getId()),
+                    job.getRowsParsed()
+            );
+            finish(jobId, ImportJobStatus.COMPLETED, null);
+        } catch (TransactionImportService.ImportCancelledException e) {
+            finish(jobId, ImportJobStatus.CANCELLED, null);
+        } catch (Exception e) {
+            log.warn("Import job {} failed", jobId, e);
+            finish(jobId, ImportJobStatus.FAILED, e.getMessage());
+        }
+    }
+
+    private void finish(Integer jobId, ImportJobStatus status, String errorMessage) {
+        importJobRepository.markFinished(jobId, status, errorMessage, LocalDateTime.now());
+        importJobRepository.findById(jobId)
+                .ifPresent(job -> deleteQuietly(Path.of(job.getSpoolPath())));
+    }
+
+    // xlsx je zip arhiva, pa je dovoljno provjeriti "PK" na pocetku datoteke
+    private static ImportFormat detectFormat(Path file) {
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] magic = in.readNBytes(2);
+            return magic.length == 2 && magic[0] == 'P' && magic[1] == 'K'
+                    ? ImportFormat.XLSX
+                    : ImportFormat.CSV;
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read uploaded file", e);
+        }
+    }
+
+    private ImportJob findOwned(Integer jobId, Integer userId) {
+        return importJobRepository.findByIdAndUserId(jobId, userId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Import job not found"));
+    }
+
+    private ImportJobResponse toResponse(ImportJob job) {
+        return toResponse(job, importJobErrorRepository.findTop100ByJobIdOrderByRowNumber(job.getId()));
+    }
+
+    private ImportJobResponse toResponse(ImportJob job, List<ImportJobError> jobErrors) {
+        double fraction = job.getTotalBytes() > 0
+                ? Math.min(1.0, (double) job.getBytesRead() / job.getTotalBytes())
+                : 0.0;
+        if (job.getStatus() == ImportJobStatus.COMPLETED) fraction = 1.0; // bytes_read zaostaje za bufferom parsera
+
+        double rowsPerSecond = 0.0;
+        Long etaSeconds = null;
+        if (job.getStartedAt() != null) {
+            LocalDateTime end = job.getFinishedAt() != null ? job.getFinishedAt() : LocalDateTime.now();
+            double elapsed = Math.max(1, Duration.between(job.getStartedAt(), end).toMillis()) / 1000.0;
+            rowsPerSecond = job.getRowsParsed() / elapsed;
+
+            if (!job.isFinished() && fraction > 0) {
+                etaSeconds = Math.round(elapsed * (1 - fraction) / fraction);
+            }
+        }
+
+        List<ImportRowError> errors = jobErrors.stream()
+                .map(e -> new ImportRowError(e.getRowNumber(), e.getReason()))
+                .toList();
+
+        return new ImportJobResponse(
+                job.getId(),
+                job.getFileName(),
+                job.getStatus(),
+                job.getRowsParsed(),
+                job.getRowsImported(),
+                job.getRowsFailed(),
+                fraction * 100,
+                etaSeconds,
+                rowsPerSecond,
+                job.getErrorMessage(),
+                errors,
+                job.getCreatedAt(),
+                job.getStartedAt(),
+                job.getFinishedAt()
+        );
+    }
+
+    /**
+     * Writes progress in the same transaction as each imported chunk, so after a crash
+     * {@code rows_parsed} points exactly at the first row that still has to be imported.
+     */
+    private class JobProgress implements ImportProgressListener {
+
+        private final Integer jobId;
+
+        JobProgress(Integer jobId) {
+            this.jobId = jobId;
+        }
+
+        @Override
+        public void chunkCommitted(Chunk chunk) {
+            importJobRepository.recordChunk(
+                    jobId,
+                    chunk.lastRowNumber(),
+                    Math.max(0, chunk.bytesRead()),
+                    chunk.imported(),
+                    chunk.failed()
+            );
+
+            if (!chunk.errors().isEmpty()) {
+                ImportJob ref = importJobRepository.getReferenceById(jobId);
+                importJobErrorRepository.saveAll(chunk.errors().stream()
+                        .map(e -> new ImportJobError(null, ref, e.row(), e.reason()))
+                        .toList());
+            }
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return importJobRepository.isCancelRequested(jobId);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete spool file {}", file, e);
+        }
+    }
+
+    private static String resolveHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "localhost";
+        }
+    }
+}
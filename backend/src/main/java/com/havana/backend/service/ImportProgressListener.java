@@ -0,0 +1,35 @@
+package com.havana.backend.service;
+
+import com.havana.backend.data.ImportRowError;
+
+import java.util.List;
+
+/**
+ * Callback for long running imports. {@link #chunkCommitted} runs inside the transaction that
+ * writes the chunk, so anything it persists commits (or rolls back) together with the rows.
+ */
+public interface ImportProgressListener {
+
+    ImportProgressListener NONE = new ImportProgressListener() {};
+
+    default void chunkCommitted(Chunk chunk) {}
+
+    default boolean isCancelled() {
+        return false;
+    }
+
+    /**
+     * @param lastRowNumber last source row covered by this chunk (inserted or rejected)
+     * @param bytesRead     bytes of the source consumed so far, -1 when the format cannot tell
+     * @param imported      rows inserted in this chunk
+     * @param failed        rows rejected in this chunk
+     * @param errors        reasons for (at most the first few) rejected rows
+     */
+    record Chunk(
+            long lastRowNumber,
+            long bytesRead,
+            int imported,
+            int failed,
+            List<ImportRowError> errors
+    ) {}
+}
@@ -0,0 +1,213 @@
+package com.havana.backend.service;
+
+import com.havana.backend.data.RollupCheckResponse;
+import com.havana.backend.data.RollupDrift;
+import com.havana.backend.model.Money;
+import com.havana.backend.model.Transaction;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintains {@code user_month_category_rollup}. Every write to transactions has to call one of the
+ * {@code record*} methods inside its own database transaction, so the rollup commits or rolls back
+ * together with the rows it summarises.
+ */
+@Service
+@RequiredArgsConstructor
+public class MonthlyRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(MonthlyRollupService.class);
+
+    private static final int MAX_REPORTED_DRIFT = 100;
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO user_month_category_rollup AS r (user_id, month_start, category_id, total, tx_count)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (user_id, month_start, category_id)
+            DO UPDATE SET total = r.total + EXCLUDED.total,
+                          tx_count = r.tx_count + EXCLUDED.tx_count
+            """;
+
+    private static final String REBUILD_SQL = """
+            INSERT INTO user_month_category_rollup (user_id, month_start, category_id, total, tx_count)
+            SELECT user_id,
+                   date_trunc('month', transaction_date)::date,
+                   COALESCE(category_id, 0),
+                   SUM(amount),
+                   COUNT(*)
+            FROM transaction_history
+            GROUP BY 1, 2, 3
+            """;
+
+    // retci s tx_count = 0 ostaju nakon brisanja i ne smatraju se razlikom
+    private static final String DRIFT_SQL = """
+            WITH expected AS (
+                SELECT user_id,
+                       date_trunc('month', transaction_date)::date AS month_start,
+                       COALESCE(category_id, 0) AS category_id,
+                       SUM(amount) AS total,
+                       COUNT(*) AS tx_count
+                FROM transaction_history
+                GROUP BY 1, 2, 3
+            ), actual AS (
+                SELECT user_id, month_start, category_id, total, tx_count
+                FROM user_month_category_rollup
+                WHERE tx_count <> 0
+            )
+            SELECT COALESCE(e.user_id, a.user_id) AS user_id,
+                   COALESCE(e.month_start, a.month_start) AS month_start,
+                   COALESCE(e.category_id, a.category_id) AS category_id,
+                   COALESCE(e.total, 0) AS expected_total,
+                   COALESCE(a.total, 0) AS actual_total,
+                   COALESCE(e.tx_count, 0) AS expected_count,
+                   COALESCE(a.tx_count, 0) AS actual_count
+            FROM expected e
+            FULL OUTER JOIN actual a
+              ON a.user_id = e.user_id
+             AND a.month_start = e.month_start
+             AND a.category_id = e.category_id
+            WHERE COALESCE(e.total, 0) <> COALESCE(a.total, 0)
+               OR COALESCE(e.tx_count, 0) <> COALESCE(a.tx_count, 0)
+            ORDER BY 1, 2, 3
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordInsert(Transaction t) {
+        Deltas deltas = new Deltas();
+        deltas.add(t.getTransactionDate(), categoryIdOf(t), Money.of(t.getAmount()));
+        apply(t.getUser().getId(), deltas);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDelete(Transaction t) {
+        Deltas deltas = new Deltas();
+        deltas.remove(t.getTransactionDate(), categoryIdOf(t), Money.of(t.getAmount()));
+        apply(t.getUser().getId(), deltas);
+    }
+
+    // za batch insert (import): jedan upsert po (mjesec, kategorija) umjesto po retku
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void apply(Integer userId, Deltas deltas) {
+        if (deltas.byKey.isEmpty()) return;
+
+        // kljucevi su sortirani, pa dva paralelna importa istog korisnika zakljucavaju retke istim redom
+        List<Map.Entry<Key, Delta>> entries = new ArrayList<>(deltas.byKey.entrySet());
+        jdbcTemplate.batchUpdate(UPSERT_SQL, entries, entries.size(), (ps, e) -> {
+            ps.setInt(1, userId);
+            ps.setDate(2, Date.valueOf(e.getKey().monthStart()));
+            ps.setInt(3, e.getKey().categoryId());
+            ps.setBigDecimal(4, Money.ofCents(e.getValue().cents).toBigDecimal());
+            ps.setLong(5, e.getValue().count);
+        });
+    }
+
+    /**
+     * Recomputes the whole rollup from raw transactions, archived partitions included. Writers are
+     * blocked for the duration (SHARE lock on transactions) so no delta can slip in between the
+     * delete and the insert; the archive lock also keeps a partition from moving mid-rebuild.
+     */
+    @Transactional
+    public RollupCheckResponse rebuild() {
+        long started = System.nanoTime();
+
+        jdbcTemplate.execute("LOCK TABLE transactions, transactions_archive IN SHARE MODE");
+        jdbcTemplate.update("DELETE FROM user_month_category_rollup");
+        int rows = jdbcTemplate.update(REBUILD_SQL);
+
+        log.info("Rebuilt monthly rollup: {} rows", rows);
+        return new RollupCheckResponse(rows, 0, List.of(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @Transactional(readOnly = true)
+    public RollupCheckResponse verify() {
+        long started = System.nanoTime();
+
+        List<RollupDrift> drift = new ArrayList<>();
+        int[] drifted = {0};
+        jdbcTemplate.query(DRIFT_SQL, rs -> {
+            drifted[0]++;
+            if (drift.size() < MAX_REPORTED_DRIFT) {
+                drift.add(new RollupDrift(
+                        rs.getInt("user_id"),
+                        rs.getDate("month_start").toLocalDate(),
+                        rs.getInt("category_id"),
+                        rs.getBigDecimal("expected_total"),
+                        rs.getBigDecimal("actual_total"),
+                        rs.getLong("expected_count"),
+                        rs.getLong("actual_count")
+                ));
+            }
+        });
+
+        if (drifted[0] > 0) {
+            log.warn("Monthly rollup drift in {} rows", drifted[0]);
+        }
+        return new RollupCheckResponse(0, drifted[0], drift, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // prvi start nakon uvodenja tablice: napuni je iz postojecih transakcija prije nego sto krenu importi
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Transactional
+    public void backfillIfEmpty() {
+        Boolean empty = jdbcTemplate.queryForObject(
+                "SELECT NOT EXISTS (SELECT 1 FROM user_month_category_rollup)", Boolean.class);
+        Boolean hasTransactions = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM transaction_history)", Boolean.class);
+
+        if (Boolean.TRUE.equals(empty) && Boolean.TRUE.equals(hasTransactions)) {
+            rebuild();
+        }
+    }
+
+    private static int categoryIdOf(Transaction t) {
+        return t.getCategory() != null ? t.getCategory().getId() : 0;
+    }
+
+    private record Key(LocalDate monthStart, int categoryId) {}
+
+    private static class Delta {
+        private long cents;
+        private long count;
+    }
+
+    /**
+     * Changes to apply to the rollup, summed per (month, category) before they hit the database.
+     */
+    public static class Deltas {
+
+        private final Map<Key, Delta> byKey = new TreeMap<>(
+                Comparator.comparing(Key::monthStart).thenComparingInt(Key::categoryId));
+
+        public void add(LocalDate date, int categoryId, Money amount) {
+            Delta d = byKey.computeIfAbsent(new Key(date.withDayOfMonth(1), categoryId), k -> new Delta());
+            d.cents = Math.addExact(d.cents, amount.cents());
+            d.count++;
+        }
+
+        public void remove(LocalDate date, int categoryId, Money amount) {
+            Delta d = byKey.computeIfAbsent(new Key(date.withDayOfMonth(1), categoryId), k -> new Delta());
+            d.cents = Math.subtractExact(d.cents, amount.cents());
+            d.count--;
+        }
+    }
+}
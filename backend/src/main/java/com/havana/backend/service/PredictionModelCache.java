@@ -0,0 +1,108 @@
+package com.havana.backend.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Fitted prediction models per (user, model kind). A model is dropped as soon as a committed write
+ * of that user has been applied to its {@link SpendingStatistics}, and otherwise lives until the
+ * size limit or TTL evicts it.
+ */
+@Component
+public class PredictionModelCache {
+
+    public enum ModelKind {
+        CATEGORY, // dan u tjednu + mjesec + kategorija, za predict()
+        DAILY     // dan u tjednu nad dnevnim zbrojevima
+    }
+
+    private record Key(Integer userId, ModelKind kind) {}
+
+    private final AsyncCache<Key, Object> cache;
+
+    // povecava se na svaku promjenu korisnikovih transakcija; brojac treba samo dok ga drzi get() u tijeku,
+    // pa slabe reference: GC ga makne kad ga nitko ne koristi, a novi koji krene od 0 je jednako dobar
+    private final Cache<Integer, AtomicLong> generations = Caffeine.newBuilder().weakValues().build();
+
+    public PredictionModelCache(
+            @Value("${fintrack.prediction.cache.max-size:10000}") long maxSize,
+            @Value("${fintrack.prediction.cache.ttl:30m}") Duration ttl,
+            MeterRegistry meterRegistry
+    ) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "prediction-models");
+    }
+
+    /**
+     * Fitting reads the database, so it runs on the cache's own virtual thread and the caller only
+     * waits on the future: a synchronous Caffeine load would run inside the map's bin lock and pin
+     * a virtual carrier thread for the whole query.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Integer userId, ModelKind kind, Supplier<T> loader) {
+        Key key = new Key(userId, kind);
+        // referenca na brojac ga drzi zivim do usporedbe ispod
+        AtomicLong counter = generation(userId);
+        long generation = counter.get();
+        CompletableFuture<Object> future = cache.get(key, k -> loader.get());
+
+        T model;
+        try {
+            model = (T) future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw e;
+        }
+
+        // model je mozda izracunat iz podataka koji su se u meduvremenu promijenili, takav ne ostaje u cacheu
+        if (counter.get() != generation) {
+            cache.asMap().remove(key, future);
+        }
+        return model;
+    }
+
+    // zove ga SpendingStatisticsService nakon sto primijeni commitane promjene
+    public void invalidate(Integer userId) {
+        generation(userId).incrementAndGet();
+        for (ModelKind kind : ModelKind.values()) {
+            cache.synchronous().invalidate(new Key(userId, kind));
+        }
+    }
+
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.synchronous().stats();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", cache.synchronous().estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        result.put("averageLoadMs", stats.averageLoadPenalty() / 1_000_000.0);
+        return result;
+    }
+
+    private AtomicLong generation(Integer userId) {
+        return generations.get(userId, id -> new AtomicLong());
+    }
+}
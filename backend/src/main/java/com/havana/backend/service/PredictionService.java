@@ -1,233 +1,113 @@
 // java
 package com.havana.backend.service;
 
-import com.havana.backend.model.Category;
-import com.havana.backend.model.Transaction;
-import com.havana.backend.model.User;
+import com.havana.backend.data.MonthlyTotalRow;
 import com.havana.backend.model.CategoryType;
-import com.havana.backend.repository.CategoryRepository;
+import com.havana.backend.model.Money;
+import com.havana.backend.repository.MonthlyCategoryRollupRepository;
 import com.havana.backend.repository.TransactionRepository;
 import com.havana.backend.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
-import org.apache.commons.math3.stat.regression.OLSMultipleLinearRegression;
-import org.apache.commons.math3.linear.SingularMatrixException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class PredictionService {
 
+    private static final Logger log = LoggerFactory.getLogger(PredictionService.class);
+
     private final TransactionRepository transactionRepository;
     private final UserRepository userRepository;
-    private final CategoryRepository categoryRepository;
-
-    private static final int DAY_DUMMY_COUNT = 6; // days 1..6 as dummies, day 7 reference
-    private static final int MONTH_DUMMY_COUNT = 11; // months 1..11 as dummies, month 12 reference
+    private final CategoryCache categoryCache;
+    private final MonthlyCategoryRollupRepository monthlyCategoryRollupRepository;
+    private final PredictionModelCache modelCache;
+    private final SpendingStatisticsService spendingStatisticsService;
+    private final TransactionColumnStore transactionColumnStore;
+    private final MeterRegistry meterRegistry;
 
-    // Helper: consider a transaction as expense if it has no category (uncategorized) OR category.type == EXPENSE
-    private static boolean isExpenseOrUncategorized(Transaction t) {
-        if (t == null) return false;
-        if (t.getCategory() == null) return true; // treat uncategorized as expense for prediction purposes
-        return t.getCategory().getType() == CategoryType.EXPENSE;
-    }
+    static final int DAY_DUMMY_COUNT = 6; // days 1..6 as dummies, day 7 reference
+    static final int MONTH_DUMMY_COUNT = 11; // months 1..11 as dummies, month 12 reference
 
     public double predict(Integer userId, LocalDate futureDate, Integer futureCategoryId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        List<Transaction> rawTransactions = transactionRepository.findByUser(user);
-        if (rawTransactions == null || rawTransactions.isEmpty()) return 0.0;
+        CategoryModel model = modelCache.get(userId, PredictionModelCache.ModelKind.CATEGORY,
+                () -> fitCategoryModel(userId));
+        if (!model.hasTransactions()) return 0.0;
 
         // If user requested prediction for a specific category that the user hasn't used,
         // try to give a reasonable fallback: 0 for INCOME categories, otherwise global category average
         if (futureCategoryId != null) {
-            Optional<Category> optCat = categoryRepository.findById(futureCategoryId);
+            Optional<CategoryCache.CachedCategory> optCat = categoryCache.visible(userId, futureCategoryId);
             if (optCat.isEmpty()) {
-                // unknown category id -> cannot predict
+                // unknown category id (or another user's) -> cannot predict
                 return 0.0;
             }
-            Category cat = optCat.get();
-            if (cat.getType() == CategoryType.INCOME) {
+            CategoryCache.CachedCategory cat = optCat.get();
+            if (cat.type() == CategoryType.INCOME) {
                 // we don't predict income as expense
                 return 0.0;
             }
 
             // check if user has any expense transactions in this category
-            boolean userHasCat = rawTransactions.stream()
-                    .anyMatch(t -> t.getCategory() != null
-                            && Objects.equals(t.getCategory().getId(), futureCategoryId)
-                            && isExpenseOrUncategorized(t));
+            boolean userHasCat = model.expenseByCategory().containsKey(futureCategoryId);
 
             if (!userHasCat) {
-                // Try global avg for this category across all users (only expenses included)
-                List<Transaction> catTx = transactionRepository.findByCategoryId(futureCategoryId);
-                if (catTx != null && !catTx.isEmpty()) {
-                    double sum = 0.0;
-                    int cnt = 0;
-                    for (Transaction t : catTx) {
-                        if (!isExpenseOrUncategorized(t)) continue;
-                        if (t.getAmount() == null) continue;
-                        sum += t.getAmount().doubleValue();
-                        cnt++;
-                    }
-                    if (cnt > 0) {
-                        return Math.max(sum / cnt, 0.0);
-                    }
+                // Try global avg for this category across all users (the category is an expense here)
+                Double globalAverage = transactionRepository.averageAmountByCategory(futureCategoryId);
+                if (globalAverage != null) {
+                    return Math.max(globalAverage, 0.0);
                 }
 
                 // Last fallback: user's overall expense average
-                double userSum = 0.0;
-                int userCnt = 0;
-                for (Transaction t : rawTransactions) {
-                    if (!isExpenseOrUncategorized(t)) continue;
-                    if (t.getAmount() == null) continue;
-                    userSum += t.getAmount().doubleValue();
-                    userCnt++;
-                }
-                if (userCnt > 0) return Math.max(userSum / userCnt, 0.0);
-
-                return 0.0;
+                return model.expenseTotal().average();
             }
         }
 
-        // filter out rows missing required fields and ignore income categories
-        List<Transaction> transactions = rawTransactions.stream()
-                .filter(t -> t.getTransactionDate() != null && t.getAmount() != null && isExpenseOrUncategorized(t))
-                .toList();
-        if (transactions.isEmpty()) return 0.0;
-
-        // build category -> column index map (one-hot)
-        // Choose a reference category (most frequent) and exclude it from dummies
-        LinkedHashMap<Integer, Integer> catIndex = new LinkedHashMap<>();
-        Integer referenceCategory = null;
-        // count category frequencies (including global categories where user is null); exclude null categories
-        Map<Integer, Long> freq = transactions.stream()
-                .map(t -> (t.getCategory() != null) ? t.getCategory().getId() : null)
-                .filter(Objects::nonNull)
-                .collect(Collectors.groupingBy(id -> id, Collectors.counting()));
-        if (!freq.isEmpty()) {
-            referenceCategory = Collections.max(freq.entrySet(), Map.Entry.comparingByValue()).getKey();
-        }
+        if (model.expenseTotal().count() == 0) return 0.0;
 
-        // now assign indices to all categories except the reference
-        for (Transaction t : transactions) {
-            if (t.getCategory() != null && t.getCategory().getId() != null) {
-                Integer cid = t.getCategory().getId();
-                if (referenceCategory != null && referenceCategory.equals(cid)) continue; // drop reference
-                catIndex.putIfAbsent(cid, catIndex.size());
-            }
+        // too few rows or singular matrix when fitting -> averages
+        if (model.beta() == null) {
+            countPrediction("category", "average");
+            return model.fallbackAverage(futureCategoryId);
         }
-        int numCategoryFeatures = catIndex.size();
+        countPrediction("category", "regression");
 
-        final int NUM_FEATURES = DAY_DUMMY_COUNT + MONTH_DUMMY_COUNT + numCategoryFeatures;
-
-        // Need more rows than features to estimate without immediate singularities
-        if (transactions.size() <= NUM_FEATURES) {
-            return fallbackAverage(transactions, futureCategoryId);
-        }
+        double[] beta = model.beta();
+        Map<Integer, Integer> catIndex = model.categoryIndex();
+        int numFeatures = DAY_DUMMY_COUNT + MONTH_DUMMY_COUNT + catIndex.size();
 
-        double[][] X = new double[transactions.size()][NUM_FEATURES];
-        double[] Y = new double[transactions.size()];
+        double[] newFeatures = new double[numFeatures];
+        int futureDow = futureDate.getDayOfWeek().getValue();
+        for (int d = 1; d <= DAY_DUMMY_COUNT; d++) newFeatures[d - 1] = (futureDow == d) ? 1.0 : 0.0;
 
-        for (int i = 0; i < transactions.size(); i++) {
-            Transaction t = transactions.get(i);
-
-            int dow = t.getTransactionDate().getDayOfWeek().getValue(); // 1..7
-            for (int d = 1; d <= DAY_DUMMY_COUNT; d++) {
-                X[i][d - 1] = (dow == d) ? 1.0 : 0.0;
-            }
-
-            int month = t.getTransactionDate().getMonthValue(); // 1..12
-            for (int m = 1; m <= MONTH_DUMMY_COUNT; m++) {
-                X[i][DAY_DUMMY_COUNT + (m - 1)] = (month == m) ? 1.0 : 0.0;
-            }
-
-            int base = DAY_DUMMY_COUNT + MONTH_DUMMY_COUNT;
-            if (t.getCategory() != null && t.getCategory().getId() != null) {
-                Integer cid = t.getCategory().getId();
-                // skip reference category (it is represented by all-zero category vector)
-                Integer idx = catIndex.get(cid);
-                if (idx != null) X[i][base + idx] = 1.0;
-            }
-
-            Y[i] = t.getAmount().doubleValue();
+        int futureMonth = futureDate.getMonthValue();
+        for (int m = 1; m <= MONTH_DUMMY_COUNT; m++) {
+            newFeatures[DAY_DUMMY_COUNT + (m - 1)] = (futureMonth == m) ? 1.0 : 0.0;
         }
 
-        OLSMultipleLinearRegression regression = new OLSMultipleLinearRegression();
-        try {
-            regression.newSampleData(Y, X);
-            double[] beta = regression.estimateRegressionParameters(); // beta[0]=intercept, beta[1..] for columns
-
-            double[] newFeatures = new double[NUM_FEATURES];
-            int futureDow = futureDate.getDayOfWeek().getValue();
-            for (int d = 1; d <= DAY_DUMMY_COUNT; d++) newFeatures[d - 1] = (futureDow == d) ? 1.0 : 0.0;
-
-            int futureMonth = futureDate.getMonthValue();
-            for (int m = 1; m <= MONTH_DUMMY_COUNT; m++) {
-                newFeatures[DAY_DUMMY_COUNT + (m - 1)] = (futureMonth == m) ? 1.0 : 0.0;
-            }
-
-            int base = DAY_DUMMY_COUNT + MONTH_DUMMY_COUNT;
-            // If future category is the reference or unseen, leave category features all zero (reference)
-            // Additionally, only set category feature if that category is an expense (or uncategorized doesn't have an id)
-            if (futureCategoryId != null && !Objects.equals(futureCategoryId, referenceCategory) && catIndex.containsKey(futureCategoryId)) {
-                int idx = catIndex.get(futureCategoryId);
-                newFeatures[base + idx] = 1.0;
-            }
-
-            double predicted = (beta.length > 0) ? beta[0] : 0.0;
-            int maxCoeffs = Math.max(0, Math.min(beta.length - 1, newFeatures.length));
-            for (int i = 0; i < maxCoeffs; i++) {
-                predicted += beta[i + 1] * newFeatures[i];
-            }
-
-            return Math.max(predicted, 0.0);
-
-        } catch (SingularMatrixException sme) {
-            System.out.println("Singular matrix while fitting regression, falling back to averages: " + sme.getMessage());
-            return fallbackAverage(transactions, futureCategoryId);
-        } catch (RuntimeException ex) {
-            System.out.println("Error in prediction service: " + ex.getMessage());
-            return fallbackAverage(transactions, futureCategoryId);
+        int base = DAY_DUMMY_COUNT + MONTH_DUMMY_COUNT;
+        // If future category is the reference or unseen, leave category features all zero (reference)
+        // Additionally, only set category feature if that category is an expense (or uncategorized doesn't have an id)
+        if (futureCategoryId != null && !Objects.equals(futureCategoryId, model.referenceCategory()) && catIndex.containsKey(futureCategoryId)) {
+            int idx = catIndex.get(futureCategoryId);
+            newFeatures[base + idx] = 1.0;
         }
-    }
 
-    private double fallbackAverage(List<Transaction> transactions, Integer categoryId) {
-        if (transactions == null || transactions.isEmpty()) return 0.0;
-
-        // consider only expense or uncategorized transactions for fallback
-        List<Transaction> filtered = transactions.stream()
-                .filter(PredictionService::isExpenseOrUncategorized)
-                .toList();
-
-        double sum = 0;
-        int count = 0;
-        if (categoryId != null) {
-            for (Transaction t : filtered) {
-                if (t.getCategory() != null && t.getCategory().getId() != null
-                        && t.getCategory().getId().equals(categoryId)) {
-                    sum += t.getAmount().doubleValue();
-                    count++;
-                }
-            }
-            // if requested category exists but it's income (or no matching expense), return 0
-            if (count == 0) return 0.0;
-        } else {
-            for (Transaction t : filtered) {
-                if (t.getAmount() != null) {
-                    sum += t.getAmount().doubleValue();
-                    count++;
-                }
-            }
+        double predicted = (beta.length > 0) ? beta[0] : 0.0;
+        int maxCoeffs = Math.max(0, Math.min(beta.length - 1, newFeatures.length));
+        for (int i = 0; i < maxCoeffs; i++) {
+            predicted += beta[i + 1] * newFeatures[i];
         }
 
-        if (count == 0) return 0.0;
-        return Math.max(sum / count, 0.0);
+        return Math.max(predicted, 0.0);
     }
 
     /**
@@ -235,243 +115,188 @@ public class PredictionService {
      * Uses one-hot encoding with Sunday (7) as reference. Falls back to averages on error or too few rows.
      */
     public double predictDailySpending(Integer userId, LocalDate futureDate) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        // Preporuka: Ovdje bi idealno trebalo filtrirati npr. zadnjih godinu dana
-        List<Transaction> all = transactionRepository.findByUser(user);
-        if (all == null || all.isEmpty()) return 0.0;
-
-        // 1. Grupiranje po točnom datumu (npr. 2023-10-01 -> 50.0 EUR), only expenses/uncategorized
-        Map<LocalDate, Double> dailySums = all.stream()
-                .filter(t -> t.getTransactionDate() != null && t.getAmount() != null && isExpenseOrUncategorized(t))
-                .collect(Collectors.groupingBy(
-                        Transaction::getTransactionDate,
-                        Collectors.summingDouble(t -> t.getAmount().doubleValue())
-                ));
-
-        List<LocalDate> dates = new ArrayList<>(dailySums.keySet());
-
-        // Ako imamo premalo dana s podacima, vraćamo običan prosjek
-        if (dates.size() <= DAY_DUMMY_COUNT + 1) {
-            return dailySums.values().stream().mapToDouble(d->d).average().orElse(0.0);
-        }
-
-        double[][] X = new double[dates.size()][DAY_DUMMY_COUNT];
-        double[] Y = new double[dates.size()];
-
-        for (int i = 0; i < dates.size(); i++) {
-            LocalDate date = dates.get(i);
-            int dow = date.getDayOfWeek().getValue(); // 1 (Mon) .. 7 (Sun)
+        DailyModel model = modelCache.get(userId, PredictionModelCache.ModelKind.DAILY,
+                () -> fitDailyModel(userId));
 
-            // One-hot encoding (bez nedjelje kao reference)
-            for (int d = 1; d <= DAY_DUMMY_COUNT; d++) {
-                X[i][d - 1] = (dow == d) ? 1.0 : 0.0;
-            }
-            Y[i] = dailySums.get(date);
+        if (model.beta() == null) {
+            countPrediction("daily", "average");
+            return model.averageDaily();
         }
+        countPrediction("daily", "regression");
 
-        OLSMultipleLinearRegression regression = new OLSMultipleLinearRegression();
-        try {
-            regression.newSampleData(Y, X);
-            double[] beta = regression.estimateRegressionParameters();
+        double[] beta = model.beta();
+        double predicted = beta[0]; // intercept
+        int futureDow = futureDate.getDayOfWeek().getValue();
 
-            double predicted = beta[0]; // intercept
-            int futureDow = futureDate.getDayOfWeek().getValue();
+        // Dodaj koeficijent za odgovarajući dan
+        if (futureDow <= DAY_DUMMY_COUNT && futureDow < beta.length) {
+            predicted += beta[futureDow];
+        }
 
-            // Dodaj koeficijent za odgovarajući dan
-            if (futureDow <= DAY_DUMMY_COUNT && futureDow < beta.length) {
-                predicted += beta[futureDow];
-            }
+        return Math.max(predicted, 0.0);
+    }
 
-            return Math.max(predicted, 0.0);
-        } catch (Exception ex) {
-            // Fallback na prosjek
-            return dailySums.values().stream().mapToDouble(d->d).average().orElse(0.0);
-        }
+    // mjeri samo stvarno prilagodjavanje modela; pogodak u cache ne prolazi ovuda
+    private CategoryModel fitCategoryModel(Integer userId) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        CategoryModel model = spendingStatisticsService.get(userId).categoryModel();
+        recordFit(sample, "category", model.beta() != null, userId);
+        return model;
     }
 
-    private double predictDailyFromTransactions(List<Transaction> transactions, LocalDate futureDate) {
-        if (transactions == null || transactions.isEmpty()) return 0.0;
-
-        // consider only expense or uncategorized transactions
-        int targetDow = futureDate.getDayOfWeek().getValue();
-        double sum = 0.0;
-        int count = 0;
-        for (Transaction t : transactions) {
-            if (!isExpenseOrUncategorized(t)) continue;
-            if (t.getTransactionDate() != null &&
-                    t.getTransactionDate().getDayOfWeek().getValue() == targetDow) {
-                sum += t.getAmount().doubleValue();
-                count++;
-            }
-        }
+    private DailyModel fitDailyModel(Integer userId) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        DailyModel model = spendingStatisticsService.get(userId).dailyModel();
+        recordFit(sample, "daily", model.beta() != null, userId);
+        return model;
+    }
 
-        if (count > 0) {
-            return Math.max(sum / count, 0.0);
+    private void recordFit(Timer.Sample sample, String kind, boolean solved, Integer userId) {
+        sample.stop(meterRegistry.timer("fintrack.prediction.fit",
+                "kind", kind, "outcome", solved ? "solved" : "fallback"));
+        if (!solved) {
+            log.debug("No {} regression for user {}, predicting from averages", kind, userId);
         }
+    }
 
-        double total = 0.0;
-        int totalCount = 0;
-        for (Transaction t : transactions) {
-            if (!isExpenseOrUncategorized(t)) continue;
-            if (t.getAmount() != null) {
-                total += t.getAmount().doubleValue();
-                totalCount++;
-            }
-        }
-        if (totalCount == 0) return 0.0;
-        return Math.max(total / totalCount, 0.0);
+    private void countPrediction(String kind, String path) {
+        meterRegistry.counter("fintrack.prediction.requests", "kind", kind, "path", path).increment();
     }
 
+    /**
+     * Average monthly spending over the last {@code months} calendar months, current month included.
+     * Read from the monthly rollup, so the window is month-aligned rather than day-aligned.
+     */
     public double rollingMonthlyAverage(Integer userId, int months) {
 
         if (months <= 0) return 0.0;
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        LocalDate fromDate = LocalDate.now().minusMonths(months);
-
-        List<Transaction> transactions =
-                transactionRepository.findByUserAndTransactionDateAfter(user, fromDate);
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found");
+        }
 
-        if (transactions.isEmpty()) return 0.0;
+        LocalDate currentMonth = LocalDate.now().withDayOfMonth(1);
+        LocalDate fromMonth = currentMonth.minusMonths(months - 1);
 
-        double sum = 0.0;
-        for (Transaction t : transactions) {
-            if (!isExpenseOrUncategorized(t)) continue;
-            if (t.getAmount() != null) sum += t.getAmount().doubleValue();
+        long cents = 0;
+        for (MonthlyTotalRow row : monthlyCategoryRollupRepository.monthlyExpenseTotals(userId, fromMonth, currentMonth)) {
+            cents += Money.cents(row.total());
         }
 
         // monthly average over the requested window
-        return Math.max(sum / months, 0.0);
+        return Math.max(Money.toDouble(cents) / months, 0.0);
+    }
+
+
+    // isto, nad vec ucitanim stupcima (dashboard summary)
+    public double rollingMonthlyAverage(TransactionColumns columns, int months) {
+        if (months <= 0) return 0.0;
+
+        long[] cents = new long[months];
+        columns.monthlyExpenseTotals(YearMonth.now().minusMonths(months - 1), cents);
+
+        long sum = 0;
+        for (long c : cents) sum += c;
+        return Math.max(Money.toDouble(sum) / months, 0.0);
     }
 
 
     public Map<String, Double> rollingMonthlySeries(Integer userId, int window) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        List<Transaction> transactions = transactionRepository.findByUser(user);
-        if (transactions.isEmpty()) return new HashMap<>();
-
-        // 1. Agregacija po mjesecima
-        Map<YearMonth, Double> actualData = new TreeMap<>();
-        YearMonth minDate = YearMonth.now();
-        YearMonth maxDate = YearMonth.now();
-
-        for (Transaction t : transactions) {
-            if (t.getTransactionDate() != null && t.getAmount() != null && isExpenseOrUncategorized(t)) {
-                YearMonth ym = YearMonth.from(t.getTransactionDate());
-                actualData.merge(ym, t.getAmount().doubleValue(), Double::sum);
-                if (ym.isBefore(minDate)) minDate = ym;
-            }
-        }
+        TransactionColumns columns = transactionColumnStore.get(userId);
 
-        // 2. Popunjavanje rupa s 0.0
-        List<Double> continuousValues = new ArrayList<>();
-        List<String> labels = new ArrayList<>();
+        // 1. Mjesecni zbrojevi rashoda iz stupaca, od prvog mjeseca s rashodom do tekuceg (rupe su 0)
+        YearMonth first = columns.firstExpenseMonth();
+        if (first == null) return new HashMap<>();
 
-        YearMonth current = minDate;
-        while (!current.isAfter(maxDate)) {
-            continuousValues.add(actualData.getOrDefault(current, 0.0));
-            labels.add(current.toString());
-            current = current.plusMonths(1);
-        }
+        YearMonth current = YearMonth.now();
+        if (first.isAfter(current)) first = current;
+        int months = (int) first.until(current, ChronoUnit.MONTHS) + 1;
+        long[] cents = new long[months];
+        columns.monthlyExpenseTotals(first, cents);
 
-        // 3. Računanje prosjeka
+        // 2. Pomicni prosjek, zbroj prozora se azurira umjesto da se zbraja ispocetka
         Map<String, Double> rolling = new LinkedHashMap<>();
-        for (int i = 0; i < continuousValues.size(); i++) {
-            int start = Math.max(0, i - window + 1);
-            double sum = 0;
-            int count = 0;
-            for (int j = start; j <= i; j++) {
-                sum += continuousValues.get(j);
-                count++;
+        long windowSum = 0;
+        for (int i = 0; i < months; i++) {
+            if (window > 0) {
+                windowSum += cents[i];
+                if (i >= window) windowSum -= cents[i - window];
             }
-            rolling.put(labels.get(i), (count > 0) ? sum / count : 0.0);
+            int count = Math.min(i + 1, Math.max(window, 0));
+            rolling.put(first.plusMonths(i).toString(), count > 0 ? Money.toDouble(windowSum) / count : 0.0);
         }
 
         return rolling;
     }
 
     public PredictionAnalysisDTO analyzeDailySpending(Integer userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        List<Transaction> transactions = transactionRepository.findByUser(user);
-        if (transactions.isEmpty()) return null;
-
-        // 1. Agregacija po danima (kao što smo prije dogovorili)
-        Map<LocalDate, Double> dailySums = transactions.stream()
-                .filter(t -> t.getTransactionDate() != null && t.getAmount() != null && isExpenseOrUncategorized(t))
-                .collect(Collectors.groupingBy(
-                        Transaction::getTransactionDate,
-                        Collectors.summingDouble(t -> t.getAmount().doubleValue())
-                ));
-
-        List<LocalDate> dates = new ArrayList<>(dailySums.keySet());
-        Collections.sort(dates); // Bitno da su kronološki poredani za graf
+        TransactionColumns columns = transactionColumnStore.get(userId);
+        if (columns.isEmpty()) return null;
+
+        // 1. Dnevni zbrojevi rashoda iz stupaca, kronološki od prvog dana s rashodom
+        TransactionColumns.DailyExpenses daily = columns.dailyExpenses();
+        long[] cents = daily.cents();
+        int[] counts = daily.counts();
+
+        int dayCount = 0;
+        long totalCents = 0;
+        long[] dowDays = new long[8];
+        long[] dowCents = new long[8];
+        for (int i = 0; i < cents.length; i++) {
+            if (counts[i] == 0) continue;
+            int dow = dayOfWeek(daily.firstDay() + i);
+            dayCount++;
+            totalCents += cents[i];
+            dowDays[dow]++;
+            dowCents[dow] += cents[i];
+        }
 
-        if (dates.size() <= DAY_DUMMY_COUNT + 1) {
+        if (dayCount <= DAY_DUMMY_COUNT + 1) {
             // Premalo podataka za analizu
             return new PredictionAnalysisDTO(0, 0, 0, new HashMap<>(), new ArrayList<>());
         }
 
-        // 2. Priprema podataka za regresiju
-        double[][] X = new double[dates.size()][DAY_DUMMY_COUNT];
-        double[] Y = new double[dates.size()];
-
-        for (int i = 0; i < dates.size(); i++) {
-            LocalDate date = dates.get(i);
-            int dow = date.getDayOfWeek().getValue();
-            for (int d = 1; d <= DAY_DUMMY_COUNT; d++) {
-                X[i][d - 1] = (dow == d) ? 1.0 : 0.0;
-            }
-            Y[i] = dailySums.get(date);
+        // 2. Model je rijesen iz normalnih jednadzbi (brojevi i zbrojevi po danu u tjednu)
+        double[] beta = SpendingStatistics.dailyModel(dayCount, dowDays, dowCents).beta();
+        if (beta == null) {
+            return null; // singularan sustav
         }
 
-        // 3. Izračun modela
-        OLSMultipleLinearRegression regression = new OLSMultipleLinearRegression();
-        regression.newSampleData(Y, X);
-
-        double[] beta;
-        double rSquared = 0.0;
-
-        try {
-            beta = regression.estimateRegressionParameters();
-            rSquared = regression.calculateRSquared();
-        } catch (Exception e) {
-            return null; // Ili handleati grešku
-        }
+        double mean = Money.toDouble(totalCents) / dayCount;
 
-        // 4. Rekonstrukcija i izračun greške (Backtesting)
+        // 3. Rekonstrukcija i izračun greške (Backtesting)
         List<DailyAnalysisPoint> series = new ArrayList<>();
         double totalAbsoluteError = 0.0;
+        double residualSquares = 0.0;
+        double totalSquares = 0.0;
 
-        for (int i = 0; i < dates.size(); i++) {
-            LocalDate date = dates.get(i);
-            double actual = Y[i];
+        for (int i = 0; i < cents.length; i++) {
+            if (counts[i] == 0) continue;
+            double actual = Money.toDouble(cents[i]);
 
             // Ručni izračun predviđanja pomoću dobivenih beta koeficijenata
-            double predicted = beta[0]; // Intercept (baza)
-            int dow = date.getDayOfWeek().getValue();
+            double fitted = beta[0]; // Intercept (baza)
+            int dow = dayOfWeek(daily.firstDay() + i);
             if (dow <= DAY_DUMMY_COUNT) {
-                predicted += beta[dow];
+                fitted += beta[dow];
             }
+            residualSquares += (actual - fitted) * (actual - fitted);
+            totalSquares += (actual - mean) * (actual - mean);
+
             // Neka predviđanje ne bude negativno
-            predicted = Math.max(0.0, predicted);
+            double predicted = Math.max(0.0, fitted);
 
             double error = Math.abs(actual - predicted);
             totalAbsoluteError += error;
 
-            series.add(new DailyAnalysisPoint(date, actual, predicted, actual - predicted));
+            series.add(new DailyAnalysisPoint(
+                    LocalDate.ofEpochDay(daily.firstDay() + i), actual, predicted, actual - predicted));
         }
 
-        double mae = totalAbsoluteError / dates.size();
+        double mae = totalAbsoluteError / dayCount;
+        double rSquared = totalSquares > 0 ? 1.0 - residualSquares / totalSquares : 0.0;
 
-        // 5. Mapiranje faktora za Frontend (Što utječe na potrošnju?)
+        // 4. Mapiranje faktora za Frontend (Što utječe na potrošnju?)
         Map<String, Double> dailyFactors = new LinkedHashMap<>();
         // Beta[0] je konstanta, Beta[1] je Ponedjeljak (ako je nedjelja referenca), itd.
         // Pazi: Tvoja logika koristi 1..6 kao dummy, 7 kao referencu.
@@ -496,6 +321,11 @@ public class PredictionService {
         );
     }
 
+    // ISO dan u tjednu (1 = ponedjeljak) za epoch dan; 1970-01-01 je cetvrtak
+    private static int dayOfWeek(long epochDay) {
+        return (int) Math.floorMod(epochDay + 3, 7L) + 1;
+    }
+
     // DTO koji vraćaš kontroleru
     public record PredictionAnalysisDTO( double rSquared,       // Npr. 0.75 (75% točnosti)
             double meanAbsoluteError, // Npr. 5.50 (greška u eurima)
@@ -508,4 +338,41 @@ public class PredictionService {
             double predictedAmount,
             double error){} // Razlika
 
+    // zbroj u centima, u double tek za prosjek
+    public record SumCount(long cents, int count) {
+
+        SumCount plus(SumCount other) {
+            return new SumCount(Math.addExact(cents, other.cents), count + other.count);
+        }
+
+        double average() {
+            return count > 0 ? Math.max(Money.toDouble(cents) / count, 0.0) : 0.0;
+        }
+    }
+
+    /**
+     * Everything {@link #predict} needs from a user's history: the fitted coefficients (null when
+     * the fit was skipped or failed) plus the expense sums used by the fallback averages.
+     */
+    public record CategoryModel(
+            boolean hasTransactions,
+            double[] beta,
+            Map<Integer, Integer> categoryIndex,
+            Integer referenceCategory,
+            Map<Integer, SumCount> expenseByCategory,
+            SumCount expenseTotal
+    ) {
+        static final CategoryModel EMPTY =
+                new CategoryModel(false, null, Map.of(), null, Map.of(), new SumCount(0, 0));
+
+        // if requested category exists but it's income (or no matching expense), return 0
+        double fallbackAverage(Integer categoryId) {
+            if (categoryId == null) return expenseTotal.average();
+            SumCount stats = expenseByCategory.get(categoryId);
+            return stats != null ? stats.average() : 0.0;
+        }
+    }
+
+    // beta == null -> premalo dana ili neuspjela regresija, vraca se prosjek
+    public record DailyModel(double[] beta, double averageDaily) {}
 }
@@ -4,6 +4,7 @@ import com.havana.backend.data.CreateSavingGoalRequest;
 import com.havana.backend.data.MonthlyBalanceRecord;
 import com.havana.backend.data.SavingGoalResponse;
 import com.havana.backend.model.Category;
+import com.havana.backend.model.Money;
 import com.havana.backend.model.SavingGoal;
 import com.havana.backend.model.Transaction;
 import com.havana.backend.model.User;
@@ -12,7 +13,9 @@ import com.havana.backend.repository.SavingGoalRepository;
 import com.havana.backend.repository.TransactionRepository;
 import com.havana.backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -28,7 +31,10 @@ public class SavingGoalService {
     private final UserRepository userRepository;
     private final TransactionService transactionService;
     private final CategoryRepository categoryRepository;
+    private final CategoryCache categoryCache;
     private final TransactionRepository transactionRepository;
+    private final MonthlyRollupService monthlyRollupService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<SavingGoalResponse> getSavingGoals(Integer userId) {
         return savingGoalRepository.findByUserId(userId)
@@ -59,11 +65,15 @@ public class SavingGoalService {
         return toResponse(goal);
     }
 
+    // uplata na cilj i transakcija stednje moraju proci zajedno
+    @Transactional
     public SavingGoalResponse addSavingAmount(
             Integer goalId,
             Integer userId,
-            BigDecimal amount
+            BigDecimal requested
     ) {
+        // na cente kao u bazi, prije provjera i zbrajanja
+        BigDecimal amount = Money.round(requested);
         if (amount.compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalArgumentException("Iznos mora biti veći od 0");
         }
@@ -115,6 +125,8 @@ public class SavingGoalService {
         transaction.setUser(user);
         transaction.setCategory(savingCategory);
         transactionRepository.save(transaction);
+        monthlyRollupService.recordInsert(transaction);
+        eventPublisher.publishEvent(TransactionsChangedEvent.inserted(transaction));
 
     }
 
@@ -123,15 +135,18 @@ public class SavingGoalService {
         String categoryName = "Štednja";
 
         // Provjeri da li kategorija već postoji za ovog korisnika
-        Optional<Category> existingCategory = categoryRepository
-                .findByUserAndName(user,  categoryName);
+        Optional<CategoryCache.CachedCategory> existingCategory = categoryCache
+                .own(user.getId(), categoryName);
 
         if (existingCategory.isPresent()) {
             // Ako postoji, provjeri je li tip EXPENSE, ako ne, ažuriraj
-            Category category = existingCategory.get();
-            if (!"EXPENSE".equals(category.getType())) {
+            Category category = existingCategory.get().toReference(user);
+            if (category.getType() != EXPENSE) {
                 category.setType(EXPENSE);
-                categoryRepository.save(category);
+                category = categoryRepository.save(category);
+                // stare transakcije te kategorije sad su rashodi, statistike se racunaju ispocetka
+                eventPublisher.publishEvent(TransactionsChangedEvent.reset(user.getId()));
+                eventPublisher.publishEvent(new CategoriesChangedEvent(user.getId()));
             }
             return category;
         }
@@ -142,7 +157,9 @@ public class SavingGoalService {
         newCategory.setType(EXPENSE); // Štednja je trošak
         newCategory.setUser(user);
 
-        return categoryRepository.save(newCategory);
+        Category saved = categoryRepository.save(newCategory);
+        eventPublisher.publishEvent(new CategoriesChangedEvent(user.getId()));
+        return saved;
     }
 
     public void deleteSavingGoal(Integer goalId, Integer userId) {
@@ -0,0 +1,248 @@
+package com.havana.backend.service;
+
+import com.havana.backend.model.Money;
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.LUDecomposition;
+import org.apache.commons.math3.linear.SingularMatrixException;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static com.havana.backend.service.PredictionService.DAY_DUMMY_COUNT;
+import static com.havana.backend.service.PredictionService.MONTH_DUMMY_COUNT;
+
+/**
+ * Sufficient statistics of one user's expense history for the regressions in {@link PredictionService}.
+ * Every feature there is one-hot (day of week, month, category), so X'X and X'y are nothing more
+ * than counts and sums per (day of week, month, category) cell, and per day for the daily model.
+ * Updating is O(1) per transaction; fitting assembles the normal equations from the cells and
+ * solves a system the size of the feature count, independent of the number of transactions.
+ * Sums are kept in cents, so applying a delete restores them exactly; they become doubles only
+ * when the normal equations are assembled.
+ */
+public class SpendingStatistics {
+
+    private static final int DAYS = 7;
+    private static final int MONTHS = 12;
+    private static final int UNCATEGORIZED = 0;
+
+    // sve transakcije, i prihodi; prazna povijest daje 0 bez fallbacka
+    private long transactionCount;
+
+    // kategorija -> [ (dan - 1) * 12 + (mjesec - 1) ] broj i zbroj rashoda u centima
+    private final Map<Integer, long[]> cellCounts = new HashMap<>();
+    private final Map<Integer, long[]> cellCents = new HashMap<>();
+
+    // dnevni zbrojevi rashoda i njihovi agregati po danu u tjednu (indeks 1..7)
+    private final TreeMap<LocalDate, DaySum> days = new TreeMap<>();
+    private final long[] dowDays = new long[DAYS + 1];
+    private final long[] dowCents = new long[DAYS + 1];
+
+    private static final class DaySum {
+        private long cents;
+        private long count;
+    }
+
+    public record DailySeries(NavigableMap<LocalDate, Double> sums, PredictionService.DailyModel model) {}
+
+    public synchronized void apply(TransactionsChangedEvent.Delta delta) {
+        apply(delta.date(), delta.categoryId(), delta.expense(), delta.count(), delta.amount().cents());
+    }
+
+    public synchronized void apply(LocalDate date, Integer categoryId, boolean expense, long count, long amountCents) {
+        transactionCount += count;
+        if (!expense) return;
+
+        int category = categoryId != null ? categoryId : UNCATEGORIZED;
+        int cell = (date.getDayOfWeek().getValue() - 1) * MONTHS + (date.getMonthValue() - 1);
+
+        long[] counts = cellCounts.computeIfAbsent(category, k -> new long[DAYS * MONTHS]);
+        long[] cents = cellCents.computeIfAbsent(category, k -> new long[DAYS * MONTHS]);
+        counts[cell] += count;
+        cents[cell] += amountCents;
+        if (counts[cell] <= 0) {
+            counts[cell] = 0;
+            cents[cell] = 0;
+            if (isEmpty(counts)) {
+                cellCounts.remove(category);
+                cellCents.remove(category);
+            }
+        }
+
+        int dow = date.getDayOfWeek().getValue();
+        DaySum day = days.get(date);
+        if (day == null) {
+            day = new DaySum();
+            days.put(date, day);
+            dowDays[dow]++;
+        }
+        day.cents += amountCents;
+        day.count += count;
+        dowCents[dow] += amountCents;
+
+        if (day.count <= 0) {
+            days.remove(date);
+            dowDays[dow]--;
+            dowCents[dow] -= day.cents;
+        }
+    }
+
+    public synchronized boolean isEmpty() {
+        return transactionCount <= 0;
+    }
+
+    public synchronized PredictionService.CategoryModel categoryModel() {
+        if (transactionCount <= 0) return PredictionService.CategoryModel.EMPTY;
+
+        Map<Integer, PredictionService.SumCount> expenseByCategory = new HashMap<>();
+        long n = 0;
+        long total = 0;
+        Integer referenceCategory = null;
+        long referenceCount = -1;
+
+        for (Map.Entry<Integer, long[]> e : cellCounts.entrySet()) {
+            long count = 0;
+            long sum = 0;
+            long[] counts = e.getValue();
+            long[] cents = cellCents.get(e.getKey());
+            for (int i = 0; i < counts.length; i++) {
+                count += counts[i];
+                sum += cents[i];
+            }
+            n += count;
+            total += sum;
+
+            if (e.getKey() != UNCATEGORIZED) {
+                expenseByCategory.put(e.getKey(), new PredictionService.SumCount(sum, (int) count));
+                // reference category is the most frequent one, it gets no dummy column
+                if (count > referenceCount) {
+                    referenceCount = count;
+                    referenceCategory = e.getKey();
+                }
+            }
+        }
+        PredictionService.SumCount expenseTotal = new PredictionService.SumCount(total, (int) n);
+
+        if (n == 0) {
+            return new PredictionService.CategoryModel(true, null, Map.of(), null, expenseByCategory, expenseTotal);
+        }
+
+        Map<Integer, Integer> catIndex = new LinkedHashMap<>();
+        for (Integer category : new TreeSet<>(expenseByCategory.keySet())) {
+            if (!category.equals(referenceCategory)) catIndex.put(category, catIndex.size());
+        }
+
+        int numFeatures = DAY_DUMMY_COUNT + MONTH_DUMMY_COUNT + catIndex.size();
+
+        // Need more rows than features to estimate without immediate singularities
+        if (n <= numFeatures) {
+            return new PredictionService.CategoryModel(true, null, catIndex, referenceCategory, expenseByCategory, expenseTotal);
+        }
+
+        // column 0 is the intercept, then the same layout predict() uses for its feature vector
+        int p = numFeatures + 1;
+        double[][] xtx = new double[p][p];
+        long[] xtyCents = new long[p];
+        int[] active = new int[4];
+
+        for (Map.Entry<Integer, long[]> e : cellCounts.entrySet()) {
+            long[] counts = e.getValue();
+            long[] cents = cellCents.get(e.getKey());
+            Integer idx = catIndex.get(e.getKey());
+
+            for (int dow = 1; dow <= DAYS; dow++) {
+                for (int month = 1; month <= MONTHS; month++) {
+                    int cell = (dow - 1) * MONTHS + (month - 1);
+                    if (counts[cell] == 0) continue;
+
+                    int k = 0;
+                    active[k++] = 0;
+                    if (dow <= DAY_DUMMY_COUNT) active[k++] = dow;
+                    if (month <= MONTH_DUMMY_COUNT) active[k++] = DAY_DUMMY_COUNT + month;
+                    if (idx != null) active[k++] = 1 + DAY_DUMMY_COUNT + MONTH_DUMMY_COUNT + idx;
+
+                    for (int i = 0; i < k; i++) {
+                        xtyCents[active[i]] += cents[cell];
+                        for (int j = 0; j < k; j++) {
+                            xtx[active[i]][active[j]] += counts[cell];
+                        }
+                    }
+                }
+            }
+        }
+
+        double[] xty = new double[p];
+        for (int i = 0; i < p; i++) xty[i] = Money.toDouble(xtyCents[i]);
+
+        return new PredictionService.CategoryModel(
+                true, solve(xtx, xty), catIndex, referenceCategory, expenseByCategory, expenseTotal);
+    }
+
+    public synchronized PredictionService.DailyModel dailyModel() {
+        return dailyModel(days.size(), dowDays, dowCents);
+    }
+
+    /**
+     * The day-of-week regression from its sufficient statistics: the number of days with spending
+     * and, per day of week (index 1..7), how many such days there are and what they sum to in cents.
+     */
+    static PredictionService.DailyModel dailyModel(int dayCount, long[] dowDays, long[] dowCents) {
+        if (dayCount == 0) return new PredictionService.DailyModel(null, 0.0);
+
+        long totalCents = 0;
+        for (int dow = 1; dow <= DAYS; dow++) totalCents += dowCents[dow];
+        double total = Money.toDouble(totalCents);
+        double average = total / dayCount;
+
+        // Ako imamo premalo dana s podacima, vraćamo običan prosjek
+        if (dayCount <= DAY_DUMMY_COUNT + 1) {
+            return new PredictionService.DailyModel(null, average);
+        }
+
+        // intercept + dani 1..6, nedjelja je referenca
+        int p = DAY_DUMMY_COUNT + 1;
+        double[][] xtx = new double[p][p];
+        double[] xty = new double[p];
+        xtx[0][0] = dayCount;
+        xty[0] = total;
+        for (int dow = 1; dow <= DAY_DUMMY_COUNT; dow++) {
+            xtx[0][dow] = dowDays[dow];
+            xtx[dow][0] = dowDays[dow];
+            xtx[dow][dow] = dowDays[dow];
+            xty[dow] = Money.toDouble(dowCents[dow]);
+        }
+
+        return new PredictionService.DailyModel(solve(xtx, xty), average);
+    }
+
+    public synchronized DailySeries dailySeries() {
+        NavigableMap<LocalDate, Double> sums = new TreeMap<>();
+        days.forEach((date, day) -> sums.put(date, Money.toDouble(day.cents)));
+        return new DailySeries(sums, dailyModel());
+    }
+
+    // null kad je sustav singularan, pozivatelj tada koristi prosjeke
+    private static double[] solve(double[][] xtx, double[] xty) {
+        try {
+            return new LUDecomposition(new Array2DRowRealMatrix(xtx, false))
+                    .getSolver()
+                    .solve(new ArrayRealVector(xty, false))
+                    .toArray();
+        } catch (SingularMatrixException e) {
+            return null;
+        }
+    }
+
+    private static boolean isEmpty(long[] counts) {
+        for (long c : counts) {
+            if (c != 0) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,88 @@
+package com.havana.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.havana.backend.data.DailyCategoryTotalRow;
+import com.havana.backend.model.Money;
+import com.havana.backend.repository.TransactionHistoryRepository;
+import com.havana.backend.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Keeps a {@link SpendingStatistics} per active user. It is loaded once from a grouped query and
+ * from then on follows committed writes through {@link TransactionsChangedEvent} deltas
+ * (see {@link UserSnapshots}).
+ */
+@Service
+public class SpendingStatisticsService {
+
+    private final TransactionHistoryRepository transactionHistoryRepository;
+    private final UserRepository userRepository;
+    private final PredictionModelCache predictionModelCache;
+    private final UserSnapshots<SpendingStatistics> snapshots;
+    private final Timer loadTimer;
+
+    public SpendingStatisticsService(
+            TransactionHistoryRepository transactionHistoryRepository,
+            UserRepository userRepository,
+            PredictionModelCache predictionModelCache,
+            @Value("${fintrack.prediction.stats.max-users:5000}") long maxUsers,
+            @Value("${fintrack.prediction.stats.expire-after-access:2h}") Duration expireAfterAccess,
+            MeterRegistry meterRegistry
+    ) {
+        this.transactionHistoryRepository = transactionHistoryRepository;
+        this.userRepository = userRepository;
+        this.predictionModelCache = predictionModelCache;
+        Cache<Integer, SpendingStatistics> statistics = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, statistics, "spending-statistics");
+        this.loadTimer = meterRegistry.timer("fintrack.prediction.stats.load");
+        this.snapshots = new UserSnapshots<>(
+                statistics,
+                userId -> loadTimer.record(() -> load(userId)),
+                (stats, delta) -> {
+                    stats.apply(delta);
+                    return true;
+                },
+                // tek nakon sto su statistike azurirane, inace bi se model mogao ponovno fitati na starim
+                predictionModelCache::invalidate
+        );
+    }
+
+    public SpendingStatistics get(Integer userId) {
+        return snapshots.get(userId);
+    }
+
+    @EventListener
+    public void onTransactionsChanged(TransactionsChangedEvent event) {
+        snapshots.onTransactionsChanged(event);
+    }
+
+    private SpendingStatistics load(Integer userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found");
+        }
+
+        SpendingStatistics stats = new SpendingStatistics();
+        for (DailyCategoryTotalRow row : transactionHistoryRepository.sumByDateAndCategory(userId)) {
+            stats.apply(
+                    row.date(),
+                    row.categoryId(),
+                    TransactionsChangedEvent.isExpense(row.type()),
+                    row.count(),
+                    Money.cents(row.total())
+            );
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,74 @@
+package com.havana.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.havana.backend.repository.TransactionHistoryRepository;
+import com.havana.backend.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * {@link TransactionColumns} of active users for the analysis, dashboard and prediction series.
+ * A user's columns are loaded with one projection query over the whole history, follow committed
+ * writes through {@link TransactionsChangedEvent} deltas (see {@link UserSnapshots}) and are evicted
+ * by size once all cached columns together exceed the memory budget.
+ */
+@Service
+public class TransactionColumnStore {
+
+    private final TransactionHistoryRepository transactionHistoryRepository;
+    private final UserRepository userRepository;
+    private final UserSnapshots<TransactionColumns> snapshots;
+    private final Timer loadTimer;
+
+    public TransactionColumnStore(
+            TransactionHistoryRepository transactionHistoryRepository,
+            UserRepository userRepository,
+            @Value("${fintrack.analytics.columns.memory-budget:256MB}") DataSize memoryBudget,
+            @Value("${fintrack.analytics.columns.expire-after-access:2h}") Duration expireAfterAccess,
+            MeterRegistry meterRegistry
+    ) {
+        this.transactionHistoryRepository = transactionHistoryRepository;
+        this.userRepository = userRepository;
+        Cache<Integer, TransactionColumns> columns = Caffeine.newBuilder()
+                .maximumWeight(memoryBudget.toBytes())
+                .weigher((Integer userId, TransactionColumns c) -> (int) Math.min(Integer.MAX_VALUE, c.estimatedBytes()))
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, columns, "transaction-columns");
+        this.loadTimer = meterRegistry.timer("fintrack.analytics.columns.load");
+        this.snapshots = new UserSnapshots<>(
+                columns,
+                userId -> loadTimer.record(() -> load(userId)),
+                TransactionColumns::apply,
+                userId -> {}
+        );
+    }
+
+    public TransactionColumns get(Integer userId) {
+        return snapshots.get(userId);
+    }
+
+    @EventListener
+    public void onTransactionsChanged(TransactionsChangedEvent event) {
+        snapshots.onTransactionsChanged(event);
+    }
+
+    private TransactionColumns load(Integer userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found");
+        }
+
+        TransactionColumns columns = new TransactionColumns();
+        transactionHistoryRepository.forEachColumnRow(userId, columns::append);
+        return columns;
+    }
+}
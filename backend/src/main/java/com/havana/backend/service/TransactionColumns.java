@@ -0,0 +1,278 @@
+package com.havana.backend.service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+
+/**
+ * One user's whole transaction history as parallel primitive columns sorted by date: epoch day,
+ * amount in cents, category id (0 without a category) and an expense bitset (uncategorized counts
+ * as expense, as everywhere in analysis). Series are computed by scanning the columns into arrays
+ * the caller sizes, with no allocation per transaction.
+ */
+public class TransactionColumns {
+
+    public static final int UNCATEGORIZED = 0;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int size;
+    private int[] days;
+    private long[] cents;
+    private int[] categories;
+    private long[] expense;
+
+    /**
+     * Expense totals per day from {@code firstDay} on; {@code counts[i] == 0} means no expense that day.
+     */
+    public record DailyExpenses(int firstDay, long[] cents, int[] counts) {}
+
+    /**
+     * Income and expense cents of categorized transactions; uncategorized rows are in neither.
+     */
+    public record Balance(long incomeCents, long expenseCents) {}
+
+    public TransactionColumns() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public TransactionColumns(int capacity) {
+        int c = Math.max(capacity, INITIAL_CAPACITY);
+        days = new int[c];
+        cents = new long[c];
+        categories = new int[c];
+        expense = new long[(c + 63) >>> 6];
+    }
+
+    /**
+     * Adds a row at the end, for loading; rows have to arrive sorted by date.
+     */
+    public synchronized void append(int epochDay, long amountCents, int categoryId, boolean isExpense) {
+        if (size > 0 && epochDay < days[size - 1]) {
+            throw new IllegalArgumentException("Rows must be appended in date order");
+        }
+        ensureCapacity(size + 1);
+        set(size, epochDay, amountCents, categoryId, isExpense);
+        size++;
+    }
+
+    /**
+     * Follows one inserted or deleted transaction. Returns false when the delta does not describe a
+     * single row (or the deleted row is not here); the caller then has to reload.
+     */
+    public synchronized boolean apply(TransactionsChangedEvent.Delta delta) {
+        int day = (int) delta.date().toEpochDay();
+        int category = delta.categoryId() != null ? delta.categoryId() : UNCATEGORIZED;
+        long amountCents = delta.amount().abs().cents();
+
+        if (delta.count() == 1) {
+            int at = upperBound(day);
+            ensureCapacity(size + 1);
+            shift(at, 1);
+            set(at, day, amountCents, category, delta.expense());
+            size++;
+            return true;
+        }
+
+        if (delta.count() == -1) {
+            for (int i = lowerBound(day); i < size && days[i] == day; i++) {
+                if (cents[i] == amountCents && categories[i] == category && isExpense(i) == delta.expense()) {
+                    shift(i + 1, -1);
+                    size--;
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    // za weigher cachea: stupci po kapacitetu, ne po broju redaka
+    public synchronized long estimatedBytes() {
+        return 64L + 16L * 4 + (long) days.length * (4 + 8 + 4) + (long) expense.length * 8;
+    }
+
+    /**
+     * Expense cents per day in {@code [from, from + out.length)}, optionally only for one category.
+     */
+    public synchronized void dailyExpenseTotals(LocalDate from, Integer categoryId, long[] out) {
+        Arrays.fill(out, 0L);
+        int first = (int) from.toEpochDay();
+        int last = first + out.length - 1;
+        int category = categoryId != null ? categoryId : -1;
+
+        for (int i = lowerBound(first); i < size && days[i] <= last; i++) {
+            if (!isExpense(i)) continue;
+            if (category >= 0 && categories[i] != category) continue;
+            out[days[i] - first] += cents[i];
+        }
+    }
+
+    /**
+     * Expense cents per calendar month in {@code [from, from + out.length months)}.
+     */
+    public synchronized void monthlyExpenseTotals(YearMonth from, long[] out) {
+        Arrays.fill(out, 0L);
+        int first = (int) from.atDay(1).toEpochDay();
+        int end = (int) from.plusMonths(out.length).atDay(1).toEpochDay();
+
+        // granice mjeseci se racunaju jednom po mjesecu, ne po retku
+        int month = 0;
+        int nextMonth = (int) from.plusMonths(1).atDay(1).toEpochDay();
+        for (int i = lowerBound(first); i < size && days[i] < end; i++) {
+            while (days[i] >= nextMonth) {
+                month++;
+                nextMonth = (int) from.plusMonths(month + 1).atDay(1).toEpochDay();
+            }
+            if (isExpense(i)) out[month] += cents[i];
+        }
+    }
+
+    // mjesec prvog rashoda, null ako ih nema
+    public synchronized YearMonth firstExpenseMonth() {
+        for (int i = 0; i < size; i++) {
+            if (isExpense(i)) return YearMonth.from(LocalDate.ofEpochDay(days[i]));
+        }
+        return null;
+    }
+
+    /**
+     * Sum of all transactions, incomes included, between the two dates inclusive.
+     */
+    public synchronized long sumBetween(LocalDate start, LocalDate end) {
+        int last = (int) end.toEpochDay();
+        long sum = 0;
+        for (int i = lowerBound((int) start.toEpochDay()); i < size && days[i] <= last; i++) {
+            sum += cents[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Income and expense of the categorized transactions between the two dates inclusive, the way
+     * the monthly balance counts them.
+     */
+    public synchronized Balance balanceBetween(LocalDate start, LocalDate end) {
+        int last = (int) end.toEpochDay();
+        long income = 0;
+        long expenses = 0;
+        for (int i = lowerBound((int) start.toEpochDay()); i < size && days[i] <= last; i++) {
+            if (categories[i] == UNCATEGORIZED) continue;
+            if (isExpense(i)) expenses += cents[i];
+            else income += cents[i];
+        }
+        return new Balance(income, expenses);
+    }
+
+    /**
+     * Expense cents and row counts per category over the whole history, at the index of the
+     * category in {@code categoryIds} (sorted ascending). Rows of categories not listed are skipped.
+     */
+    public synchronized void expenseTotalsByCategory(int[] categoryIds, long[] totals, int[] counts) {
+        Arrays.fill(totals, 0L);
+        Arrays.fill(counts, 0);
+        for (int i = 0; i < size; i++) {
+            if (categories[i] == UNCATEGORIZED || !isExpense(i)) continue;
+            int at = Arrays.binarySearch(categoryIds, categories[i]);
+            if (at < 0) continue;
+            totals[at] += cents[i];
+            counts[at]++;
+        }
+    }
+
+    /**
+     * Expense totals for every day from the first to the last expense.
+     */
+    public synchronized DailyExpenses dailyExpenses() {
+        int first = -1;
+        int last = -1;
+        for (int i = 0; i < size; i++) {
+            if (!isExpense(i)) continue;
+            if (first < 0) first = i;
+            last = i;
+        }
+        if (first < 0) return new DailyExpenses(0, new long[0], new int[0]);
+
+        int firstDay = days[first];
+        long[] sums = new long[days[last] - firstDay + 1];
+        int[] counts = new int[sums.length];
+        for (int i = first; i <= last; i++) {
+            if (!isExpense(i)) continue;
+            sums[days[i] - firstDay] += cents[i];
+            counts[days[i] - firstDay]++;
+        }
+        return new DailyExpenses(firstDay, sums, counts);
+    }
+
+    private void set(int i, int day, long amountCents, int category, boolean isExpense) {
+        days[i] = day;
+        cents[i] = amountCents;
+        categories[i] = category;
+        setExpense(i, isExpense);
+    }
+
+    private boolean isExpense(int i) {
+        return (expense[i >>> 6] & (1L << i)) != 0;
+    }
+
+    // pomice retke [from, size) za by mjesta (1 za umetanje, -1 za brisanje retka from - 1)
+    private void shift(int from, int by) {
+        int length = size - from;
+        System.arraycopy(days, from, days, from + by, length);
+        System.arraycopy(cents, from, cents, from + by, length);
+        System.arraycopy(categories, from, categories, from + by, length);
+        if (by > 0) {
+            for (int i = size - 1; i >= from; i--) setExpense(i + 1, isExpense(i));
+        } else {
+            for (int i = from; i < size; i++) setExpense(i - 1, isExpense(i));
+        }
+    }
+
+    private void setExpense(int i, boolean value) {
+        if (value) {
+            expense[i >>> 6] |= 1L << i;
+        } else {
+            expense[i >>> 6] &= ~(1L << i);
+        }
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= days.length) return;
+        int c = Math.max(needed, days.length + (days.length >> 1));
+        days = Arrays.copyOf(days, c);
+        cents = Arrays.copyOf(cents, c);
+        categories = Arrays.copyOf(categories, c);
+        expense = Arrays.copyOf(expense, (c + 63) >>> 6);
+    }
+
+    // prvi redak s danom >= day
+    private int lowerBound(int day) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (days[mid] < day) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // prvi redak s danom > day
+    private int upperBound(int day) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (days[mid] <= day) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,229 @@
+package com.havana.backend.service;
+
+import com.havana.backend.data.TransactionFilterRequest;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes a user's filtered transactions as CSV or XLSX straight to the response. Rows come from a
+ * forward-only cursor read {@code fetchSize} rows at a time and XLSX keeps only a small row window
+ * in memory, so an export of any size runs in constant memory. The columns are the import
+ * template's, so an exported file can be imported again.
+ */
+@Service
+public class TransactionExportService {
+
+    static final String[] COLUMNS = {
+            "transaction_date",
+            "amount",
+            "description",
+            "category_name",
+            "category_type"
+    };
+
+    // redaka XLSX-a u memoriji, stariji se ispisuju u privremenu datoteku
+    static final int XLSX_ROW_WINDOW = 100;
+
+    // Excel list ima najvise 1048576 redaka, ostatak ide na sljedeci list
+    static final int XLSX_MAX_ROWS_PER_SHEET = 1_048_575;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTemplate;
+    private final int fetchSize;
+
+    public TransactionExportService(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            @Value("${fintrack.export.fetch-size:1000}") int fetchSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTemplate.setReadOnly(true);
+        this.fetchSize = fetchSize;
+    }
+
+    public void exportCsv(TransactionFilterRequest filter, Integer userId, OutputStream out) throws IOException {
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        CSVPrinter printer = new CSVPrinter(writer, CSVFormat.DEFAULT);
+        printer.printRecord((Object[]) COLUMNS);
+        // zaglavlje odmah ide klijentu, download pocinje prije prvog upita
+        printer.flush();
+
+        try {
+            stream(filter, userId, rs -> {
+                try {
+                    printer.printRecord(
+                            rs.getDate("transaction_date").toLocalDate(),
+                            rs.getBigDecimal("amount").toPlainString(),
+                            rs.getString("description"),
+                            rs.getString("category_name"),
+                            rs.getString("category_type")
+                    );
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // npr. klijent je prekinuo download
+            throw e.getCause();
+        }
+        printer.flush();
+    }
+
+    public void exportXlsx(TransactionFilterRequest filter, Integer userId, OutputStream out) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(XLSX_ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            CellStyle headerStyle = workbook.createCellStyle();
+            Font font = workbook.createFont();
+            font.setBold(true);
+            headerStyle.setFont(font);
+
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd"));
+
+            List<Sheet> sheets = new ArrayList<>();
+            int[] rowNum = {XLSX_MAX_ROWS_PER_SHEET};
+
+            stream(filter, userId, rs -> {
+                if (rowNum[0] == XLSX_MAX_ROWS_PER_SHEET) {
+                    sheets.add(newSheet(workbook, sheets.size(), headerStyle));
+                    rowNum[0] = 0;
+                }
+                Row row = sheets.get(sheets.size() - 1).createRow(++rowNum[0]);
+
+                Cell date = row.createCell(0);
+                date.setCellValue(rs.getDate("transaction_date").toLocalDate());
+                date.setCellStyle(dateStyle);
+                row.createCell(1).setCellValue(rs.getBigDecimal("amount").doubleValue());
+                setString(row, 2, rs.getString("description"));
+                setString(row, 3, rs.getString("category_name"));
+                setString(row, 4, rs.getString("category_type"));
+            });
+
+            if (sheets.isEmpty()) {
+                newSheet(workbook, 0, headerStyle);
+            }
+
+            // XLSX je zip, tijelo se moze poslati tek kad su svi redovi procitani
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private void stream(TransactionFilterRequest filter, Integer userId, RowCallbackHandler handler) {
+        List<Object> params = new ArrayList<>();
+        String sql = buildQuery(filter, userId, params);
+
+        // PostgreSQL cita po fetchSize redaka samo unutar transakcije (autocommit off)
+        readOnlyTemplate.executeWithoutResult(status -> jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement ps = connection.prepareStatement(
+                            sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    ps.setFetchSize(fetchSize);
+                    for (int i = 0; i < params.size(); i++) {
+                        ps.setObject(i + 1, params.get(i));
+                    }
+                    return ps;
+                },
+                handler
+        ));
+    }
+
+    // isti filteri i sortiranje kao /api/transactions/search
+    static String buildQuery(TransactionFilterRequest filter, Integer userId, List<Object> params) {
+        StringBuilder sql = new StringBuilder("""
+                SELECT t.transaction_date, t.amount, t.description, c.name AS category_name, c.type AS category_type
+                FROM transactions t
+                LEFT JOIN categories c ON c.id = t.category_id
+                WHERE t.user_id = ?
+                """);
+        params.add(userId);
+
+        // izrazi kao u GIN indeksima iz V3__pretraga_opisa.sql
+        if (filter.hasDescription() && filter.wordSearch()) {
+            sql.append(" AND to_tsvector('simple', coalesce(t.description, '')) @@ websearch_to_tsquery('simple', ?)");
+            params.add(filter.description());
+        } else if (filter.hasDescription()) {
+            sql.append(" AND LOWER(t.description) LIKE ?");
+            params.add("%" + filter.description().toLowerCase() + "%");
+        }
+        if (filter.categoryName() != null && !filter.categoryName().isBlank()) {
+            sql.append(" AND LOWER(c.name) = ?");
+            params.add(filter.categoryName().toLowerCase());
+        }
+        if (filter.categoryType() != null) {
+            sql.append(" AND c.type = ?");
+            params.add(filter.categoryType());
+        }
+        if (filter.minAmount() != null && filter.maxAmount() != null) {
+            sql.append(" AND t.amount BETWEEN ? AND ?");
+            params.add(filter.minAmount());
+            params.add(filter.maxAmount());
+        }
+        if (filter.fromDate() != null && filter.toDate() != null) {
+            sql.append(" AND t.transaction_date BETWEEN ? AND ?");
+            params.add(filter.fromDate());
+            params.add(filter.toDate());
+        }
+
+        if (filter.sortByRelevance()) {
+            sql.append(filter.wordSearch()
+                    ? " ORDER BY ts_rank(to_tsvector('simple', coalesce(t.description, '')), websearch_to_tsquery('simple', ?)) DESC"
+                    : " ORDER BY similarity(lower(t.description), lower(?)) DESC");
+            sql.append(", t.transaction_date DESC, t.id DESC");
+            params.add(filter.description());
+            return sql.toString();
+        }
+
+        String sortBy = filter.sortBy() == null ? "" : filter.sortBy().toLowerCase();
+        sql.append(switch (sortBy) {
+            case "amount_asc" -> " ORDER BY t.amount ASC, t.id ASC";
+            case "amount_desc" -> " ORDER BY t.amount DESC, t.id DESC";
+            case "date_asc" -> " ORDER BY t.transaction_date ASC, t.id ASC";
+            default -> " ORDER BY t.transaction_date DESC, t.id DESC";
+        });
+        return sql.toString();
+    }
+
+    private static Sheet newSheet(SXSSFWorkbook workbook, int index, CellStyle headerStyle) {
+        Sheet sheet = workbook.createSheet(index == 0 ? "Transactions" : "Transactions " + (index + 1));
+        Row header = sheet.createRow(0);
+        for (int i = 0; i < COLUMNS.length; i++) {
+            Cell cell = header.createCell(i);
+            cell.setCellValue(COLUMNS[i]);
+            cell.setCellStyle(headerStyle);
+        }
+        return sheet;
+    }
+
+    private static void setString(Row row, int column, String value) {
+        if (value != null) {
+            row.createCell(column).setCellValue(value);
+        }
+    }
+}
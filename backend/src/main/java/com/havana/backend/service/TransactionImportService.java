@@ -0,0 +1,612 @@
+package com.havana.backend.service;
+
+import com.havana.backend.data.ImportResultResponse;
+import com.havana.backend.data.ImportRowError;
+import com.havana.backend.model.Category;
+import com.havana.backend.model.CategoryType;
+import com.havana.backend.model.ImportFormat;
+import com.havana.backend.model.Money;
+import com.havana.backend.model.Transaction;
+import com.havana.backend.model.User;
+import com.havana.backend.repository.CategoryRepository;
+import com.havana.backend.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Streaming import of transactions from CSV or XLSX. Rows are parsed one by one and written in
+ * chunks of {@link #CHUNK_SIZE} with a single JDBC batch insert per chunk, each chunk in its own
+ * transaction, so memory use does not depend on the size of the uploaded file. Rows rejected
+ * by the database are retried one by one under a savepoint so the rest of the chunk still goes in.
+ */
+@Service
+@RequiredArgsConstructor
+public class TransactionImportService {
+
+    static final int CHUNK_SIZE = 1000;
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    private static final BigDecimal MAX_AMOUNT = new BigDecimal("9999999999.99"); // NUMERIC(12,2)
+
+    private static final CSVFormat CSV_FORMAT = CSVFormat.DEFAULT
+            .withFirstRecordAsHeader()
+            .withIgnoreHeaderCase()
+            .withTrim();
+
+    private static final String INSERT_SQL = """
+            INSERT INTO transactions (id, user_id, category_id, amount, transaction_date, description, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    // jedan nextval po bloku od Transaction.ID_ALLOCATION_SIZE id-eva, umjesto po retku
+    private static final String RESERVE_IDS_SQL =
+            "SELECT nextval('" + Transaction.ID_SEQUENCE + "') FROM generate_series(1, ?)";
+
+    private final UserRepository userRepository;
+    private final CategoryRepository categoryRepository;
+    private final CategoryCache categoryCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MonthlyRollupService monthlyRollupService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Imports a spooled upload.
+     *
+     * @param skipRows rows already committed by an earlier, interrupted run of the same file
+     */
+    public ImportResultResponse importFile(
+            Path file,
+            ImportFormat format,
+            Integer userId,
+            ImportProgressListener listener,
+            long skipRows
+    ) {
+        ChunkWriter writer = new ChunkWriter(findUser(userId), listener, skipRows);
+
+        switch (format) {
+            case CSV -> {
+                try (CountingInputStream in = new CountingInputStream(Files.newInputStream(file))) {
+                    writer.trackBytes(in::getCount);
+                    readCsv(in, writer::accept);
+                } catch (IOException e) {
+                    throw new RuntimeException("CSV parsing failed", e);
+                }
+            }
+            case XLSX -> readXlsx(file, writer);
+        }
+
+        return writer.finish();
+    }
+
+    private User findUser(Integer userId) {
+        return userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    static void readCsv(InputStream in, Consumer<ImportRow> rows) {
+        try (
+                Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+                CSVParser parser = CSV_FORMAT.parse(reader)
+        ) {
+            long rowNumber = 0;
+            for (CSVRecord record : parser) {
+                rowNumber++;
+                rows.accept(new ImportRow(
+                        rowNumber,
+                        column(record, "transaction_date"),
+                        column(record, "amount"),
+                        column(record, "description"),
+                        column(record, "category_name"),
+                        column(record, "category_type")
+                ));
+            }
+        } catch (IOException | UncheckedIOException e) {
+            throw new RuntimeException("CSV parsing failed", e);
+        }
+    }
+
+    /**
+     * Reads the first sheet with POI's event API: rows are pushed to the writer as the sheet XML
+     * is parsed, so only the shared strings table is held in memory, never the whole workbook.
+     */
+    private void readXlsx(Path file, ChunkWriter writer) {
+        try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                throw new RuntimeException("Workbook has no sheets");
+            }
+
+            // prvi sheet, kao u templateu ("Transactions")
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(
+                        styles, strings, new SheetRows(writer), new ImportDataFormatter(), false
+                ));
+                parser.parse(new InputSource(sheet));
+            }
+        } catch (IOException | OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new RuntimeException("XLSX parsing failed", e);
+        }
+    }
+
+    private static String column(CSVRecord record, String name) {
+        return record.isMapped(name) && record.isSet(name) ? record.get(name) : null;
+    }
+
+    /**
+     * One spreadsheet/CSV row with raw cell values, before validation.
+     */
+    record ImportRow(
+            long rowNumber,
+            String transactionDate,
+            String amount,
+            String description,
+            String categoryName,
+            String categoryType
+    ) {}
+
+    /**
+     * Maps sheet cells to {@link ImportRow}s. The first row is the header, the same column names
+     * as the CSV format; empty rows (the template ships with 1000 pre-formatted ones) are skipped.
+     */
+    private static class SheetRows implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private static final List<String> COLUMNS = List.of(
+                "transaction_date", "amount", "description", "category_name", "category_type"
+        );
+
+        private final ChunkWriter writer;
+        private final Map<Integer, Integer> fieldByColumn = new HashMap<>();
+        private final String[] values = new String[COLUMNS.size()];
+        private boolean headerDone;
+
+        SheetRows(ChunkWriter writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            Arrays.fill(values, null);
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            if (cellReference == null || formattedValue == null) return;
+            int column = new CellReference(cellReference).getCol();
+
+            if (!headerDone) {
+                int field = COLUMNS.indexOf(formattedValue.trim().toLowerCase());
+                if (field >= 0) fieldByColumn.put(column, field);
+                return;
+            }
+
+            Integer field = fieldByColumn.get(column);
+            if (field != null) {
+                values[field] = formattedValue.trim();
+            }
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (!headerDone) {
+                headerDone = true;
+                return;
+            }
+            if (Arrays.stream(values).allMatch(v -> v == null || v.isEmpty())) return;
+
+            // rowNum je 0-based, header je redak 0, pa je rowNum redni broj podatka kao kod CSV-a
+            writer.accept(new ImportRow(rowNum, values[0], values[1], values[2], values[3], values[4]));
+        }
+    }
+
+    /**
+     * Date-formatted cells become ISO dates, other numbers are written out plainly so that
+     * currency or thousands formats in the sheet do not break amount parsing.
+     */
+    private static class ImportDataFormatter extends DataFormatter {
+
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString) {
+            if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+                return DateUtil.getLocalDateTime(value).toLocalDate().toString();
+            }
+            return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+        }
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+
+        private volatile long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+
+    record CategoryKey(String name, CategoryType type) {}
+
+    record PendingRow(
+            long rowNumber,
+            LocalDate date,
+            BigDecimal amount,
+            String description,
+            CategoryKey category
+    ) {}
+
+    static class RowRejectedException extends RuntimeException {
+        RowRejectedException(String message) {
+            super(message);
+        }
+    }
+
+    public static class ImportCancelledException extends RuntimeException {
+        public ImportCancelledException() {
+            super("Import cancelled");
+        }
+    }
+
+    /**
+     * Buffers validated rows and writes them out a chunk at a time. Categories are resolved once per
+     * distinct (name, type) and remembered for the rest of the import.
+     */
+    class ChunkWriter {
+
+        private final User user;
+        private final ImportProgressListener listener;
+        private final long skipRows;
+        private final TransactionTemplate savepointTemplate;
+
+        private final List<PendingRow> pending = new ArrayList<>(CHUNK_SIZE);
+        private final Map<CategoryKey, Integer> categoryIds = new HashMap<>();
+        private final Map<CategoryKey, String> unresolvedCategories = new HashMap<>();
+        private final List<ImportRowError> errors = new ArrayList<>();
+        private final long startedAt = System.nanoTime();
+        private LongSupplier bytesRead = () -> -1;
+
+        private int imported;
+        private int failed;
+
+        // stanje chunka koji jos nije commitan
+        private long lastRowNumber;
+        private int chunkImported;
+        private int chunkFailed;
+        private final List<ImportRowError> chunkErrors = new ArrayList<>();
+
+        ChunkWriter(User user, ImportProgressListener listener, long skipRows) {
+            this.user = user;
+            this.listener = listener;
+            this.skipRows = skipRows;
+            this.savepointTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+            this.savepointTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+        }
+
+        void trackBytes(LongSupplier bytesRead) {
+            this.bytesRead = bytesRead;
+        }
+
+        void accept(ImportRow row) {
+            if (row.rowNumber() <= skipRows) return;
+
+            lastRowNumber = row.rowNumber();
+            try {
+                pending.add(validate(row));
+            } catch (RowRejectedException e) {
+                reject(row.rowNumber(), e.getMessage());
+            }
+            if (pending.size() + chunkFailed >= CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        ImportResultResponse finish() {
+            flush();
+
+            long durationNanos = Math.max(1, System.nanoTime() - startedAt);
+            double seconds = durationNanos / 1_000_000_000.0;
+
+            return new ImportResultResponse(
+                    imported,
+                    failed,
+                    durationNanos / 1_000_000,
+                    (imported + failed) / seconds,
+                    List.copyOf(errors)
+            );
+        }
+
+        private void flush() {
+            if (pending.isEmpty() && chunkFailed == 0) return;
+            if (listener.isCancelled()) {
+                throw new ImportCancelledException();
+            }
+
+            resolveCategories();
+
+            List<PendingRow> insertable = new ArrayList<>(pending.size());
+            for (PendingRow row : pending) {
+                String reason = unresolvedCategories.get(row.category());
+                if (reason != null) {
+                    reject(row.rowNumber(), reason);
+                } else {
+                    insertable.add(row);
+                }
+            }
+            pending.clear();
+
+            long chunkStarted = System.nanoTime();
+            int[] ids = reserveIds(insertable.size());
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    insert(insertable, ids);
+                    recordInserted(insertable);
+                    commitChunk(insertable.size());
+                });
+            } catch (DataAccessException e) {
+                // jedan los red rusi cijeli batch, pa chunk ponavljamo red po red sa savepointom po retku
+                transactionTemplate.executeWithoutResult(status -> {
+                    List<PendingRow> inserted = new ArrayList<>(insertable.size());
+                    for (int i = 0; i < insertable.size(); i++) {
+                        PendingRow row = insertable.get(i);
+                        int[] rowId = {ids[i]};
+                        try {
+                            savepointTemplate.executeWithoutResult(s -> insert(List.of(row), rowId));
+                            inserted.add(row);
+                        } catch (DataAccessException ex) {
+                            reject(row.rowNumber(), ex.getMostSpecificCause().getMessage());
+                        }
+                    }
+                    recordInserted(inserted);
+                    commitChunk(inserted.size());
+                });
+            }
+
+            // rate(fintrack_import_rows_total) daje retke u sekundi
+            meterRegistry.timer("fintrack.import.chunk").record(System.nanoTime() - chunkStarted, TimeUnit.NANOSECONDS);
+            meterRegistry.counter("fintrack.import.rows", "outcome", "imported").increment(chunkImported);
+            meterRegistry.counter("fintrack.import.rows", "outcome", "failed").increment(chunkFailed);
+
+            imported += chunkImported;
+            failed += chunkFailed;
+            errors.addAll(chunkErrors);
+
+            chunkImported = 0;
+            chunkFailed = 0;
+            chunkErrors.clear();
+        }
+
+        // poziva se unutar transakcije chunka
+        private void commitChunk(int inserted) {
+            chunkImported = inserted;
+            listener.chunkCommitted(new ImportProgressListener.Chunk(
+                    lastRowNumber,
+                    bytesRead.getAsLong(),
+                    inserted,
+                    chunkFailed,
+                    List.copyOf(chunkErrors)
+            ));
+        }
+
+        private void resolveCategories() {
+            for (PendingRow row : pending) {
+                CategoryKey key = row.category();
+                if (categoryIds.containsKey(key) || unresolvedCategories.containsKey(key)) continue;
+
+                try {
+                    Integer categoryId = categoryCache
+                            .own(user.getId(), key.name())
+                            .filter(c -> c.type() == key.type())
+                            .map(CategoryCache.CachedCategory::id)
+                            .orElseGet(() -> {
+                                Category c = new Category();
+                                c.setName(key.name());
+                                c.setType(key.type());
+                                c.setUser(user);
+                                Category saved = categoryRepository.save(c);
+                                eventPublisher.publishEvent(new CategoriesChangedEvent(user.getId()));
+                                return saved.getId();
+                            });
+                    categoryIds.put(key, categoryId);
+                } catch (DataAccessException e) {
+                    // npr. ista kategorija vec postoji s drugim tipom (UNIQUE user_id, name)
+                    unresolvedCategories.put(key,
+                            "Category '" + key.name() + "' cannot be used as " + key.type());
+                }
+            }
+        }
+
+        private void insert(List<PendingRow> rows, int[] ids) {
+            if (rows.isEmpty()) return;
+
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+            jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    PendingRow row = rows.get(i);
+                    ps.setInt(1, ids[i]);
+                    ps.setInt(2, user.getId());
+                    ps.setInt(3, categoryIds.get(row.category()));
+                    ps.setBigDecimal(4, row.amount());
+                    ps.setDate(5, Date.valueOf(row.date()));
+                    ps.setString(6, row.description());
+                    ps.setTimestamp(7, now);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return rows.size();
+                }
+            });
+        }
+
+        // blokovi kao kod Hibernateovog pooled optimizera: nextval v pokriva v-49..v, pa se id-evi ne preklapaju
+        private int[] reserveIds(int count) {
+            int[] ids = new int[count];
+            int filled = 0;
+            while (filled < count) {
+                int blocks = (count - filled + Transaction.ID_ALLOCATION_SIZE - 1) / Transaction.ID_ALLOCATION_SIZE;
+                for (Integer hi : jdbcTemplate.queryForList(RESERVE_IDS_SQL, Integer.class, blocks)) {
+                    // prvi nextval svjeze sekvence je 1, ispod toga nema id-eva
+                    for (int id = Math.max(1, hi - Transaction.ID_ALLOCATION_SIZE + 1); id <= hi && filled < count; id++) {
+                        ids[filled++] = id;
+                    }
+                }
+            }
+            return ids;
+        }
+
+        // mjesecni rollup se azurira u istoj transakciji kao i chunk, statistike za predikciju nakon commita
+        private void recordInserted(List<PendingRow> rows) {
+            MonthlyRollupService.Deltas deltas = new MonthlyRollupService.Deltas();
+            List<TransactionsChangedEvent.Delta> changes = new ArrayList<>(rows.size());
+            for (PendingRow row : rows) {
+                Integer categoryId = categoryIds.get(row.category());
+                Money amount = Money.of(row.amount());
+                deltas.add(row.date(), categoryId, amount);
+                changes.add(new TransactionsChangedEvent.Delta(
+                        row.date(),
+                        categoryId,
+                        TransactionsChangedEvent.isExpense(row.category().type()),
+                        1,
+                        amount
+                ));
+            }
+            monthlyRollupService.apply(user.getId(), deltas);
+
+            if (!changes.isEmpty()) {
+                eventPublisher.publishEvent(new TransactionsChangedEvent(user.getId(), changes));
+            }
+        }
+
+        private void reject(long rowNumber, String reason) {
+            chunkFailed++;
+            if (errors.size() + chunkErrors.size() < MAX_REPORTED_ERRORS) {
+                chunkErrors.add(new ImportRowError(rowNumber, reason));
+            }
+        }
+    }
+
+    static PendingRow validate(ImportRow row) {
+        LocalDate date;
+        try {
+            date = LocalDate.parse(required(row.transactionDate(), "transaction_date"));
+        } catch (DateTimeParseException e) {
+            throw new RowRejectedException("Invalid transaction_date '" + row.transactionDate() + "'");
+        }
+
+        BigDecimal amount;
+        try {
+            amount = new BigDecimal(required(row.amount(), "amount"))
+                    .setScale(2, RoundingMode.HALF_UP);
+        } catch (NumberFormatException e) {
+            throw new RowRejectedException("Invalid amount '" + row.amount() + "'");
+        }
+        if (amount.signum() <= 0 || amount.compareTo(MAX_AMOUNT) > 0) {
+            throw new RowRejectedException("Amount out of range: " + amount);
+        }
+
+        String categoryName = required(row.categoryName(), "category_name");
+
+        CategoryType categoryType;
+        try {
+            categoryType = CategoryType.valueOf(required(row.categoryType(), "category_type").trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RowRejectedException("Invalid category_type '" + row.categoryType() + "'");
+        }
+
+        return new PendingRow(
+                row.rowNumber(),
+                date,
+                amount,
+                row.description(),
+                new CategoryKey(categoryName, categoryType)
+        );
+    }
+
+    private static String required(String value, String column) {
+        if (value == null || value.isBlank()) {
+            throw new RowRejectedException("Missing " + column);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,152 @@
+package com.havana.backend.service;
+
+import com.havana.backend.data.TransactionPartitionResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Keeps the yearly partitions of {@code transactions} ahead of the calendar and, in archive mode,
+ * moves whole years older than {@code keep-years} into {@code transactions_archive}. Archived rows
+ * drop out of every per-user list and search, but stay in {@code transaction_history}, which the
+ * rollup, the spending statistics and the analysis endpoints read.
+ */
+@Service
+public class TransactionPartitionService {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionPartitionService.class);
+
+    // godine starije od ovoga u default particiji su greske u podacima, za njih se ne otvara particija
+    private static final int MAX_YEARS_BACK = 30;
+
+    private static final String PARTITIONS_SQL = """
+            SELECT c.relname AS name,
+                   p.relname = 'transactions_archive' AS archived,
+                   c.reltuples::bigint AS estimated_rows
+            FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            JOIN pg_class p ON p.oid = i.inhparent
+            WHERE p.relname IN ('transactions', 'transactions_archive')
+              AND c.relname ~ '^transactions_[0-9]{4}$'
+            ORDER BY c.relname
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Clock clock;
+    private final int yearsAhead;
+    private final boolean archiveEnabled;
+    private final int keepYears;
+
+    public TransactionPartitionService(
+            JdbcTemplate jdbcTemplate,
+            @Value("${fintrack.partitions.years-ahead:1}") int yearsAhead,
+            @Value("${fintrack.partitions.archive.enabled:false}") boolean archiveEnabled,
+            @Value("${fintrack.partitions.archive.keep-years:5}") int keepYears
+    ) {
+        if (keepYears < 2) {
+            throw new IllegalArgumentException("fintrack.partitions.archive.keep-years must be at least 2");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.clock = Clock.systemDefaultZone();
+        this.yearsAhead = yearsAhead;
+        this.archiveEnabled = archiveEnabled;
+        this.keepYears = keepYears;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${fintrack.partitions.maintenance-cron:0 15 3 * * *}")
+    public void maintain() {
+        ensurePartitions();
+        if (archiveEnabled) {
+            archiveBefore(LocalDate.now(clock).getYear() - keepYears + 1);
+        }
+    }
+
+    /**
+     * Opens partitions for this year and {@code years-ahead} years after it, and for every year that
+     * has rows waiting in the default partition (imports of old statements).
+     *
+     * @return names of the partitions that were created
+     */
+    public List<String> ensurePartitions() {
+        int currentYear = LocalDate.now(clock).getYear();
+
+        TreeSet<Integer> years = new TreeSet<>(jdbcTemplate.queryForList(
+                "SELECT DISTINCT EXTRACT(YEAR FROM transaction_date)::int FROM transactions_default WHERE transaction_date >= ?",
+                Integer.class,
+                LocalDate.of(currentYear - MAX_YEARS_BACK, 1, 1)
+        ));
+        for (int year = currentYear; year <= currentYear + yearsAhead; year++) {
+            years.add(year);
+        }
+
+        List<String> created = new ArrayList<>();
+        for (int year : years) {
+            // svaka godina u svojoj transakciji (autocommit), jedna neuspjela ne blokira ostale
+            Boolean done = jdbcTemplate.queryForObject(
+                    "SELECT fintrack_create_transaction_partition(?)", Boolean.class, year);
+            if (Boolean.TRUE.equals(done)) {
+                created.add("transactions_" + year);
+            }
+        }
+        if (!created.isEmpty()) {
+            log.info("Created transaction partitions {}", created);
+        }
+        return created;
+    }
+
+    /**
+     * Moves every live yearly partition before {@code firstLiveYear} to the archive. The current
+     * year and the one before it are never archived, whatever is asked.
+     *
+     * @return names of the partitions that were archived
+     */
+    public List<String> archiveBefore(int firstLiveYear) {
+        int limit = Math.min(firstLiveYear, LocalDate.now(clock).getYear() - 1);
+
+        List<String> archived = new ArrayList<>();
+        for (TransactionPartitionResponse partition : partitions()) {
+            if (partition.archived() || partition.year() >= limit) continue;
+
+            Boolean done = jdbcTemplate.queryForObject(
+                    "SELECT fintrack_archive_transaction_partition(?)", Boolean.class, partition.year());
+            if (Boolean.TRUE.equals(done)) {
+                archived.add(partition.name());
+            }
+        }
+        if (!archived.isEmpty()) {
+            log.info("Archived transaction partitions {}", archived);
+        }
+        return archived;
+    }
+
+    public List<TransactionPartitionResponse> partitions() {
+        return jdbcTemplate.query(PARTITIONS_SQL, (rs, i) -> {
+            String name = rs.getString("name");
+            return new TransactionPartitionResponse(
+                    name,
+                    Integer.parseInt(name.substring(name.length() - 4)),
+                    rs.getBoolean("archived"),
+                    rs.getLong("estimated_rows")
+            );
+        });
+    }
+}
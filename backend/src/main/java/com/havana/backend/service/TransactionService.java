@@ -1,93 +1,116 @@
 package com.havana.backend.service;
 
 import com.havana.backend.data.AddTransactionRequest;
-import com.havana.backend.data.ImportResultResponse;
+import com.havana.backend.data.CategorySpendingRow;
 import com.havana.backend.data.MonthlyBalanceRecord;
+import com.havana.backend.data.TransactionCursor;
 import com.havana.backend.data.TransactionFilterRequest;
+import com.havana.backend.data.TransactionResponse;
+import com.havana.backend.data.TransactionSliceResponse;
 import com.havana.backend.model.Category;
 import com.havana.backend.model.CategoryType;
+import com.havana.backend.model.Money;
 import com.havana.backend.model.Transaction;
 import com.havana.backend.model.User;
-import com.havana.backend.repository.CategoryRepository;
+import com.havana.backend.repository.MonthlyCategoryRollupRepository;
+import com.havana.backend.repository.TransactionHistoryRepository;
 import com.havana.backend.repository.TransactionRepository;
 import com.havana.backend.repository.SavingGoalRepository;
 import com.havana.backend.repository.UserRepository;
 import com.havana.backend.specification.TransactionSpecification;
 import lombok.RequiredArgsConstructor;
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVParser;
-import org.apache.commons.csv.CSVRecord;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.Reader;
-import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.function.Function;
 import java.math.BigDecimal;
 
-import static com.havana.backend.model.CategoryType.EXPENSE;
-import static com.havana.backend.model.CategoryType.INCOME;
-
 @Service
 @RequiredArgsConstructor
 public class TransactionService {
 
     private final TransactionRepository transactionRepository;
+    private final TransactionHistoryRepository transactionHistoryRepository;
     private final SavingGoalRepository savingGoalRepository;
     private final UserRepository userRepository;
-    private final CategoryRepository categoryRepository;
-
-    public List<Map<String, Object>> getSpendingByCategory(User user) {
-        List<Transaction> transactions = transactionRepository.findByUser(user);
-        
-        Map<String, BigDecimal> categorySpending = new HashMap<>();
-        for (Transaction t : transactions) {
-            if(t.getCategory().getType().equals(EXPENSE)) {
-                String categoryName = t.getCategory() != null ? t.getCategory().getName() : "Ostalo";
-                categorySpending.put(categoryName, categorySpending.getOrDefault(categoryName, BigDecimal.ZERO).add(t.getAmount()));
-            }
+    private final CategoryCache categoryCache;
+    private final MonthlyCategoryRollupRepository monthlyCategoryRollupRepository;
+    private final MonthlyRollupService monthlyRollupService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // from/to su opcionalni, bez njih se gleda cijela povijest (iz rollupa)
+    public List<CategorySpendingRow> getSpendingByCategory(Integer userId, LocalDate from, LocalDate to) {
+        if (from == null && to == null) {
+            return monthlyCategoryRollupRepository.sumExpenseByCategory(userId);
         }
-        
-        List<Map<String, Object>> result = new ArrayList<>();
-        for (Map.Entry<String, BigDecimal> entry : categorySpending.entrySet()) {
-            Map<String, Object> item = new HashMap<>();
-            item.put("name", entry.getKey());
-            item.put("value", entry.getValue());
-            result.add(item);
+
+        LocalDate start = from != null ? from : LocalDate.of(1970, 1, 1);
+        LocalDate end = to != null ? to : LocalDate.now();
+        if (start.isAfter(end)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must not be after to");
         }
-        return result;
+
+        return transactionHistoryRepository.sumExpenseByCategory(userId, start, end);
+    }
+
+    // isto, iz vec ucitanih stupaca; kategorije istog imena se zbrajaju kao GROUP BY c.name u rollupu
+    public List<CategorySpendingRow> getSpendingByCategory(Integer userId, TransactionColumns columns) {
+        List<CategoryCache.CachedCategory> expenseCategories = categoryCache.forUser(userId).stream()
+                .filter(c -> c.type() == CategoryType.EXPENSE)
+                .sorted(Comparator.comparing(CategoryCache.CachedCategory::id))
+                .toList();
+        int[] ids = expenseCategories.stream().mapToInt(CategoryCache.CachedCategory::id).toArray();
+        long[] totals = new long[ids.length];
+        int[] counts = new int[ids.length];
+        columns.expenseTotalsByCategory(ids, totals, counts);
+
+        Map<String, Long> byName = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            if (counts[i] > 0) byName.merge(expenseCategories.get(i).name(), totals[i], Long::sum);
+        }
+        return byName.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .map(e -> new CategorySpendingRow(e.getKey(), Money.ofCents(e.getValue()).toBigDecimal()))
+                .toList();
+    }
+
+    public Map<String, Object> getWeeklyGoal(Integer userId) {
+        LocalDate weekStart = weekStart(LocalDate.now());
+        return weeklyGoal(Money.of(transactionRepository.sumAmountBetween(userId, weekStart, weekStart.plusDays(6))));
+    }
+
+    // isto, ali iz vec ucitanih stupaca (dashboard summary)
+    public Map<String, Object> getWeeklyGoal(TransactionColumns columns) {
+        LocalDate weekStart = weekStart(LocalDate.now());
+        return weeklyGoal(Money.ofCents(columns.sumBetween(weekStart, weekStart.plusDays(6))));
     }
 
-    public Map<String, Object> getWeeklyGoal(User user) {
-        LocalDate now = LocalDate.now();
-        LocalDate weekStart = now.minus(now.getDayOfWeek().getValue() - 1, ChronoUnit.DAYS);
-        LocalDate weekEnd = weekStart.plus(6, ChronoUnit.DAYS);
-        
-        List<Transaction> weeklyTransactions = transactionRepository.findByUserAndTransactionDateBetween(user, weekStart, weekEnd);
-        
-        BigDecimal weeklySpent = weeklyTransactions.stream()
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
+    static LocalDate weekStart(LocalDate day) {
+        return day.minus(day.getDayOfWeek().getValue() - 1, ChronoUnit.DAYS);
+    }
+
+    private static Map<String, Object> weeklyGoal(Money weeklySpent) {
         // Trebam dohvatiti tjedni cilj iz SavingGoal ili koristiti default
-        BigDecimal weeklyGoal = BigDecimal.valueOf(500); // Default
-        
+        Money weeklyGoal = Money.ofCents(500_00); // Default
+
         Map<String, Object> result = new HashMap<>();
-        result.put("spent", weeklySpent);
-        result.put("goal", weeklyGoal);
-        result.put("remaining", weeklyGoal.subtract(weeklySpent));
-        result.put("percentage", weeklySpent.doubleValue() / weeklyGoal.doubleValue() * 100);
+        result.put("spent", weeklySpent.toBigDecimal());
+        result.put("goal", weeklyGoal.toBigDecimal());
+        result.put("remaining", weeklyGoal.minus(weeklySpent).toBigDecimal());
+        result.put("percentage", weeklySpent.cents() * 100.0 / weeklyGoal.cents());
         return result;
     }
 
@@ -109,12 +132,116 @@ public class TransactionService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
+        Specification<Transaction> spec = buildSpec(filter, user);
+
+        if (filter.sortByRelevance()) {
+            // redoslijed postavlja specifikacija, stranica mora biti bez sortiranja
+            spec = spec.and(TransactionSpecification.orderByRelevance(filter.description(), filter.wordSearch()));
+            return transactionRepository.findAll(spec, PageRequest.of(page, size));
+        }
+
+        Pageable pageable = PageRequest.of(
+                page,
+                size,
+                resolveSort(filter)
+        );
+
+        return transactionRepository.findAll(spec, pageable);
+    }
+
+    // keyset varijanta: bez OFFSET-a i bez COUNT(*), stranica 500 kosta isto kao i prva
+    public TransactionSliceResponse getTransactionsAfter(String cursor, int size, Integer userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        return seek(TransactionSpecification.forUser(user), "date_desc", cursor, size, TransactionResponse::from);
+    }
+
+    public TransactionSliceResponse searchTransactionsAfter(
+            TransactionFilterRequest filter, String cursor, int size, Integer userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        // relevance nema stabilan kljuc za cursor, keyset ga sortira po datumu
+        return seek(buildSpec(filter, user), normalizeSortBy(filter.sortBy()), cursor, size,
+                t -> TransactionResponse.from(t, DescriptionHighlighter.highlights(t.getDescription(), filter)));
+    }
+
+    private TransactionSliceResponse seek(
+            Specification<Transaction> spec, String sortBy, String cursor, int size,
+            Function<Transaction, TransactionResponse> mapper) {
+        boolean byAmount = sortBy.startsWith("amount");
+        boolean descending = sortBy.endsWith("_desc");
+        String attribute = byAmount ? "amount" : "transactionDate";
+
+        if (cursor != null && !cursor.isBlank()) {
+            TransactionCursor after = decodeCursor(cursor, sortBy);
+            try {
+                spec = spec.and(byAmount
+                        ? TransactionSpecification.seekAfter(attribute, new BigDecimal(after.value()), after.id(), descending)
+                        : TransactionSpecification.seekAfter(attribute, LocalDate.parse(after.value()), after.id(), descending));
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            }
+        }
+
+        // id kao tie-breaker da redoslijed bude jednoznacan kad vise transakcija ima isti datum/iznos
+        Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort sort = Sort.by(direction, attribute).and(Sort.by(direction, "id"));
+
+        // project() postavlja fetch graph, kategorija dolazi u istom upitu
+        Slice<Transaction> slice = transactionRepository.findBy(spec,
+                q -> q.project("category").sortBy(sort).slice(PageRequest.of(0, size)));
+
+        String nextCursor = null;
+        if (slice.hasNext()) {
+            Transaction last = slice.getContent().get(slice.getNumberOfElements() - 1);
+            String value = byAmount
+                    ? last.getAmount().toPlainString()
+                    : last.getTransactionDate().toString();
+            nextCursor = new TransactionCursor(sortBy, value, last.getId()).encode();
+        }
+
+        return new TransactionSliceResponse(
+                slice.getContent().stream().map(mapper).toList(),
+                slice.getNumberOfElements(),
+                slice.hasNext(),
+                nextCursor
+        );
+    }
+
+    private static TransactionCursor decodeCursor(String cursor, String sortBy) {
+        TransactionCursor decoded;
+        try {
+            decoded = TransactionCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+
+        // cursor vrijedi samo za sortiranje s kojim je izdan
+        if (!decoded.sortBy().equals(sortBy)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor does not match sort order");
+        }
+        return decoded;
+    }
+
+    private static String normalizeSortBy(String sortBy) {
+        if (sortBy == null) return "date_desc";
+
+        return switch (sortBy.toLowerCase()) {
+            case "amount_asc", "amount_desc", "date_asc", "date_desc" -> sortBy.toLowerCase();
+            default -> "date_desc";
+        };
+    }
+
+    private Specification<Transaction> buildSpec(TransactionFilterRequest filter, User user) {
         Specification<Transaction> spec =
                 Specification.where(TransactionSpecification.forUser(user));
 
-        if (filter.description() != null && !filter.description().isBlank()) {
-            spec = spec.and(
-                    TransactionSpecification.descriptionLike(filter.description())
+        if (filter.hasDescription()) {
+            spec = spec.and(filter.wordSearch()
+                    ? TransactionSpecification.descriptionMatchesWords(filter.description())
+                    : TransactionSpecification.descriptionLike(filter.description())
             );
         }
 
@@ -148,13 +275,7 @@ public class TransactionService {
             );
         }
 
-        Pageable pageable = PageRequest.of(
-                page,
-                size,
-                resolveSort(filter)
-        );
-
-        return transactionRepository.findAll(spec, pageable);
+        return spec;
     }
 
     // sortiranje
@@ -179,142 +300,61 @@ public class TransactionService {
         }
     }
 
-    // metoda za importanje csva koji je nekoc bio excell tablica, tako se unose transakcije
-    public ImportResultResponse importCsv(MultipartFile file, Integer userId) {
-
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        int success = 0;
-        int failed = 0;
-
-        try (
-                Reader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8);
-                CSVParser parser = CSVFormat.DEFAULT
-                        .withFirstRecordAsHeader()
-                        .withIgnoreHeaderCase()
-                        .withTrim()
-                        .parse(reader)
-        ) {
-
-            for (CSVRecord record : parser) {
-                try {
-                    Transaction transaction =
-                            mapCsvRecordToTransaction(record, user);
-
-                    transactionRepository.save(transaction);
-                    success++;
-                } catch (Exception e) {
-                    failed++;
-                }
-            }
-
-        } catch (IOException e) {
-            throw new RuntimeException("CSV parsing failed", e);
-        }
-
-        return new ImportResultResponse(success, failed);
-    }
-
-    private Transaction mapCsvRecordToTransaction(
-            CSVRecord record,
-            User user
-    ) {
-
-        LocalDate date =
-                LocalDate.parse(record.get("transaction_date"));
-
-        BigDecimal amount =
-                new BigDecimal(record.get("amount"));
-
-        String description =
-                record.get("description");
-
-        String categoryName =
-                record.get("category_name");
-
-        CategoryType categoryType =
-                CategoryType.valueOf(record.get("category_type").trim().toUpperCase());
-
-        Category category =
-                categoryRepository
-                        .findByNameAndUserAndType(
-                                categoryName, user, categoryType
-                        )
-                        .orElseGet(() -> {
-                            Category c = new Category();
-                            c.setName(categoryName);
-                            c.setType(categoryType);
-                            c.setUser(user);
-                            return categoryRepository.save(c);
-                        });
-
-        Transaction transaction = new Transaction();
-        transaction.setUser(user);
-        transaction.setCategory(category);
-        transaction.setAmount(amount);
-        transaction.setTransactionDate(date);
-        transaction.setDescription(description);
-
-        return transaction;
-    }
-
-
+    @Transactional
     public Transaction saveTransaction(AddTransactionRequest request, Integer userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        Category category = categoryRepository.findById(request.categoryId())
-                .filter(c -> c.getUser() == null || c.getUser().getId().equals(userId))
+        // iz cachea: globalna ili korisnikova kategorija, bez upita; transakcija treba samo id i tip
+        Category category = categoryCache.visible(userId, request.categoryId())
+                .map(c -> c.toReference(user))
                 .orElseThrow(() -> new RuntimeException("Category not allowed"));
 
         Transaction transaction = new Transaction();
         transaction.setUser(user);
         transaction.setCategory(category);
-        transaction.setAmount(request.amount());
+        // baza zaokruzuje na cente, rollup i odgovor moraju vidjeti isti iznos
+        transaction.setAmount(Money.round(request.amount()));
         transaction.setTransactionDate(request.transactionDate());
         transaction.setDescription(request.description());
-        return transactionRepository.save(transaction);
+
+        Transaction saved = transactionRepository.save(transaction);
+        monthlyRollupService.recordInsert(saved);
+        eventPublisher.publishEvent(TransactionsChangedEvent.inserted(saved));
+        return saved;
     }
 
+    @Transactional
     public void deleteTransaction(Integer id, Integer userId) {
-        Transaction t = transactionRepository.findById(id)
+        Transaction t = transactionRepository.findWithCategoryById(id)
                 .orElseThrow(() -> new RuntimeException("Transaction not found"));
 
         if (!t.getUser().getId().equals(userId)) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Forbidden");
         }
 
-        transactionRepository.delete(t);
+        // s datumom se brise samo iz particije te godine
+        transactionRepository.deleteByIdAndTransactionDate(t.getId(), t.getTransactionDate());
+        monthlyRollupService.recordDelete(t);
+        eventPublisher.publishEvent(TransactionsChangedEvent.deleted(t));
     }
 
-    // racunanje novaca na racunu za taj mjesec
+    // racunanje novaca na racunu za taj mjesec, iz rollupa umjesto svih transakcija mjeseca
     public MonthlyBalanceRecord getCurrentMonthBalance(Integer userId) {
+        return monthlyCategoryRollupRepository.balanceForMonth(
+                userId, LocalDate.now().withDayOfMonth(1)
+        );
+    }
 
-        LocalDate now = LocalDate.now();
-        LocalDate startOfMonth = now.withDayOfMonth(1);
-        LocalDate endOfMonth = now.withDayOfMonth(now.lengthOfMonth());
-
-        List<Transaction> transactions =
-                transactionRepository.findForUserAndMonth(
-                        userId, startOfMonth, endOfMonth
-                );
-
-        BigDecimal income = BigDecimal.ZERO;
-        BigDecimal expense = BigDecimal.ZERO;
-
-        for (Transaction t : transactions) {
-            if (INCOME.equals(t.getCategory().getType())) {
-                income = income.add(t.getAmount());
-            } else if (EXPENSE.equals(t.getCategory().getType())) {
-                expense = expense.add(t.getAmount());
-            }
-        }
-
+    // isto, iz vec ucitanih stupaca (dashboard summary)
+    public MonthlyBalanceRecord getCurrentMonthBalance(TransactionColumns columns) {
+        LocalDate today = LocalDate.now();
+        TransactionColumns.Balance balance = columns.balanceBetween(
+                today.withDayOfMonth(1), today.withDayOfMonth(today.lengthOfMonth()));
         return new MonthlyBalanceRecord(
-                income,
-                expense,
-                income.subtract(expense)
+                Money.ofCents(balance.incomeCents()).toBigDecimal(),
+                Money.ofCents(balance.expenseCents()).toBigDecimal(),
+                Money.ofCents(balance.incomeCents() - balance.expenseCents()).toBigDecimal()
         );
     }
-}
\ No newline at end of file
+}
@@ -1,86 +1,169 @@
 package com.havana.backend.service;
 
-import com.havana.backend.repository.CategoryRepository;
-import com.havana.backend.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.havana.backend.model.CategoryType;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellRangeAddressList;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Serves the import template as a rendered, immutable byte array. A user's template depends only
+ * on the categories they can pick, so rendered files are cached by that list and shared between
+ * users who see the same categories; which list a user has comes from the {@link CategoryCache}.
+ */
 @Service
-@RequiredArgsConstructor
 public class TransactionTemplateXlsxService {
 
+    static final String[] COLUMNS = TransactionExportService.COLUMNS;
+
+    // redaka s pripremljenom validacijom tipa i kategorije
+    static final int TEMPLATE_ROWS = 1000;
+
+    /**
+     * A rendered template.
+     *
+     * @param content      the xlsx file; shared by every request, so it must never be modified
+     * @param etag         strong validator, a hash of {@code content}
+     * @param lastModified when the file was rendered, to the second as in the HTTP header
+     */
+    public record XlsxTemplate(byte[] content, String etag, Instant lastModified) {}
+
+    // ono sto se od kategorije vidi u templateu
+    private record TemplateCategory(String name, CategoryType type) {}
+
+    private final CategoryCache categoryCache;
+
+    private final Cache<List<TemplateCategory>, XlsxTemplate> templates;
+
+    public TransactionTemplateXlsxService(
+            CategoryCache categoryCache,
+            @Value("${fintrack.template.cache.max-templates:500}") long maxTemplates,
+            @Value("${fintrack.template.cache.expire-after-access:1h}") Duration expireAfterAccess,
+            MeterRegistry meterRegistry
+    ) {
+        this.categoryCache = categoryCache;
+        this.templates = Caffeine.newBuilder()
+                .maximumSize(maxTemplates)
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, templates, "xlsx-templates");
+    }
+
+    public XlsxTemplate templateFor(Integer userId) {
+        List<TemplateCategory> categories = categoryCache.forUser(userId).stream()
+                .map(c -> new TemplateCategory(c.name(), c.type()))
+                .sorted(Comparator.comparing(TemplateCategory::name, String.CASE_INSENSITIVE_ORDER)
+                        .thenComparing(TemplateCategory::type))
+                .toList();
+        // renderiranje je samo CPU, pa smije ici kroz loader i tako se ne radi dvaput za istu listu
+        return templates.get(categories, TransactionTemplateXlsxService::render);
+    }
+
     // generiranje tablice u koju se upisuju transakcije
-    public ByteArrayInputStream generateExcelTemplate() {
-        try (Workbook workbook = new XSSFWorkbook()) {
+    private static XlsxTemplate render(List<TemplateCategory> categories) {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
 
             Sheet sheet = workbook.createSheet("Transactions");
 
-            // stupci
-            Row header = sheet.createRow(0);
-            String[] columns = {
-                    "transaction_date",
-                    "amount",
-                    "description",
-                    "category_name",
-                    "category_type"
-            };
-
             CellStyle headerStyle = workbook.createCellStyle();
             Font font = workbook.createFont();
             font.setBold(true);
             headerStyle.setFont(font);
 
-            for (int i = 0; i < columns.length; i++) {
+            // stupci, fiksna sirina umjesto autoSizeColumn koji mjeri fontove
+            Row header = sheet.createRow(0);
+            for (int i = 0; i < COLUMNS.length; i++) {
                 Cell cell = header.createCell(i);
-                cell.setCellValue(columns[i]);
+                cell.setCellValue(COLUMNS[i]);
                 cell.setCellStyle(headerStyle);
-                sheet.autoSizeColumn(i);
+                sheet.setColumnWidth(i, (COLUMNS[i].length() + 4) * 256);
             }
 
-            DataValidationHelper validationHelper =
-                    sheet.getDataValidationHelper();
-
-            DataValidationConstraint constraint =
-                    validationHelper.createExplicitListConstraint(
-                            new String[]{"INCOME", "EXPENSE"}
-                    );
-
-            CellRangeAddressList addressList =
-                    new CellRangeAddressList(1, 1000, 4, 4);
-
-            DataValidation validation =
-                    validationHelper.createValidation(constraint, addressList);
-
-            validation.setSuppressDropDownArrow(false);
-            validation.setShowErrorBox(true);
-            sheet.addValidationData(validation);
-
-            // ovo je format datuma, kako treba izgledati
+            // ovo je format datuma, kako treba izgledati; stil stupca vrijedi i za retke koje korisnik doda
             CellStyle dateStyle = workbook.createCellStyle();
-            CreationHelper creationHelper = workbook.getCreationHelper();
             dateStyle.setDataFormat(
-                    creationHelper.createDataFormat().getFormat("yyyy-mm-dd")
+                    workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd")
             );
+            sheet.setDefaultColumnStyle(0, dateStyle);
+
+            DataValidationHelper validationHelper = sheet.getDataValidationHelper();
 
-            for (int i = 1; i <= 1000; i++) {
-                sheet.createRow(i).createCell(0).setCellStyle(dateStyle);
+            DataValidation typeValidation = validationHelper.createValidation(
+                    validationHelper.createExplicitListConstraint(
+                            new String[]{CategoryType.INCOME.name(), CategoryType.EXPENSE.name()}
+                    ),
+                    new CellRangeAddressList(1, TEMPLATE_ROWS, 4, 4)
+            );
+            typeValidation.setSuppressDropDownArrow(false);
+            typeValidation.setShowErrorBox(true);
+            sheet.addValidationData(typeValidation);
+
+            if (!categories.isEmpty()) {
+                addCategorySheet(workbook, categories);
+
+                DataValidation categoryValidation = validationHelper.createValidation(
+                        validationHelper.createFormulaListConstraint(
+                                "Categories!$A$2:$A$" + (categories.size() + 1)
+                        ),
+                        new CellRangeAddressList(1, TEMPLATE_ROWS, 3, 3)
+                );
+                categoryValidation.setSuppressDropDownArrow(false);
+                // nova kategorija se pri importu kreira, pa lista samo predlaze
+                categoryValidation.setShowErrorBox(false);
+                sheet.addValidationData(categoryValidation);
             }
 
             // ovdje je export datoteke
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
             workbook.write(out);
-            return new ByteArrayInputStream(out.toByteArray());
+            byte[] content = out.toByteArray();
+
+            return new XlsxTemplate(content, etag(content), Instant.now().truncatedTo(ChronoUnit.SECONDS));
 
         } catch (IOException e) {
             throw new RuntimeException("Greška pri generiranju Excel template-a", e);
         }
     }
-}
 
+    // skriveni list s kategorijama korisnika, izvor za padajuci izbornik category_name
+    private static void addCategorySheet(Workbook workbook, List<TemplateCategory> categories) {
+        Sheet sheet = workbook.createSheet("Categories");
+        Row header = sheet.createRow(0);
+        header.createCell(0).setCellValue("category_name");
+        header.createCell(1).setCellValue("category_type");
+
+        int rowNum = 1;
+        for (TemplateCategory category : categories) {
+            Row row = sheet.createRow(rowNum++);
+            row.createCell(0).setCellValue(category.name());
+            row.createCell(1).setCellValue(category.type().name());
+        }
+        workbook.setSheetHidden(workbook.getSheetIndex(sheet), true);
+    }
+
+    private static String etag(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.havana.backend.service;
+
+import com.havana.backend.model.CategoryType;
+import com.havana.backend.model.Money;
+import com.havana.backend.model.Transaction;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Published inside the writing transaction whenever a user's transactions are inserted or deleted.
+ * Listeners that keep anything derived from the history act on it once the transaction commits.
+ *
+ * @param deltas the changed rows, or {@code null} when the change cannot be described row by row
+ *               and everything derived for the user has to be rebuilt
+ */
+public record TransactionsChangedEvent(Integer userId, List<Delta> deltas) {
+
+    /**
+     * One inserted (count &gt; 0) or deleted (count &lt; 0) group of transactions on a date and category.
+     */
+    public record Delta(
+            LocalDate date,
+            Integer categoryId, // null za transakcije bez kategorije
+            boolean expense,
+            long count,
+            Money amount // s predznakom: brisanje je negativno
+    ) {}
+
+    public static TransactionsChangedEvent inserted(Transaction t) {
+        return new TransactionsChangedEvent(t.getUser().getId(), List.of(delta(t, 1)));
+    }
+
+    public static TransactionsChangedEvent deleted(Transaction t) {
+        return new TransactionsChangedEvent(t.getUser().getId(), List.of(delta(t, -1)));
+    }
+
+    public static TransactionsChangedEvent reset(Integer userId) {
+        return new TransactionsChangedEvent(userId, null);
+    }
+
+    public static boolean isExpense(CategoryType type) {
+        return type == null || type == CategoryType.EXPENSE;
+    }
+
+    private static Delta delta(Transaction t, int sign) {
+        return new Delta(
+                t.getTransactionDate(),
+                t.getCategory() != null ? t.getCategory().getId() : null,
+                isExpense(t.getCategory() != null ? t.getCategory().getType() : null),
+                sign,
+                Money.of(t.getAmount()).times(sign)
+        );
+    }
+}
@@ -0,0 +1,140 @@
+package com.havana.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Per-user values derived from the transaction history: loaded once, then kept current by applying
+ * the {@link TransactionsChangedEvent} deltas of committed writes.
+ * <p>
+ * A freshly loaded value is only kept if no write to that user was committing while it was read:
+ * each write bumps {@code changes} and holds {@code inFlight} from before its commit until after it,
+ * so a delta is applied exactly once, either through the load or on top of it.
+ *
+ * @param <V> the derived value; it must be safe to mutate through {@code applier} while readers use it
+ */
+final class UserSnapshots<V> {
+
+    private final Cache<Integer, V> cache;
+    private final Function<Integer, V> loader;
+    private final BiPredicate<V, TransactionsChangedEvent.Delta> applier;
+    private final Consumer<Integer> afterChange;
+    // WriteState drze samo get() u tijeku i registrirane sinkronizacije commita; kad ih nema, inFlight je 0
+    // i stanje se smije zaboraviti, pa ga uz slabe reference GC makne i mapa ne raste s brojem korisnika
+    private final Cache<Integer, WriteState> writeStates = Caffeine.newBuilder().weakValues().build();
+
+    private static final class WriteState {
+        private long changes;
+        private int inFlight;
+    }
+
+    /**
+     * @param applier     applies one delta, returns false when the value cannot follow it and has to be reloaded
+     * @param afterChange runs once a committed write has been applied (or dropped), outside the lock
+     */
+    UserSnapshots(
+            Cache<Integer, V> cache,
+            Function<Integer, V> loader,
+            BiPredicate<V, TransactionsChangedEvent.Delta> applier,
+            Consumer<Integer> afterChange
+    ) {
+        this.cache = cache;
+        this.loader = loader;
+        this.applier = applier;
+        this.afterChange = afterChange;
+    }
+
+    V get(Integer userId) {
+        V cached = cache.getIfPresent(userId);
+        if (cached != null) return cached;
+
+        WriteState state = writeState(userId);
+        long changesBefore;
+        boolean quiet;
+        synchronized (state) {
+            changesBefore = state.changes;
+            quiet = state.inFlight == 0;
+        }
+
+        V loaded = loader.apply(userId);
+
+        synchronized (state) {
+            if (quiet && state.inFlight == 0 && state.changes == changesBefore) {
+                V existing = cache.asMap().putIfAbsent(userId, loaded);
+                if (existing != null) return existing;
+            }
+        }
+        return loaded;
+    }
+
+    void onTransactionsChanged(TransactionsChangedEvent event) {
+        WriteState state = writeState(event.userId());
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            synchronized (state) {
+                state.changes++;
+                applyCommitted(event);
+            }
+            afterChange.accept(event.userId());
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            private boolean committing;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                synchronized (state) {
+                    state.changes++;
+                    state.inFlight++;
+                }
+                committing = true;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                synchronized (state) {
+                    if (committing) state.inFlight--;
+
+                    if (status == STATUS_COMMITTED) {
+                        applyCommitted(event);
+                    } else if (status == STATUS_UNKNOWN) {
+                        cache.invalidate(event.userId());
+                    }
+                }
+                afterChange.accept(event.userId());
+            }
+        });
+    }
+
+    // zove se pod lockom WriteState-a
+    private void applyCommitted(TransactionsChangedEvent event) {
+        if (event.deltas() == null) {
+            cache.invalidate(event.userId());
+            return;
+        }
+
+        V value = cache.getIfPresent(event.userId());
+        if (value == null) return; // ucitat ce se svjeze kad zatreba
+
+        for (TransactionsChangedEvent.Delta delta : event.deltas()) {
+            if (!applier.test(value, delta)) {
+                cache.invalidate(event.userId());
+                return;
+            }
+        }
+        // tezina u cacheu s ogranicenjem memorije racuna se pri upisu, pa se vrijednost ponovno upise
+        cache.asMap().computeIfPresent(event.userId(), (id, v) -> v);
+    }
+
+    private WriteState writeState(Integer userId) {
+        return writeStates.get(userId, id -> new WriteState());
+    }
+}
@@ -2,6 +2,8 @@ package com.havana.backend.specification;
 
 import com.havana.backend.model.Transaction;
 import com.havana.backend.model.User;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
@@ -15,6 +17,7 @@ public class TransactionSpecification {
                 cb.equal(root.get("user"), user);
     }
 
+    // lower(description) LIKE koristi trigram GIN indeks iz V3__pretraga_opisa.sql
     public static Specification<Transaction> descriptionLike(String description) {
         return (root, query, cb) ->
                 cb.like(
@@ -23,6 +26,33 @@ public class TransactionSpecification {
                 );
     }
 
+    /**
+     * Word search, {@code websearch_to_tsquery} syntax. Served by the GIN index on
+     * {@code to_tsvector('simple', description)}, see {@code SearchFunctionContributor}.
+     */
+    public static Specification<Transaction> descriptionMatchesWords(String words) {
+        return (root, query, cb) ->
+                cb.isTrue(cb.function("fts_match", Boolean.class,
+                        root.get("description"), cb.literal(words)));
+    }
+
+    /**
+     * Orders by how well the description matches, most relevant first, then newest. Spring Data
+     * keeps this order only when the page request itself is unsorted, and drops it for the count query.
+     */
+    public static Specification<Transaction> orderByRelevance(String term, boolean words) {
+        return (root, query, cb) -> {
+            Expression<Float> rank = cb.function(words ? "fts_rank" : "trgm_similarity", Float.class,
+                    root.get("description"), cb.literal(term));
+            query.orderBy(
+                    cb.desc(rank),
+                    cb.desc(root.get("transactionDate")),
+                    cb.desc(root.get("id"))
+            );
+            return cb.conjunction();
+        };
+    }
+
     public static Specification<Transaction> categoryNameEquals(String categoryName) {
         return (root, query, cb) ->
                 cb.equal(cb.lower(root.get("category").get("name")),
@@ -40,6 +70,29 @@ public class TransactionSpecification {
                 cb.between(root.get("amount"), minAmount, maxAmount);
     }
 
+    /**
+     * Keyset condition: rows strictly after (value, id) in the given sort direction. Written as
+     * {@code key <= value AND (key < value OR id < lastId)} so the index on the sort key gets a bound.
+     */
+    public static <Y extends Comparable<? super Y>> Specification<Transaction> seekAfter(
+            String attribute, Y value, Integer lastId, boolean descending) {
+        return (root, query, cb) -> {
+            Path<Y> key = root.get(attribute);
+            Path<Integer> id = root.get("id");
+
+            if (descending) {
+                return cb.and(
+                        cb.lessThanOrEqualTo(key, value),
+                        cb.or(cb.lessThan(key, value), cb.lessThan(id, lastId))
+                );
+            }
+            return cb.and(
+                    cb.greaterThanOrEqualTo(key, value),
+                    cb.or(cb.greaterThan(key, value), cb.greaterThan(id, lastId))
+            );
+        };
+    }
+
     public static Specification<Transaction> dateBetween(
             LocalDate fromDate, LocalDate toDate) {
         return (root, query, cb) ->
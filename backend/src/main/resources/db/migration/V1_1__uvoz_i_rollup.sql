@@ -0,0 +1,65 @@
+-- tablice koje su dodane nakon BAZA/FinTrackBaza.sql (V1): poslovi uvoza i mjesecni rollup
+-- postojeca baza se oznaci kao verzija 1 (spring.flyway.baseline-on-migrate), pa ova skripta mora
+-- raditi i nad cistim V1 i nad shemom koju je vec napravio ddl-auto; id-eve na sekvence prebacuje V2
+
+-- V1 ima isAdmin (bez navodnika, dakle isadmin), a entitet User ocekuje is_admin
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_schema = current_schema() AND table_name = 'users' AND column_name = 'is_admin') THEN
+        ALTER TABLE users RENAME COLUMN isadmin TO is_admin;
+    ELSIF EXISTS (SELECT 1 FROM information_schema.columns
+                  WHERE table_schema = current_schema() AND table_name = 'users' AND column_name = 'isadmin') THEN
+        -- ddl-auto je dodao is_admin uz postojeci isadmin; aplikacija je citala samo is_admin
+        ALTER TABLE users DROP COLUMN isadmin;
+    END IF;
+END
+$$;
+
+UPDATE users SET is_admin = false WHERE is_admin IS NULL;
+ALTER TABLE users ALTER COLUMN is_admin SET DEFAULT false;
+ALTER TABLE users ALTER COLUMN is_admin SET NOT NULL;
+
+CREATE TABLE IF NOT EXISTS import_jobs (
+                             id INT PRIMARY KEY,
+                             user_id INT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+                             file_name VARCHAR(255),
+                             spool_path TEXT NOT NULL,
+                             spool_host VARCHAR(255) NOT NULL,
+                             format VARCHAR(10) NOT NULL DEFAULT 'CSV' CHECK (format IN ('CSV', 'XLSX')),
+                             status VARCHAR(20) NOT NULL CHECK (status IN ('QUEUED', 'RUNNING', 'COMPLETED', 'FAILED', 'CANCELLED')),
+                             total_bytes BIGINT NOT NULL DEFAULT 0,
+                             bytes_read BIGINT NOT NULL DEFAULT 0,
+                             rows_parsed BIGINT NOT NULL DEFAULT 0,
+                             rows_imported BIGINT NOT NULL DEFAULT 0,
+                             rows_failed BIGINT NOT NULL DEFAULT 0,
+                             cancel_requested BOOLEAN NOT NULL DEFAULT false,
+                             error_message TEXT,
+                             created_at TIMESTAMP DEFAULT NOW(),
+                             started_at TIMESTAMP,
+                             finished_at TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS import_job_errors (
+                                   id INT PRIMARY KEY,
+                                   job_id INT NOT NULL REFERENCES import_jobs(id) ON DELETE CASCADE,
+                                   row_number BIGINT NOT NULL,
+                                   reason TEXT NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_import_jobs_user
+    ON import_jobs(user_id, created_at);
+
+CREATE INDEX IF NOT EXISTS idx_import_job_errors_job
+    ON import_job_errors(job_id, row_number);
+
+-- mjesecni zbrojevi po korisniku i kategoriji, azuriraju se u istoj transakciji kao i transactions
+-- category_id = 0 za transakcije bez kategorije; tip se cita iz categories
+CREATE TABLE IF NOT EXISTS user_month_category_rollup (
+                                            user_id INT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+                                            month_start DATE NOT NULL,
+                                            category_id INT NOT NULL,
+                                            total NUMERIC(14,2) NOT NULL DEFAULT 0,
+                                            tx_count BIGINT NOT NULL DEFAULT 0,
+                                            PRIMARY KEY (user_id, month_start, category_id)
+);
@@ -0,0 +1,38 @@
+-- prelazak s IDENTITY stupaca na sekvence s korakom 50 (Hibernate pooled optimizer, batch INSERT)
+-- nad novom bazom ne mijenja nista, a nad shemom koju je napravio Hibernate (ddl-auto) mice IDENTITY;
+-- sekvenca se postavlja iznad najveceg postojeceg id-a, pa se novi blokovi ne preklapaju s postojecim redovima
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS users_id_seq;
+ALTER SEQUENCE users_id_seq INCREMENT BY 50 OWNED BY users.id;
+SELECT setval('users_id_seq', COALESCE(MAX(id), 0) + 50) FROM users;
+ALTER TABLE users ALTER COLUMN id SET DEFAULT nextval('users_id_seq');
+
+ALTER TABLE categories ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS categories_id_seq;
+ALTER SEQUENCE categories_id_seq INCREMENT BY 50 OWNED BY categories.id;
+SELECT setval('categories_id_seq', COALESCE(MAX(id), 0) + 50) FROM categories;
+ALTER TABLE categories ALTER COLUMN id SET DEFAULT nextval('categories_id_seq');
+
+ALTER TABLE transactions ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS transactions_id_seq;
+ALTER SEQUENCE transactions_id_seq INCREMENT BY 50 OWNED BY transactions.id;
+SELECT setval('transactions_id_seq', COALESCE(MAX(id), 0) + 50) FROM transactions;
+ALTER TABLE transactions ALTER COLUMN id SET DEFAULT nextval('transactions_id_seq');
+
+ALTER TABLE saving_goals ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS saving_goals_id_seq;
+ALTER SEQUENCE saving_goals_id_seq INCREMENT BY 50 OWNED BY saving_goals.id;
+SELECT setval('saving_goals_id_seq', COALESCE(MAX(id), 0) + 50) FROM saving_goals;
+ALTER TABLE saving_goals ALTER COLUMN id SET DEFAULT nextval('saving_goals_id_seq');
+
+ALTER TABLE import_jobs ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS import_jobs_id_seq;
+ALTER SEQUENCE import_jobs_id_seq INCREMENT BY 50 OWNED BY import_jobs.id;
+SELECT setval('import_jobs_id_seq', COALESCE(MAX(id), 0) + 50) FROM import_jobs;
+ALTER TABLE import_jobs ALTER COLUMN id SET DEFAULT nextval('import_jobs_id_seq');
+
+ALTER TABLE import_job_errors ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS import_job_errors_id_seq;
+ALTER SEQUENCE import_job_errors_id_seq INCREMENT BY 50 OWNED BY import_job_errors.id;
+SELECT setval('import_job_errors_id_seq', COALESCE(MAX(id), 0) + 50) FROM import_job_errors;
+ALTER TABLE import_job_errors ALTER COLUMN id SET DEFAULT nextval('import_job_errors_id_seq');
@@ -0,0 +1,11 @@
+-- indeksi za pretrazivanje opisa transakcija (/api/transactions/search i /export)
+-- searchMode=contains: lower(description) LIKE '%pojam%' koristi trigram GIN indeks (pojam od barem 3 znaka)
+-- searchMode=words: to_tsvector('simple', ...) @@ websearch_to_tsquery(...) koristi FTS GIN indeks
+-- izrazi moraju biti isti kao u SearchFunctionContributor i TransactionExportService, inace se indeks ne koristi
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_transactions_description_trgm
+    ON transactions USING gin (lower(description) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_transactions_description_fts
+    ON transactions USING gin (to_tsvector('simple', coalesce(description, '')));
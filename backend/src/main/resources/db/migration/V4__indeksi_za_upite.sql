@@ -0,0 +1,55 @@
+-- indeksi slozeni prema upitima iz TransactionSpecification, repozitorija i JdbcTemplate servisa
+-- svaki upit iz QueryPlanIntegrationTest mora ovdje imati indeks koji ga pokriva
+-- (na velikoj tablici transactions ovo treba pustiti u periodu malog prometa, CREATE INDEX zakljuca pisanje)
+
+-- popis, keyset i period: user_id = ? [AND transaction_date BETWEEN] ORDER BY transaction_date DESC, id DESC
+-- amount i category_id u INCLUDE: tjedni zbroj i dnevni zbrojevi za statistike citaju samo indeks
+DROP INDEX IF EXISTS idx_transactions_user_date;
+CREATE INDEX IF NOT EXISTS idx_transactions_user_date
+    ON transactions (user_id, transaction_date DESC, id DESC)
+    INCLUDE (amount, category_id);
+
+-- sortiranje po iznosu i raspon iznosa: user_id = ? [AND amount BETWEEN] ORDER BY amount, id
+CREATE INDEX IF NOT EXISTS idx_transactions_user_amount
+    ON transactions (user_id, amount, id);
+
+-- filter po kategoriji (ime, tip kroz join) i potrosnja po kategoriji korisnika
+CREATE INDEX IF NOT EXISTS idx_transactions_user_category
+    ON transactions (user_id, category_id, transaction_date DESC)
+    INCLUDE (amount);
+
+-- prosjek kategorije preko svih korisnika i existsByCategory; amount za index-only scan
+DROP INDEX IF EXISTS idx_transactions_category;
+CREATE INDEX IF NOT EXISTS idx_transactions_category
+    ON transactions (category_id)
+    INCLUDE (amount);
+
+-- categoryNameEquals: lower(c.name) = ?
+CREATE INDEX IF NOT EXISTS idx_categories_lower_name
+    ON categories (lower(name));
+
+-- globalne kategorije (user_id IS NULL) iz findForUser; korisnikove pokriva UNIQUE (user_id, name)
+CREATE INDEX IF NOT EXISTS idx_categories_global
+    ON categories (name)
+    WHERE user_id IS NULL;
+
+-- strani kljuc bez indeksa: popis ciljeva i ON DELETE CASCADE s users
+CREATE INDEX IF NOT EXISTS idx_saving_goals_user
+    ON saving_goals (user_id);
+
+-- zadnjih 20 importa korisnika
+DROP INDEX IF EXISTS idx_import_jobs_user;
+CREATE INDEX IF NOT EXISTS idx_import_jobs_user
+    ON import_jobs (user_id, created_at DESC);
+
+-- nedovrseni importi ovog hosta pri pokretanju; zavrsenih je puno, a ovi se brzo mijenjaju
+CREATE INDEX IF NOT EXISTS idx_import_jobs_unfinished
+    ON import_jobs (spool_host)
+    WHERE status IN ('QUEUED', 'RUNNING');
+
+-- admin pretraga korisnika: LOWER(email) LIKE '%...%'
+CREATE INDEX IF NOT EXISTS idx_users_email_trgm
+    ON users USING gin (lower(email) gin_trgm_ops);
+
+ANALYZE transactions;
+ANALYZE categories;
@@ -0,0 +1,146 @@
+-- transactions postaje tablica particionirana po godini (transaction_date)
+-- upiti s rasponom datuma citaju samo particije tih godina, a vacuum radi po particiji
+-- nove godine otvara TransactionPartitionService preko fintrack_create_transaction_partition
+-- stare godine se mogu arhivirati: particija se odvoji od transactions i pripoji transactions_archive,
+-- a transaction_history (live + arhiva) koriste statistike, rollup i analize kojima treba cijela povijest
+
+ALTER SEQUENCE transactions_id_seq OWNED BY NONE;
+ALTER TABLE transactions RENAME TO transactions_unpartitioned;
+
+-- imena indeksa i primarnog kljuca trebaju novoj tablici
+ALTER TABLE transactions_unpartitioned DROP CONSTRAINT IF EXISTS transactions_pkey;
+DROP INDEX IF EXISTS idx_transactions_user_date;
+DROP INDEX IF EXISTS idx_transactions_user_amount;
+DROP INDEX IF EXISTS idx_transactions_user_category;
+DROP INDEX IF EXISTS idx_transactions_category;
+DROP INDEX IF EXISTS idx_transactions_description_trgm;
+DROP INDEX IF EXISTS idx_transactions_description_fts;
+
+-- kljuc particije mora biti dio primarnog kljuca; id je i dalje jedinstven jer dolazi iz sekvence
+CREATE TABLE transactions (
+                              id INT NOT NULL DEFAULT nextval('transactions_id_seq'),
+                              user_id INT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+                              category_id INT REFERENCES categories(id),
+                              amount NUMERIC(12,2) NOT NULL CHECK (amount > 0),
+                              transaction_date DATE NOT NULL,
+                              description TEXT,
+                              created_at TIMESTAMP DEFAULT NOW(),
+                              PRIMARY KEY (id, transaction_date)
+) PARTITION BY RANGE (transaction_date);
+
+ALTER SEQUENCE transactions_id_seq OWNED BY transactions.id;
+
+-- datumi za koje jos nema particije (npr. import starih izvoda) dok ih odrzavanje ne premjesti
+CREATE TABLE transactions_default PARTITION OF transactions DEFAULT;
+
+-- isti indeksi kao u V3 i V4, na particioniranoj tablici se stvaraju na svakoj particiji
+CREATE INDEX idx_transactions_user_date
+    ON transactions (user_id, transaction_date DESC, id DESC)
+    INCLUDE (amount, category_id);
+
+CREATE INDEX idx_transactions_user_amount
+    ON transactions (user_id, amount, id);
+
+CREATE INDEX idx_transactions_user_category
+    ON transactions (user_id, category_id, transaction_date DESC)
+    INCLUDE (amount);
+
+CREATE INDEX idx_transactions_category
+    ON transactions (category_id)
+    INCLUDE (amount);
+
+CREATE INDEX idx_transactions_description_trgm
+    ON transactions USING gin (lower(description) gin_trgm_ops);
+
+CREATE INDEX idx_transactions_description_fts
+    ON transactions USING gin (to_tsvector('simple', coalesce(description, '')));
+
+-- arhiva: iste kolone, bez defaulta i provjera; indeks kao idx_transactions_user_date,
+-- pa ga particija pri pripajanju samo preuzme umjesto da se gradi novi
+CREATE TABLE transactions_archive (LIKE transactions) PARTITION BY RANGE (transaction_date);
+
+-- LIKE ne kopira strane kljuceve; bez njih brisanje korisnika ostavlja arhivirane retke
+-- (i rollup rebuild iz transaction_history pada na FK prema users)
+ALTER TABLE transactions_archive
+    ADD FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    ADD FOREIGN KEY (category_id) REFERENCES categories(id);
+
+CREATE INDEX idx_transactions_archive_user_date
+    ON transactions_archive (user_id, transaction_date DESC, id DESC)
+    INCLUDE (amount, category_id);
+
+CREATE VIEW transaction_history AS
+    SELECT id, user_id, category_id, amount, transaction_date, description, created_at FROM transactions
+    UNION ALL
+    SELECT id, user_id, category_id, amount, transaction_date, description, created_at FROM transactions_archive;
+
+-- otvara particiju za godinu i u nju prebacuje retke te godine iz default particije;
+-- false ako particija vec postoji (i ako je ta godina arhivirana, njeni novi retci ostaju u default)
+-- obje funkcije uzimaju isti advisory lock do kraja transakcije: vise replika koje istovremeno
+-- krenu (start, cron) inace produ provjeru zajedno i sporija padne na "relation already exists"
+CREATE FUNCTION fintrack_create_transaction_partition(p_year INT) RETURNS BOOLEAN
+    LANGUAGE plpgsql AS $$
+DECLARE
+    v_name TEXT := 'transactions_' || p_year;
+    v_from DATE := make_date(p_year, 1, 1);
+    v_to   DATE := make_date(p_year + 1, 1, 1);
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('fintrack_partitions'));
+
+    IF to_regclass(v_name) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I (LIKE transactions INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', v_name);
+    EXECUTE format(
+            'WITH moved AS (DELETE FROM transactions_default WHERE transaction_date >= %L AND transaction_date < %L RETURNING *) '
+                || 'INSERT INTO %I SELECT * FROM moved',
+            v_from, v_to, v_name);
+    EXECUTE format('ALTER TABLE transactions ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)', v_name, v_from, v_to);
+    RETURN TRUE;
+END
+$$;
+
+-- odvaja particiju godine od transactions i pripaja je transactions_archive; false ako nije live particija
+CREATE FUNCTION fintrack_archive_transaction_partition(p_year INT) RETURNS BOOLEAN
+    LANGUAGE plpgsql AS $$
+DECLARE
+    v_name TEXT := 'transactions_' || p_year;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('fintrack_partitions'));
+
+    IF NOT EXISTS (
+        SELECT 1 FROM pg_inherits
+        WHERE inhrelid = to_regclass(v_name)
+          AND inhparent = 'transactions'::regclass
+    ) THEN
+        RETURN FALSE;
+    END IF;
+
+    EXECUTE format('ALTER TABLE transactions DETACH PARTITION %I', v_name);
+    EXECUTE format('ALTER TABLE transactions_archive ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   v_name, make_date(p_year, 1, 1), make_date(p_year + 1, 1, 1));
+    RETURN TRUE;
+END
+$$;
+
+-- particije za godine postojecih podataka (najvise 30 godina unatrag) i sljedecu godinu
+SELECT fintrack_create_transaction_partition(y)
+FROM generate_series(
+        GREATEST(
+                LEAST(
+                        (SELECT EXTRACT(YEAR FROM MIN(transaction_date))::int FROM transactions_unpartitioned),
+                        EXTRACT(YEAR FROM current_date)::int - 1
+                ),
+                EXTRACT(YEAR FROM current_date)::int - 30
+        ),
+        EXTRACT(YEAR FROM current_date)::int + 1
+     ) AS y;
+
+INSERT INTO transactions (id, user_id, category_id, amount, transaction_date, description, created_at)
+SELECT id, user_id, category_id, amount, transaction_date, description, created_at
+FROM transactions_unpartitioned;
+
+DROP TABLE transactions_unpartitioned;
+
+ANALYZE transactions;
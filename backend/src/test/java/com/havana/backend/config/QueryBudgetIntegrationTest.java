@@ -0,0 +1,124 @@
+package com.havana.backend.config;
+
+import com.havana.backend.model.Category;
+import com.havana.backend.model.CategoryType;
+import com.havana.backend.repository.CategoryRepository;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.env.Environment;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Calls the read routes of a user with a few weeks of history and fails when a route runs more SQL
+ * statements than its {@link QueryBudget}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryBudgetIntegrationTest {
+
+	private static EmbeddedPostgres postgres;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private Environment environment;
+
+	private final HttpClient client = HttpClient.newBuilder()
+			.cookieHandler(new CookieManager())
+			.build();
+
+	private URI baseUri;
+
+	@DynamicPropertySource
+	static void database(DynamicPropertyRegistry registry) throws IOException {
+		postgres = EmbeddedPostgres.builder().start();
+		registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+		registry.add("spring.datasource.username", () -> "postgres");
+		registry.add("spring.datasource.password", () -> "postgres");
+		registry.add("FRONTEND_URL", () -> "http://localhost");
+		registry.add("management.server.port", () -> "0");
+		registry.add("fintrack.sql.expose-headers", () -> "true");
+	}
+
+	@BeforeAll
+	void createHistory() throws Exception {
+		baseUri = URI.create("http://localhost:" + environment.getRequiredProperty("local.server.port"));
+
+		List<Category> categories = categoryRepository.saveAll(List.of(
+				new Category(null, null, "Hrana", CategoryType.EXPENSE),
+				new Category(null, null, "Prijevoz", CategoryType.EXPENSE)
+		));
+
+		send(post("/api/auth/register",
+				"{\"username\":\"budget\",\"email\":\"budget@fintrack.local\",\"password\":\"budget\"}"));
+
+		LocalDate today = LocalDate.now();
+		for (int day = 0; day < 40; day++) {
+			Category category = categories.get(day % categories.size());
+			send(post("/api/transactions", String.format(
+					"{\"categoryId\":%d,\"amount\":%d.50,\"transactionDate\":\"%s\",\"description\":\"test\"}",
+					category.getId(), 5 + day % 7, today.minusDays(day))));
+		}
+	}
+
+	@AfterAll
+	static void stopDatabase() throws IOException {
+		if (postgres != null) postgres.close();
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"/api/transactions",
+			"/api/transactions/monthly-balance",
+			"/api/dashboard/summary",
+			"/api/dashboard/spending-by-category",
+			"/api/dashboard/weekly-goal",
+			"/api/analysis/monthly?months=6",
+			"/api/analysis/daily?days=30",
+			"/api/predict/daily?date=2030-01-07",
+			"/api/predict/rolling-average?months=3",
+			"/api/savings-goals"
+	})
+	void routeStaysWithinQueryBudget(String path) throws Exception {
+		HttpResponse<String> response = send(HttpRequest.newBuilder(baseUri.resolve(path)).GET().build());
+
+		String budget = response.headers().firstValue(SqlStatementCountFilter.BUDGET_HEADER).orElse(null);
+		String statements = response.headers().firstValue(SqlStatementCountFilter.STATEMENTS_HEADER).orElseThrow();
+		assertTrue(budget != null, path + " declares no @QueryBudget");
+		assertTrue(Long.parseLong(statements) <= Long.parseLong(budget),
+				path + " ran " + statements + " statements, budget is " + budget);
+	}
+
+	private HttpRequest post(String path, String json) {
+		return HttpRequest.newBuilder(baseUri.resolve(path))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(json))
+				.build();
+	}
+
+	private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+		HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+		assertEquals(200, response.statusCode(), request.uri() + ": " + response.body());
+		return response;
+	}
+}
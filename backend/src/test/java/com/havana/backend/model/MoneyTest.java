@@ -0,0 +1,41 @@
+package com.havana.backend.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyTest {
+
+	@Test
+	void convertsExactlyBothWays() {
+		assertEquals(1250, Money.cents(new BigDecimal("12.50")));
+		assertEquals(1250, Money.cents(new BigDecimal("12.5")));
+		assertEquals(-1, Money.cents(new BigDecimal("-0.01")));
+		assertEquals(new BigDecimal("9999999999.99"), Money.of(new BigDecimal("9999999999.99")).toBigDecimal());
+		assertEquals(new BigDecimal("0.00"), Money.ZERO.toBigDecimal());
+	}
+
+	@Test
+	void roundsSubCentAmountsLikeTheDatabase() {
+		// NUMERIC(12,2) zaokruzuje pola od nule
+		assertEquals(1, Money.cents(new BigDecimal("0.005")));
+		assertEquals(0, Money.cents(new BigDecimal("0.004")));
+		assertEquals(1235, Money.cents(new BigDecimal("12.345")));
+		assertEquals(-1235, Money.cents(new BigDecimal("-12.345")));
+		assertEquals(new BigDecimal("12.35"), Money.round(new BigDecimal("12.345")));
+	}
+
+	@Test
+	void sumsWithoutDrift() {
+		// 0.1 + 0.2 u doubleu nije 0.3, u centima je
+		Money sum = Money.ZERO;
+		for (int i = 0; i < 1000; i++) sum = sum.plus(Money.of(new BigDecimal("0.10")));
+		assertEquals(new BigDecimal("100.00"), sum.toBigDecimal());
+		assertEquals(Money.ofCents(-30), Money.ofCents(20).minus(Money.ofCents(50)));
+		assertEquals(Money.ofCents(30), Money.ofCents(-30).abs());
+		assertThrows(ArithmeticException.class, () -> Money.ofCents(Long.MAX_VALUE).plus(Money.ofCents(1)));
+	}
+}
@@ -0,0 +1,109 @@
+package com.havana.backend.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A database built by hand from the pre-Flyway schema (V1, i.e. BAZA/FinTrackBaza.sql) with some
+ * data in it, then upgraded the way the application does it: stamped as version 1 by
+ * {@code baseline-on-migrate} and migrated from there.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class MigrationUpgradeIntegrationTest {
+
+	private EmbeddedPostgres postgres;
+	private JdbcTemplate jdbc;
+
+	private int userId;
+	private int categoryId;
+
+	@BeforeAll
+	void upgradeBaselineDatabase() throws IOException {
+		postgres = EmbeddedPostgres.builder().start();
+		jdbc = new JdbcTemplate(postgres.getPostgresDatabase());
+
+		jdbc.execute(new ClassPathResource("db/migration/V1__pocetna_shema.sql")
+				.getContentAsString(StandardCharsets.UTF_8));
+		userId = jdbc.queryForObject("""
+				INSERT INTO users (email, password_hash, username, isAdmin)
+				VALUES ('admin@fintrack.local', 'x', 'admin', true) RETURNING id
+				""", Integer.class);
+		jdbc.update("INSERT INTO users (email, password_hash, username) VALUES ('user@fintrack.local', 'x', 'user')");
+		categoryId = jdbc.queryForObject(
+				"INSERT INTO categories (name, type, user_id) VALUES ('Hrana', 'EXPENSE', NULL) RETURNING id", Integer.class);
+		jdbc.update("""
+				INSERT INTO transactions (user_id, category_id, amount, transaction_date, description)
+				VALUES (?, ?, 12.50, DATE '2023-05-04', 'kruh'), (?, ?, 40.00, CURRENT_DATE, 'ruck')
+				""", userId, categoryId, userId, categoryId);
+
+		Flyway.configure()
+				.dataSource(postgres.getPostgresDatabase())
+				.baselineOnMigrate(true)
+				.baselineVersion("1")
+				.load()
+				.migrate();
+	}
+
+	@AfterAll
+	void stopDatabase() throws IOException {
+		postgres.close();
+	}
+
+	@Test
+	void upgradeKeepsExistingRows() {
+		assertEquals(2, jdbc.queryForObject(
+				"SELECT count(*) FROM users WHERE email IN ('admin@fintrack.local', 'user@fintrack.local')", Integer.class));
+		assertEquals(2, jdbc.queryForObject(
+				"SELECT count(*) FROM transactions WHERE user_id = ?", Integer.class, userId));
+		assertEquals(true, jdbc.queryForObject("SELECT is_admin FROM users WHERE id = ?", Boolean.class, userId));
+		assertEquals(0, jdbc.queryForObject("SELECT count(*) FROM users WHERE is_admin IS NULL", Integer.class));
+	}
+
+	@Test
+	void upgradeCreatesTheTablesAddedAfterTheBaseline() {
+		int jobId = jdbc.queryForObject("""
+				INSERT INTO import_jobs (user_id, file_name, spool_path, spool_host, status)
+				VALUES (?, 'uvoz.csv', '/tmp/uvoz.csv', 'localhost', 'QUEUED') RETURNING id
+				""", Integer.class, userId);
+		jdbc.update("INSERT INTO import_job_errors (job_id, row_number, reason) VALUES (?, 3, 'neispravan iznos')", jobId);
+		jdbc.update("""
+				INSERT INTO user_month_category_rollup (user_id, month_start, category_id, total, tx_count)
+				VALUES (?, DATE '2023-05-01', ?, 12.50, 1)
+				""", userId, categoryId);
+
+		assertEquals(1, jdbc.queryForObject("SELECT count(*) FROM import_job_errors WHERE job_id = ?", Integer.class, jobId));
+	}
+
+	@Test
+	void idsComeFromSequencesAboveTheExistingRows() {
+		for (String table : new String[] {"users", "categories", "transactions", "saving_goals", "import_jobs", "import_job_errors"}) {
+			assertEquals(50, jdbc.queryForObject(
+					"SELECT increment_by FROM pg_sequences WHERE sequencename = ?", Integer.class, table + "_id_seq"), table);
+		}
+
+		int maxUser = jdbc.queryForObject("SELECT max(id) FROM users", Integer.class);
+		int newUser = jdbc.queryForObject(
+				"INSERT INTO users (email, password_hash, username) VALUES ('novi@fintrack.local', 'x', 'novi') RETURNING id",
+				Integer.class);
+		assertTrue(newUser > maxUser);
+
+		int maxTransaction = jdbc.queryForObject("SELECT max(id) FROM transactions", Integer.class);
+		int newTransaction = jdbc.queryForObject("""
+				INSERT INTO transactions (user_id, category_id, amount, transaction_date)
+				VALUES (?, ?, 5.00, CURRENT_DATE) RETURNING id
+				""", Integer.class, newUser, categoryId);
+		assertTrue(newTransaction > maxTransaction);
+	}
+}
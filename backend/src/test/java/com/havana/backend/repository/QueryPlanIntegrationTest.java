@@ -0,0 +1,331 @@
+package com.havana.backend.repository;
+
+import com.havana.backend.data.TransactionCursor;
+import com.havana.backend.data.TransactionFilterRequest;
+import com.havana.backend.service.TransactionService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Migrates an embedded PostgreSQL with the Flyway scripts, seeds 500 users with 100k transactions
+ * and checks with EXPLAIN that every per-user query of the specifications and repositories is
+ * answered from an index. Each case calls the real service or repository method; the statements
+ * Hibernate and the JdbcTemplate send for it are captured with their bind parameters by
+ * {@link StatementCapturingDataSource} and explained as they are. Jobs that read whole tables
+ * (rollup rebuild, drift check) and lookups on small tables are left out, a sequential scan is the
+ * right plan for them. Transactions are partitioned by year, so an index shows up in the plan under
+ * the name of its copy on each partition.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanIntegrationTest {
+
+	private static final int USERS = 500;
+	private static final int TRANSACTIONS = 100_000;
+	private static final int GLOBAL_CATEGORIES = 40;
+
+	// svi indeksi kojima je user_id prvi stupac
+	private static final List<String> USER_INDEXES =
+			List.of("idx_transactions_user_date", "idx_transactions_user_amount", "idx_transactions_user_category");
+
+	// default particija je nakon odrzavanja prazna, seq scan na njoj je ispravan plan
+	private static final Pattern SEQ_SCAN_ON_TRANSACTIONS = Pattern.compile("Seq Scan on transactions(?!_default)");
+
+	// indeks tocno tog imena i njegove kopije na particijama
+	private static final String INDEX_NAMES_SQL = """
+			SELECT c.relname FROM pg_class c
+			WHERE c.relkind IN ('i', 'I') AND c.relname = ?
+			UNION
+			SELECT child.relname FROM pg_inherits i
+			JOIN pg_class parent ON parent.oid = i.inhparent
+			JOIN pg_class child ON child.oid = i.inhrelid
+			WHERE parent.relname = ?
+			""";
+
+	private static EmbeddedPostgres postgres;
+	private static StatementCapturingDataSource capturing;
+
+	@Autowired
+	private TransactionService transactionService;
+
+	@Autowired
+	private TransactionRepository transactionRepository;
+
+	@Autowired
+	private TransactionHistoryRepository transactionHistoryRepository;
+
+	@Autowired
+	private MonthlyCategoryRollupRepository monthlyCategoryRollupRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private JdbcTemplate jdbc;
+
+	private int userId;
+	private String userEmail;
+	private int categoryId;
+
+	@DynamicPropertySource
+	static void database(DynamicPropertyRegistry registry) throws IOException {
+		postgres = EmbeddedPostgres.builder().start();
+		capturing = new StatementCapturingDataSource(postgres.getPostgresDatabase());
+		registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+		registry.add("spring.datasource.username", () -> "postgres");
+		registry.add("spring.datasource.password", () -> "postgres");
+		registry.add("FRONTEND_URL", () -> "http://localhost");
+	}
+
+	@TestConfiguration
+	static class CaptureStatements {
+
+		// pool otvara spojeve kroz capturing, pa svaki upit aplikacije prolazi kroz njega
+		@Bean
+		static BeanPostProcessor capturingDataSourcePostProcessor() {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessBeforeInitialization(Object bean, String beanName) {
+					if (bean instanceof HikariDataSource hikari) {
+						hikari.setDataSource(capturing);
+					}
+					return bean;
+				}
+			};
+		}
+	}
+
+	@BeforeAll
+	void seed() {
+		// mimo capturinga, punjenje i EXPLAIN se ne snimaju
+		jdbc = new JdbcTemplate(postgres.getPostgresDatabase());
+
+		jdbc.update("""
+				INSERT INTO users (email, password_hash, username)
+				SELECT 'user' || i || '@fintrack.local', 'x', 'user' || i
+				FROM generate_series(1, ?) i
+				""", USERS);
+		jdbc.update("""
+				INSERT INTO categories (name, type, user_id)
+				SELECT 'Kategorija ' || i, CASE WHEN i % 5 = 0 THEN 'INCOME' ELSE 'EXPENSE' END, NULL
+				FROM generate_series(1, ?) i
+				""", GLOBAL_CATEGORIES);
+		jdbc.update("INSERT INTO categories (name, type, user_id) SELECT 'Ljubimci', 'EXPENSE', id FROM users");
+
+		// deterministicki raspored: svaki korisnik ~200 transakcija kroz 3 godine i sve globalne kategorije
+		jdbc.update("""
+				WITH u AS (SELECT array_agg(id ORDER BY id) AS ids FROM users),
+				     c AS (SELECT array_agg(id ORDER BY id) AS ids FROM categories WHERE user_id IS NULL)
+				INSERT INTO transactions (user_id, category_id, amount, transaction_date, description)
+				SELECT u.ids[1 + g % ?],
+				       c.ids[1 + (g / ?) % ?],
+				       1 + (g::bigint * 7919 % 20000) / 100.0,
+				       current_date - (g::bigint * 104729 % 1095)::int,
+				       (ARRAY['Konzum', 'Lidl', 'INA gorivo', 'Najam stana', 'Kino Cinestar', 'Ljekarna', 'Spar', 'Tisak'])[1 + g % 8]
+				           || ' ' || g
+				FROM generate_series(0, ? - 1) g, u, c
+				""", USERS, USERS, GLOBAL_CATEGORIES, TRANSACTIONS);
+		// retci starijih godina su u default particiji dok ih odrzavanje ne premjesti
+		jdbc.queryForList("""
+				SELECT fintrack_create_transaction_partition(y)
+				FROM generate_series(EXTRACT(YEAR FROM current_date)::int - 3, EXTRACT(YEAR FROM current_date)::int) y
+				""", Boolean.class);
+		jdbc.update("""
+				INSERT INTO user_month_category_rollup (user_id, month_start, category_id, total, tx_count)
+				SELECT user_id, date_trunc('month', transaction_date)::date, COALESCE(category_id, 0), SUM(amount), COUNT(*)
+				FROM transactions
+				GROUP BY 1, 2, 3
+				""");
+		// visibility map za index-only scan i statistike za planer
+		jdbc.execute("VACUUM ANALYZE");
+
+		userId = jdbc.queryForObject("SELECT id FROM users ORDER BY id OFFSET 7 LIMIT 1", Integer.class);
+		userEmail = jdbc.queryForObject("SELECT email FROM users WHERE id = ?", String.class, userId);
+		categoryId = jdbc.queryForObject(
+				"SELECT id FROM categories WHERE name = 'Kategorija 3' AND user_id IS NULL", Integer.class);
+	}
+
+	@AfterAll
+	static void stopDatabase() throws IOException {
+		if (postgres != null) postgres.close();
+	}
+
+	Stream<Arguments> queries() {
+		LocalDate today = LocalDate.now();
+		return Stream.of(
+				Arguments.of("page by date and its count (findByUser)", call(
+						() -> transactionService.getTransactionsForCurrentUser(2, 10, userId)),
+						List.of("idx_transactions_user_date")),
+				Arguments.of("keyset by date (seekAfter)", call(
+						() -> transactionService.getTransactionsAfter(
+								new TransactionCursor("date_desc", today.minusDays(100).toString(), 50_000).encode(), 10, userId)),
+						List.of("idx_transactions_user_date")),
+				Arguments.of("sort by amount", call(
+						() -> transactionService.searchTransactions(filter(null, null, null, null, null, "amount_desc", null), 0, 10, userId)),
+						List.of("idx_transactions_user_amount")),
+				Arguments.of("amount range (amountBetween)", call(
+						() -> transactionService.searchTransactions(
+								filter(null, null, null, new BigDecimal("60"), new BigDecimal("50"), null, null), 0, 10, userId)),
+						USER_INDEXES),
+				Arguments.of("weekly sum (sumAmountBetween)", call(
+						() -> transactionService.getWeeklyGoal(userId)),
+						List.of("idx_transactions_user_date")),
+				Arguments.of("category type (categoryTypeEquals)", call(
+						() -> transactionService.searchTransactions(filter(null, null, "INCOME", null, null, null, null), 0, 10, userId)),
+						USER_INDEXES),
+				Arguments.of("category name (categoryNameEquals)", call(
+						() -> transactionService.searchTransactions(filter(null, "Kategorija 3", null, null, null, null, null), 0, 10, userId)),
+						USER_INDEXES),
+				// broj iz opisa je rijedak u cijeloj tablici, pa je tekstni indeks selektivniji od korisnikovog
+				Arguments.of("description contains (descriptionLike)", call(
+						() -> transactionService.searchTransactions(
+								filter("4207", null, null, null, null, null, TransactionFilterRequest.SEARCH_CONTAINS), 0, 10, userId)),
+						List.of("idx_transactions_description_trgm")),
+				Arguments.of("description words (descriptionMatchesWords)", call(
+						() -> transactionService.searchTransactions(
+								filter("konzum 4207", null, null, null, null, null, TransactionFilterRequest.SEARCH_WORDS), 0, 10, userId)),
+						List.of("idx_transactions_description_fts")),
+				Arguments.of("spending by category (sumExpenseByCategory)", call(
+						() -> transactionService.getSpendingByCategory(userId, null, null)),
+						List.of("user_month_category_rollup_pkey")),
+				Arguments.of("spending by category in period (history sumExpenseByCategory)", call(
+						() -> transactionService.getSpendingByCategory(userId, today.minusDays(90), today)),
+						USER_INDEXES),
+				Arguments.of("daily totals for statistics (history sumByDateAndCategory)", call(
+						() -> transactionHistoryRepository.sumByDateAndCategory(userId)),
+						USER_INDEXES),
+				Arguments.of("analytics columns (history forEachColumnRow)", call(
+						() -> transactionHistoryRepository.forEachColumnRow(userId, (day, cents, category, expense) -> {})),
+						USER_INDEXES),
+				Arguments.of("admin user summaries (findRegularUserSummaries)", call(
+						() -> userRepository.findRegularUserSummaries("%" + userEmail + "%", PageRequest.of(0, 20))),
+						List.of("user_month_category_rollup_pkey")),
+				Arguments.of("category average (averageAmountByCategory)", call(
+						() -> transactionRepository.averageAmountByCategory(categoryId)),
+						List.of("idx_transactions_category")),
+				Arguments.of("monthly balance (balanceForMonth)", call(
+						() -> monthlyCategoryRollupRepository.balanceForMonth(userId, today.withDayOfMonth(1))),
+						List.of("user_month_category_rollup_pkey")),
+				Arguments.of("monthly expenses (monthlyExpenseTotals)", call(
+						() -> monthlyCategoryRollupRepository.monthlyExpenseTotals(
+								userId, today.withDayOfMonth(1).minusMonths(11), today.withDayOfMonth(1))),
+						List.of("user_month_category_rollup_pkey"))
+		);
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("queries")
+	void usesIndex(String name, Runnable call, List<String> expectedIndexes) {
+		List<String> plans = explainCaptured(call);
+		assertFalse(plans.isEmpty(), () -> name + " ran no query");
+
+		for (String plan : plans) {
+			assertFalse(SEQ_SCAN_ON_TRANSACTIONS.matcher(plan).find(), () -> name + " scans transactions:\n" + plan);
+			assertFalse(plan.contains("Seq Scan on user_month_category_rollup"), () -> name + " scans the rollup:\n" + plan);
+		}
+
+		List<String> indexes = new ArrayList<>();
+		for (String expected : expectedIndexes) {
+			indexes.addAll(jdbc.queryForList(INDEX_NAMES_SQL, String.class, expected, expected));
+		}
+		assertTrue(plans.stream().anyMatch(plan -> indexes.stream().anyMatch(plan::contains)),
+				() -> name + " does not use " + expectedIndexes + ":\n" + String.join("\n\n", plans));
+	}
+
+	@Test
+	void periodQueryReadsOnlyPartitionsOfItsYears() {
+		int year = LocalDate.now().getYear();
+		List<String> plans = explainCaptured(() -> transactionService.searchTransactions(
+				new TransactionFilterRequest(null, null, null, null, null,
+						LocalDate.of(year, 3, 1), LocalDate.of(year, 3, 31), null, null), 0, 10, userId));
+
+		List<String> transactionPlans = plans.stream().filter(plan -> plan.contains("transactions_")).toList();
+		assertFalse(transactionPlans.isEmpty(), () -> "period query does not read transactions:\n" + plans);
+		for (String plan : transactionPlans) {
+			assertTrue(plan.contains("transactions_" + year), () -> "period does not read its year:\n" + plan);
+			assertFalse(plan.contains("transactions_" + (year - 1)), () -> "previous year is not pruned:\n" + plan);
+			assertFalse(plan.contains("transactions_default"), () -> "default partition is not pruned:\n" + plan);
+		}
+	}
+
+	@Test
+	void archivedYearStaysInHistory() {
+		int year = LocalDate.now().getYear() - 3;
+		String count = "SELECT count(*) FROM %s WHERE transaction_date BETWEEN '%2$d-01-01' AND '%2$d-12-31'";
+		long before = jdbc.queryForObject(count.formatted("transaction_history", year), Long.class);
+
+		try {
+			assertTrue(jdbc.queryForObject("SELECT fintrack_archive_transaction_partition(?)", Boolean.class, year));
+			assertTrue(before > 0);
+			assertEquals(0L, jdbc.queryForObject(count.formatted("transactions", year), Long.class));
+			assertEquals(before, jdbc.queryForObject(count.formatted("transaction_history", year), Long.class));
+		} finally {
+			// ostali testi ocekuju sve godine u live tablici
+			jdbc.execute("ALTER TABLE transactions_archive DETACH PARTITION transactions_" + year);
+			jdbc.execute("ALTER TABLE transactions ATTACH PARTITION transactions_" + year
+					+ " FOR VALUES FROM ('" + year + "-01-01') TO ('" + (year + 1) + "-01-01')");
+		}
+	}
+
+	private static Runnable call(Runnable call) {
+		return call;
+	}
+
+	private static TransactionFilterRequest filter(
+			String description, String categoryName, String categoryType,
+			BigDecimal maxAmount, BigDecimal minAmount, String sortBy, String searchMode) {
+		return new TransactionFilterRequest(description, categoryName, categoryType, maxAmount, minAmount, null, null, sortBy, searchMode);
+	}
+
+	// plan svakog SELECT-a koji je poziv poslao, s istim parametrima
+	private List<String> explainCaptured(Runnable call) {
+		List<String> plans = new ArrayList<>();
+		for (StatementCapturingDataSource.CapturedStatement statement : capturing.capture(call)) {
+			String sql = statement.sql().stripLeading().toLowerCase(Locale.ROOT);
+			if (!sql.startsWith("select") && !sql.startsWith("with")) continue;
+
+			plans.add(jdbc.execute((ConnectionCallback<String>) connection -> {
+				try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + statement.sql())) {
+					statement.bind(explain);
+					List<String> lines = new ArrayList<>();
+					try (ResultSet rs = explain.executeQuery()) {
+						while (rs.next()) lines.add(rs.getString(1));
+					}
+					return String.join("\n", lines);
+				}
+			}));
+		}
+		return plans;
+	}
+}
@@ -0,0 +1,126 @@
+package com.havana.backend.repository;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the SQL and the bound parameters of every statement the current thread executes inside
+ * {@link #capture}, so a test can run exactly that statement again, e.g. under EXPLAIN. Built the
+ * same way as {@link com.havana.backend.config.StatementCountingDataSource}; statements of other
+ * threads (scheduled jobs) are passed through unrecorded.
+ */
+class StatementCapturingDataSource extends DelegatingDataSource {
+
+	/**
+	 * One {@code setXxx(index, ...)} call on a {@link PreparedStatement}.
+	 */
+	record Binding(Method setter, Object[] args) {}
+
+	record CapturedStatement(String sql, List<Binding> bindings) {
+
+		void bind(PreparedStatement statement) throws SQLException {
+			for (Binding binding : bindings) {
+				try {
+					binding.setter().invoke(statement, binding.args());
+				} catch (ReflectiveOperationException e) {
+					throw new SQLException("Cannot replay " + binding.setter().getName(), e);
+				}
+			}
+		}
+	}
+
+	private final ThreadLocal<List<CapturedStatement>> captured = new ThreadLocal<>();
+
+	StatementCapturingDataSource(DataSource target) {
+		super(target);
+	}
+
+	List<CapturedStatement> capture(Runnable action) {
+		List<CapturedStatement> statements = new ArrayList<>();
+		captured.set(statements);
+		try {
+			action.run();
+		} finally {
+			captured.remove();
+		}
+		return statements;
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return capturing(super.getConnection());
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return capturing(super.getConnection(username, password));
+	}
+
+	// spojevi zive u poolu, pa se o snimanju odlucuje kod izvrsavanja, ne kod otvaranja
+	private Connection capturing(Connection connection) {
+		return proxy(Connection.class, connection, (proxy, method, args) -> {
+			Object result = invoke(connection, method, args);
+			return switch (method.getName()) {
+				case "createStatement" -> statement((Statement) result);
+				case "prepareStatement" -> preparedStatement((PreparedStatement) result, (String) args[0]);
+				default -> result;
+			};
+		});
+	}
+
+	private Statement statement(Statement statement) {
+		return proxy(Statement.class, statement, (proxy, method, args) -> {
+			List<CapturedStatement> statements = captured.get();
+			if (statements != null && method.getName().startsWith("execute") && args != null && args[0] instanceof String sql) {
+				statements.add(new CapturedStatement(sql, List.of()));
+			}
+			return invoke(statement, method, args);
+		});
+	}
+
+	private PreparedStatement preparedStatement(PreparedStatement statement, String sql) {
+		List<Binding> bindings = new ArrayList<>();
+		return proxy(PreparedStatement.class, statement, (proxy, method, args) -> {
+			String name = method.getName();
+			if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+				bindings.add(new Binding(method, args.clone()));
+			} else if (name.equals("clearParameters")) {
+				bindings.clear();
+			} else if (name.startsWith("execute") && captured.get() != null) {
+				captured.get().add(new CapturedStatement(sql, List.copyOf(bindings)));
+			}
+			return invoke(statement, method, args);
+		});
+	}
+
+	private static <T> T proxy(Class<T> type, T target, InvocationHandler handler) {
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+			if (method.getName().equals("equals") && method.getParameterCount() == 1) {
+				return proxy == args[0];
+			}
+			if (method.getName().equals("hashCode") && method.getParameterCount() == 0) {
+				return System.identityHashCode(proxy);
+			}
+			return handler.invoke(proxy, method, args);
+		}));
+	}
+
+	private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getTargetException();
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package com.havana.backend.service;
+
+import com.havana.backend.data.RollupCheckResponse;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A user whose old year has been moved to {@code transactions_archive} is deleted the way
+ * {@link AdminService#deleteUser} does it; none of their rows may stay behind in
+ * {@code transaction_history}, and the rollup has to rebuild and verify clean afterwards.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ArchivedUserDeletionIntegrationTest {
+
+	private static final int ARCHIVED_YEAR = LocalDate.now().getYear() - 3;
+
+	private EmbeddedPostgres postgres;
+	private JdbcTemplate jdbc;
+	private TransactionTemplate tx;
+	private MonthlyRollupService rollup;
+
+	@BeforeAll
+	void migrate() throws IOException {
+		postgres = EmbeddedPostgres.builder().start();
+		Flyway.configure()
+				.dataSource(postgres.getPostgresDatabase())
+				.load()
+				.migrate();
+		jdbc = new JdbcTemplate(postgres.getPostgresDatabase());
+		tx = new TransactionTemplate(new DataSourceTransactionManager(postgres.getPostgresDatabase()));
+		rollup = new MonthlyRollupService(jdbc);
+	}
+
+	@AfterAll
+	void stopDatabase() throws IOException {
+		postgres.close();
+	}
+
+	@Test
+	void deletingUserRemovesArchivedRowsAndRollupRebuilds() {
+		int deleted = user("obrisani@fintrack.local");
+		int kept = user("ostaje@fintrack.local");
+		int ownCategory = jdbc.queryForObject(
+				"INSERT INTO categories (name, type, user_id) VALUES ('Ljubimci', 'EXPENSE', ?) RETURNING id",
+				Integer.class, deleted);
+		int globalCategory = jdbc.queryForObject(
+				"INSERT INTO categories (name, type, user_id) VALUES ('Hrana', 'EXPENSE', NULL) RETURNING id",
+				Integer.class);
+
+		LocalDate old = LocalDate.of(ARCHIVED_YEAR, 3, 15);
+		transaction(deleted, ownCategory, old);
+		transaction(deleted, globalCategory, old);
+		transaction(deleted, globalCategory, LocalDate.now());
+		transaction(kept, globalCategory, old);
+
+		jdbc.queryForObject("SELECT fintrack_create_transaction_partition(?)", Boolean.class, ARCHIVED_YEAR);
+		assertEquals(true, jdbc.queryForObject(
+				"SELECT fintrack_archive_transaction_partition(?)", Boolean.class, ARCHIVED_YEAR));
+		assertEquals(3, jdbc.queryForObject("SELECT count(*) FROM transactions_archive", Integer.class));
+		tx.executeWithoutResult(status -> rollup.rebuild());
+
+		// isto sto radi AdminService.deleteUser
+		tx.executeWithoutResult(status -> {
+			jdbc.update("DELETE FROM user_month_category_rollup WHERE user_id = ?", deleted);
+			jdbc.update("DELETE FROM users WHERE id = ?", deleted);
+		});
+
+		assertEquals(0, jdbc.queryForObject(
+				"SELECT count(*) FROM transaction_history WHERE user_id = ?", Integer.class, deleted));
+		assertEquals(0, jdbc.queryForObject(
+				"SELECT count(*) FROM transaction_history WHERE category_id = ?", Integer.class, ownCategory));
+		assertEquals(1, jdbc.queryForObject("SELECT count(*) FROM transactions_archive", Integer.class));
+
+		RollupCheckResponse rebuilt = tx.execute(status -> rollup.rebuild());
+		assertTrue(rebuilt.rowsWritten() > 0);
+		assertEquals(0, tx.execute(status -> rollup.verify()).driftedRows());
+	}
+
+	private int user(String email) {
+		return jdbc.queryForObject(
+				"INSERT INTO users (email, password_hash, username) VALUES (?, 'x', ?) RETURNING id",
+				Integer.class, email, email);
+	}
+
+	private void transaction(int userId, int categoryId, LocalDate date) {
+		jdbc.update("""
+				INSERT INTO transactions (user_id, category_id, amount, transaction_date, description)
+				VALUES (?, ?, 10.00, ?, 'test')
+				""", userId, categoryId, date);
+	}
+}
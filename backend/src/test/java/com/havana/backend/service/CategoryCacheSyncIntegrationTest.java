@@ -0,0 +1,162 @@
+package com.havana.backend.service;
+
+import com.havana.backend.model.Category;
+import com.havana.backend.model.CategoryType;
+import com.havana.backend.repository.CategoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Two instances on one embedded PostgreSQL: one writes and sends the notification, the other
+ * listens and has to drop exactly the announced region of its {@link CategoryCache}.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CategoryCacheSyncIntegrationTest {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+	private EmbeddedPostgres postgres;
+	private JdbcTemplate jdbc;
+
+	private CategoryRepository repository;
+	private CategoryCache cache;
+	private CategoryCacheSync listening;
+	private CategoryCacheSync writing;
+
+	@BeforeAll
+	void startDatabase() throws IOException {
+		postgres = EmbeddedPostgres.builder().start();
+		jdbc = new JdbcTemplate(postgres.getPostgresDatabase());
+	}
+
+	@AfterAll
+	void stopDatabase() throws IOException {
+		postgres.close();
+	}
+
+	@BeforeEach
+	void startListener() {
+		repository = mock(CategoryRepository.class);
+		when(repository.findByUserId(7)).thenReturn(List.of(category(70, "Ljubimci")));
+		when(repository.findByUserId(8)).thenReturn(List.of(category(80, "Vrt")));
+		when(repository.findByUserIsNull()).thenReturn(List.of());
+		cache = new CategoryCache(repository, 100, Duration.ofHours(1), new SimpleMeterRegistry());
+
+		listening = new CategoryCacheSync(cache, jdbc, postgres.getJdbcUrl("postgres", "postgres"),
+				"postgres", "postgres", true, Duration.ofMillis(100));
+		writing = new CategoryCacheSync(mock(CategoryCache.class), jdbc, "", "", "", false, Duration.ofMillis(100));
+
+		listening.start();
+		await(listening::isListening);
+	}
+
+	@AfterEach
+	void stopListener() {
+		listening.stop();
+	}
+
+	@Test
+	void notificationDropsOnlyTheAnnouncedUser() {
+		warm();
+
+		writing.onCategoriesChanged(new CategoriesChangedEvent(7));
+		await(() -> reloads(7));
+
+		cache.own(8);
+		verify(repository, never()).findByUserId(8);
+	}
+
+	@Test
+	void rolledBackChangeIsNotAnnounced() {
+		warm();
+		TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(postgres.getPostgresDatabase()));
+
+		tx.executeWithoutResult(status -> {
+			writing.onCategoriesChanged(new CategoriesChangedEvent(7));
+			status.setRollbackOnly();
+		});
+		tx.executeWithoutResult(status -> writing.onCategoriesChanged(new CategoriesChangedEvent(8)));
+
+		// obavijesti stizu redom commitova, pa je ona za 7 (da je poslana) obradena prije one za 8
+		await(() -> reloads(8));
+		cache.own(7);
+		verify(repository, never()).findByUserId(7);
+	}
+
+	@Test
+	void globalNotificationDropsTheGlobalRegion() {
+		warm();
+
+		writing.onCategoriesChanged(CategoriesChangedEvent.global());
+		await(() -> {
+			cache.global();
+			return mockingCalls(() -> verify(repository, times(1)).findByUserIsNull());
+		});
+
+		cache.own(7);
+		verify(repository, never()).findByUserId(7);
+	}
+
+	// nakon spajanja listener baci cijeli cache, pa se regije pune tek sad
+	private void warm() {
+		cache.forUser(7);
+		cache.forUser(8);
+		clearInvocations(repository);
+	}
+
+	private boolean reloads(int userId) {
+		cache.own(userId);
+		return mockingCalls(() -> verify(repository, times(1)).findByUserId(userId));
+	}
+
+	private static boolean mockingCalls(Runnable verification) {
+		try {
+			verification.run();
+			return true;
+		} catch (AssertionError e) {
+			return false;
+		}
+	}
+
+	private static void await(BooleanSupplier condition) {
+		long deadline = System.nanoTime() + TIMEOUT.toNanos();
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.nanoTime() < deadline, "condition not met within " + TIMEOUT);
+			try {
+				Thread.sleep(20);
+			} catch (InterruptedException e) {
+				throw new AssertionError(e);
+			}
+		}
+	}
+
+	private static Category category(int id, String name) {
+		Category c = new Category();
+		c.setId(id);
+		c.setName(name);
+		c.setType(CategoryType.EXPENSE);
+		return c;
+	}
+}
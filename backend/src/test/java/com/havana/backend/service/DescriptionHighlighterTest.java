@@ -0,0 +1,43 @@
+package com.havana.backend.service;
+
+import com.havana.backend.data.TextRange;
+import com.havana.backend.data.TransactionFilterRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class DescriptionHighlighterTest {
+
+	@Test
+	void containsMarksEveryOccurrenceIgnoringCase() {
+		List<TextRange> ranges = DescriptionHighlighter.highlights("Konzum, KONZUM i konzumacija", filter("konzum", "contains"));
+
+		assertEquals(List.of(new TextRange(0, 6), new TextRange(8, 14), new TextRange(17, 23)), ranges);
+	}
+
+	@Test
+	void wordsMarksOnlyWholeWordsOfTheQuery() {
+		List<TextRange> ranges = DescriptionHighlighter.highlights("Gorivo INA, gorivomat", filter("gorivo -lukoil", "words"));
+
+		assertEquals(List.of(new TextRange(0, 6)), ranges);
+	}
+
+	@Test
+	void queryWordsSkipNegationsAndOr() {
+		assertEquals(Set.of("kava", "dm", "drogerie", "markt"),
+				DescriptionHighlighter.queryWords("kava or \"dm drogerie\" markt -pekara -\"mali bar\""));
+	}
+
+	@Test
+	void noHighlightsOutsideSearch() {
+		assertNull(DescriptionHighlighter.highlights("Najam", filter(" ", "contains")));
+	}
+
+	private static TransactionFilterRequest filter(String description, String searchMode) {
+		return new TransactionFilterRequest(description, null, null, null, null, null, null, null, searchMode);
+	}
+}
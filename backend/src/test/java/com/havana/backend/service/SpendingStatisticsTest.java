@@ -0,0 +1,113 @@
+package com.havana.backend.service;
+
+import org.apache.commons.math3.stat.regression.OLSMultipleLinearRegression;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static com.havana.backend.service.PredictionService.DAY_DUMMY_COUNT;
+import static com.havana.backend.service.PredictionService.MONTH_DUMMY_COUNT;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class SpendingStatisticsTest {
+
+	private record Tx(LocalDate date, Integer categoryId, double amount) {
+
+		long cents() {
+			return Math.round(amount * 100);
+		}
+	}
+
+	@Test
+	void categoryModelMatchesOls() {
+		List<Tx> history = randomHistory(new Random(42), 800);
+		SpendingStatistics stats = statsOf(history);
+
+		PredictionService.CategoryModel model = stats.categoryModel();
+		assertNotNull(model.beta());
+
+		Map<Integer, Integer> catIndex = model.categoryIndex();
+		int features = DAY_DUMMY_COUNT + MONTH_DUMMY_COUNT + catIndex.size();
+		double[][] x = new double[history.size()][features];
+		double[] y = new double[history.size()];
+		for (int i = 0; i < history.size(); i++) {
+			Tx t = history.get(i);
+			int dow = t.date().getDayOfWeek().getValue();
+			int month = t.date().getMonthValue();
+			if (dow <= DAY_DUMMY_COUNT) x[i][dow - 1] = 1.0;
+			if (month <= MONTH_DUMMY_COUNT) x[i][DAY_DUMMY_COUNT + month - 1] = 1.0;
+			Integer idx = catIndex.get(t.categoryId());
+			if (idx != null) x[i][DAY_DUMMY_COUNT + MONTH_DUMMY_COUNT + idx] = 1.0;
+			y[i] = t.amount();
+		}
+
+		OLSMultipleLinearRegression ols = new OLSMultipleLinearRegression();
+		ols.newSampleData(y, x);
+
+		assertArrayEquals(ols.estimateRegressionParameters(), model.beta(), 1e-6);
+	}
+
+	@Test
+	void dailyModelMatchesOls() {
+		List<Tx> history = randomHistory(new Random(7), 400);
+		SpendingStatistics stats = statsOf(history);
+
+		TreeMap<LocalDate, Double> dailySums = new TreeMap<>();
+		history.forEach(t -> dailySums.merge(t.date(), t.amount(), Double::sum));
+
+		List<LocalDate> dates = new ArrayList<>(dailySums.keySet());
+		double[][] x = new double[dates.size()][DAY_DUMMY_COUNT];
+		double[] y = new double[dates.size()];
+		for (int i = 0; i < dates.size(); i++) {
+			int dow = dates.get(i).getDayOfWeek().getValue();
+			if (dow <= DAY_DUMMY_COUNT) x[i][dow - 1] = 1.0;
+			y[i] = dailySums.get(dates.get(i));
+		}
+
+		OLSMultipleLinearRegression ols = new OLSMultipleLinearRegression();
+		ols.newSampleData(y, x);
+
+		assertArrayEquals(ols.estimateRegressionParameters(), stats.dailyModel().beta(), 1e-6);
+	}
+
+	@Test
+	void deletingTransactionsRestoresPreviousState() {
+		List<Tx> history = randomHistory(new Random(3), 300);
+		SpendingStatistics stats = statsOf(history);
+		double[] before = stats.categoryModel().beta();
+
+		List<Tx> extra = randomHistory(new Random(4), 50);
+		extra.forEach(t -> stats.apply(t.date(), t.categoryId(), true, 1, t.cents()));
+		extra.forEach(t -> stats.apply(t.date(), t.categoryId(), true, -1, -t.cents()));
+
+		assertArrayEquals(before, stats.categoryModel().beta(), 1e-6);
+		assertEquals(statsOf(history).dailySeries().sums().size(), stats.dailySeries().sums().size());
+	}
+
+	private static SpendingStatistics statsOf(List<Tx> history) {
+		SpendingStatistics stats = new SpendingStatistics();
+		history.forEach(t -> stats.apply(t.date(), t.categoryId(), true, 1, t.cents()));
+		return stats;
+	}
+
+	private static List<Tx> randomHistory(Random random, int size) {
+		LocalDate start = LocalDate.of(2024, 1, 1);
+		int[] categories = {3, 5, 8, 13};
+
+		List<Tx> history = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			LocalDate date = start.plusDays(random.nextInt(730));
+			int category = categories[random.nextInt(categories.length)];
+			double amount = Math.round((5 + category * 3 + random.nextDouble() * 40) * 100) / 100.0;
+			history.add(new Tx(date, category, amount));
+		}
+		return history;
+	}
+}
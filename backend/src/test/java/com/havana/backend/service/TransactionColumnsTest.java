@@ -0,0 +1,179 @@
+package com.havana.backend.service;
+
+import com.havana.backend.model.Money;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransactionColumnsTest {
+
+	private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+	private record Tx(LocalDate date, Integer categoryId, boolean expense, long cents) {
+
+		TransactionsChangedEvent.Delta delta(int sign) {
+			return new TransactionsChangedEvent.Delta(date, categoryId, expense, sign, Money.ofCents(sign * cents));
+		}
+	}
+
+	@Test
+	void dailyTotalsMatchNaiveSums() {
+		List<Tx> history = randomHistory(new Random(11), 2000);
+		TransactionColumns columns = columnsOf(history);
+
+		LocalDate from = START.plusDays(100);
+		long[] all = new long[60];
+		long[] category = new long[60];
+		columns.dailyExpenseTotals(from, null, all);
+		columns.dailyExpenseTotals(from, 5, category);
+
+		assertArrayEquals(naiveDaily(history, from, 60, null), all);
+		assertArrayEquals(naiveDaily(history, from, 60, 5), category);
+	}
+
+	@Test
+	void monthlyTotalsMatchNaiveSums() {
+		List<Tx> history = randomHistory(new Random(12), 2000);
+		TransactionColumns columns = columnsOf(history);
+
+		YearMonth from = YearMonth.of(2024, 3);
+		long[] months = new long[14];
+		columns.monthlyExpenseTotals(from, months);
+
+		long[] expected = new long[14];
+		for (Tx t : history) {
+			int month = (int) from.until(YearMonth.from(t.date()), ChronoUnit.MONTHS);
+			if (t.expense() && month >= 0 && month < expected.length) expected[month] += t.cents();
+		}
+		assertArrayEquals(expected, months);
+	}
+
+	@Test
+	void insertsAndDeletesKeepColumnsEqualToFreshLoad() {
+		List<Tx> history = randomHistory(new Random(13), 500);
+		TransactionColumns columns = columnsOf(history);
+
+		List<Tx> extra = randomHistory(new Random(14), 300);
+		extra.forEach(t -> assertTrue(columns.apply(t.delta(1))));
+
+		List<Tx> all = new ArrayList<>(history);
+		all.addAll(extra);
+		assertEquals(all.size(), columns.size());
+		assertArrayEquals(naiveDaily(all, START, 730, null), daily(columns));
+
+		extra.forEach(t -> assertTrue(columns.apply(t.delta(-1))));
+		assertEquals(history.size(), columns.size());
+		assertArrayEquals(naiveDaily(history, START, 730, null), daily(columns));
+		assertEquals(columnsOf(history).sumBetween(START, START.plusDays(729)), columns.sumBetween(START, START.plusDays(729)));
+	}
+
+	@Test
+	void deletingUnknownRowAsksForReload() {
+		TransactionColumns columns = columnsOf(randomHistory(new Random(15), 50));
+
+		assertFalse(columns.apply(new Tx(START.minusDays(1), 3, true, 1234).delta(-1)));
+		assertFalse(columns.apply(new TransactionsChangedEvent.Delta(START, 3, true, 2, Money.ofCents(2000))));
+		assertEquals(50, columns.size());
+	}
+
+	@Test
+	void dailyExpensesSkipIncomeAndCountDays() {
+		List<Tx> history = randomHistory(new Random(16), 400);
+		TransactionColumns.DailyExpenses daily = columnsOf(history).dailyExpenses();
+
+		LocalDate first = LocalDate.ofEpochDay(daily.firstDay());
+		assertArrayEquals(naiveDaily(history, first, daily.cents().length, null), daily.cents());
+
+		int days = 0;
+		for (int count : daily.counts()) if (count > 0) days++;
+		long expected = history.stream().filter(Tx::expense).map(Tx::date).distinct().count();
+		assertEquals(expected, days);
+	}
+
+	@Test
+	void balanceAndCategoryTotalsLeaveOutUncategorizedRows() {
+		List<Tx> history = randomHistory(new Random(17), 1000);
+		TransactionColumns columns = columnsOf(history);
+
+		LocalDate from = START.plusDays(200);
+		LocalDate to = START.plusDays(230);
+		long income = 0;
+		long expenses = 0;
+		for (Tx t : history) {
+			if (t.categoryId() == null || t.date().isBefore(from) || t.date().isAfter(to)) continue;
+			if (t.expense()) expenses += t.cents();
+			else income += t.cents();
+		}
+		assertEquals(new TransactionColumns.Balance(income, expenses), columns.balanceBetween(from, to));
+
+		// kategorija 8 namjerno nije na popisu
+		int[] ids = {3, 5};
+		long[] totals = new long[ids.length];
+		int[] counts = new int[ids.length];
+		columns.expenseTotalsByCategory(ids, totals, counts);
+		for (int i = 0; i < ids.length; i++) {
+			int id = ids[i];
+			List<Tx> rows = history.stream().filter(t -> Integer.valueOf(id).equals(t.categoryId())).toList();
+			assertEquals(rows.stream().mapToLong(Tx::cents).sum(), totals[i]);
+			assertEquals(rows.size(), counts[i]);
+		}
+	}
+
+	private static long[] daily(TransactionColumns columns) {
+		long[] out = new long[730];
+		columns.dailyExpenseTotals(START, null, out);
+		return out;
+	}
+
+	private static long[] naiveDaily(List<Tx> history, LocalDate from, int days, Integer categoryId) {
+		long[] out = new long[days];
+		for (Tx t : history) {
+			long i = t.date().toEpochDay() - from.toEpochDay();
+			if (!t.expense() || i < 0 || i >= days) continue;
+			if (categoryId != null && !categoryId.equals(t.categoryId())) continue;
+			out[(int) i] += t.cents();
+		}
+		return out;
+	}
+
+	private static TransactionColumns columnsOf(List<Tx> history) {
+		TransactionColumns columns = new TransactionColumns();
+		history.stream()
+				.sorted(Comparator.comparing(Tx::date))
+				.forEach(t -> columns.append(
+						(int) t.date().toEpochDay(),
+						t.cents(),
+						t.categoryId() != null ? t.categoryId() : TransactionColumns.UNCATEGORIZED,
+						t.expense()
+				));
+		return columns;
+	}
+
+	// kategorija 1 je prihod, null je bez kategorije i racuna se kao rashod
+	private static List<Tx> randomHistory(Random random, int size) {
+		Integer[] categories = {1, 3, 5, 8, null};
+
+		List<Tx> history = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			Integer category = categories[random.nextInt(categories.length)];
+			history.add(new Tx(
+					START.plusDays(random.nextInt(730)),
+					category,
+					category == null || category != 1,
+					100 + random.nextInt(20000)
+			));
+		}
+		return history;
+	}
+}
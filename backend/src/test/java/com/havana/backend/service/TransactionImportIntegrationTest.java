@@ -0,0 +1,172 @@
+package com.havana.backend.service;
+
+import com.havana.backend.data.ImportResultResponse;
+import com.havana.backend.data.ImportRowError;
+import com.havana.backend.model.Category;
+import com.havana.backend.model.CategoryType;
+import com.havana.backend.model.ImportFormat;
+import com.havana.backend.model.User;
+import com.havana.backend.repository.CategoryRepository;
+import com.havana.backend.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Imports a CSV of a few chunks in which one row passes validation but is rejected by the database
+ * (a NUL character, which PostgreSQL text cannot hold). The batch of that chunk fails, the chunk is
+ * written again row by row under savepoints, and everything but the bad row has to land, with the
+ * rollup and the reserved ids matching the rows that were written.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TransactionImportIntegrationTest {
+
+	private static final int ROWS = 2 * TransactionImportService.CHUNK_SIZE + 500;
+	// usred drugog chunka
+	private static final int BAD_ROW = TransactionImportService.CHUNK_SIZE + 500;
+	private static final LocalDate START = LocalDate.now().minusDays(400);
+
+	private EmbeddedPostgres postgres;
+	private JdbcTemplate jdbc;
+	private TransactionTemplate tx;
+	private MonthlyRollupService rollup;
+	private TransactionImportService importService;
+	private final List<TransactionsChangedEvent> events = new ArrayList<>();
+
+	private int userId;
+
+	@BeforeAll
+	void migrate() throws IOException {
+		postgres = EmbeddedPostgres.builder().start();
+		// isti DataSource za JdbcTemplate i transakcije, inace JdbcTemplate ne vidi transakciju chunka
+		DataSource dataSource = postgres.getPostgresDatabase();
+		Flyway.configure()
+				.dataSource(dataSource)
+				.load()
+				.migrate();
+		jdbc = new JdbcTemplate(dataSource);
+		tx = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		rollup = new MonthlyRollupService(jdbc);
+
+		userId = jdbc.queryForObject(
+				"INSERT INTO users (email, password_hash, username) VALUES ('uvoz@fintrack.local', 'x', 'uvoz') RETURNING id",
+				Integer.class);
+		User user = new User();
+		user.setId(userId);
+
+		// kategorije postoje unaprijed, import ih nalazi u cacheu i ne sprema nove
+		List<Category> categories = List.of(
+				category(user, "Hrana", CategoryType.EXPENSE),
+				category(user, "Placa", CategoryType.INCOME)
+		);
+		UserRepository userRepository = mock(UserRepository.class);
+		when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+		CategoryRepository categoryRepository = mock(CategoryRepository.class);
+		when(categoryRepository.findByUserId(userId)).thenReturn(categories);
+
+		importService = new TransactionImportService(
+				userRepository,
+				categoryRepository,
+				new CategoryCache(categoryRepository, 100, Duration.ofHours(1), new SimpleMeterRegistry()),
+				jdbc,
+				tx,
+				rollup,
+				events::add,
+				new SimpleMeterRegistry()
+		);
+	}
+
+	@AfterAll
+	void stopDatabase() throws IOException {
+		postgres.close();
+	}
+
+	@Test
+	void rowRejectedByDatabaseLeavesTheRestOfItsChunk(@TempDir Path dir) throws IOException {
+		Path file = dir.resolve("uvoz.csv");
+		StringBuilder csv = new StringBuilder("transaction_date,amount,description,category_name,category_type\n");
+		for (int row = 1; row <= ROWS; row++) {
+			boolean income = row % 10 == 0;
+			csv.append(START.plusDays(row % 400)).append(',')
+					.append(row % 97 + 1).append(".25,")
+					.append(row == BAD_ROW ? "los\u0000red" : "red " + row).append(',')
+					.append(income ? "Placa,INCOME" : "Hrana,EXPENSE").append('\n');
+		}
+		Files.writeString(file, csv, StandardCharsets.UTF_8);
+
+		long sequenceBefore = lastSequenceValue();
+		ImportResultResponse result = importService.importFile(file, ImportFormat.CSV, userId, ImportProgressListener.NONE, 0);
+
+		assertEquals(ROWS - 1, result.imported());
+		assertEquals(1, result.failed());
+		assertEquals(1, result.errors().size());
+		ImportRowError error = result.errors().getFirst();
+		assertEquals(BAD_ROW, error.row());
+		assertFalse(error.reason().isBlank());
+
+		assertEquals(ROWS - 1, jdbc.queryForObject(
+				"SELECT count(*) FROM transactions WHERE user_id = ?", Integer.class, userId));
+		assertEquals(0, jdbc.queryForObject(
+				"SELECT count(*) FROM transactions WHERE user_id = ? AND description LIKE 'los%'", Integer.class, userId));
+		assertEquals(ROWS - 1, events.stream().mapToInt(e -> e.deltas().size()).sum());
+
+		// rollup je pisan u istim transakcijama kao i retci, bez losega retka
+		assertEquals(0, tx.execute(status -> rollup.verify()).driftedRows());
+		assertEquals(ROWS - 1, jdbc.queryForObject(
+				"SELECT sum(tx_count) FROM user_month_category_rollup WHERE user_id = ?", Integer.class, userId));
+
+		// id-evi su iz rezerviranih blokova: jedinstveni, iznad stanja prije importa i ne iznad sekvence
+		assertEquals(ROWS - 1, jdbc.queryForObject(
+				"SELECT count(DISTINCT id) FROM transactions WHERE user_id = ?", Integer.class, userId));
+		assertTrue(jdbc.queryForObject(
+				"SELECT min(id) FROM transactions WHERE user_id = ?", Long.class, userId) > sequenceBefore);
+		long sequenceAfter = lastSequenceValue();
+		long maxId = jdbc.queryForObject("SELECT max(id) FROM transactions WHERE user_id = ?", Long.class, userId);
+		assertTrue(maxId <= sequenceAfter);
+
+		// sljedeci id iz sekvence (kao kod Hibernatea) je iznad svih uvezenih
+		long next = jdbc.queryForObject("""
+				INSERT INTO transactions (user_id, amount, transaction_date, description)
+				VALUES (?, 1.00, CURRENT_DATE, 'nakon uvoza') RETURNING id
+				""", Long.class, userId);
+		assertTrue(next > maxId);
+	}
+
+	private Category category(User user, String name, CategoryType type) {
+		int id = jdbc.queryForObject(
+				"INSERT INTO categories (name, type, user_id) VALUES (?, ?, ?) RETURNING id",
+				Integer.class, name, type.name(), userId);
+		return new Category(id, user, name, type);
+	}
+
+	// 0 dok sekvenca nije koristena
+	private long lastSequenceValue() {
+		return jdbc.queryForObject(
+				"SELECT CASE WHEN is_called THEN last_value ELSE 0 END FROM transactions_id_seq", Long.class);
+	}
+}
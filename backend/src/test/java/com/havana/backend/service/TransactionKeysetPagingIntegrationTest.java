@@ -0,0 +1,145 @@
+package com.havana.backend.service;
+
+import com.havana.backend.data.TransactionFilterRequest;
+import com.havana.backend.data.TransactionResponse;
+import com.havana.backend.data.TransactionSliceResponse;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Walks every keyset-paginated listing to the end over a history where many rows share a date and
+ * many share an amount, so ties fall across page boundaries and only the id tie breaker of
+ * {@link com.havana.backend.specification.TransactionSpecification#seekAfter} keeps them apart.
+ * The pages together have to be exactly the rows in the order the database sorts them.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TransactionKeysetPagingIntegrationTest {
+
+	private static final int ROWS = 60;
+	private static final int PAGE_SIZE = 7;
+
+	private static final List<BigDecimal> AMOUNTS =
+			List.of(new BigDecimal("5.00"), new BigDecimal("12.50"), new BigDecimal("40.00"));
+
+	private static final Map<String, String> ORDER_BY = Map.of(
+			"date_desc", "transaction_date DESC, id DESC",
+			"date_asc", "transaction_date ASC, id ASC",
+			"amount_desc", "amount DESC, id DESC",
+			"amount_asc", "amount ASC, id ASC"
+	);
+
+	private static EmbeddedPostgres postgres;
+
+	@Autowired
+	private TransactionService transactionService;
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	private int userId;
+
+	@DynamicPropertySource
+	static void database(DynamicPropertyRegistry registry) throws IOException {
+		postgres = EmbeddedPostgres.builder().start();
+		registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+		registry.add("spring.datasource.username", () -> "postgres");
+		registry.add("spring.datasource.password", () -> "postgres");
+		registry.add("FRONTEND_URL", () -> "http://localhost");
+	}
+
+	@BeforeAll
+	void createHistory() {
+		userId = jdbc.queryForObject(
+				"INSERT INTO users (email, password_hash, username) VALUES ('keyset@fintrack.local', 'x', 'keyset') RETURNING id",
+				Integer.class);
+		int other = jdbc.queryForObject(
+				"INSERT INTO users (email, password_hash, username) VALUES ('drugi@fintrack.local', 'x', 'drugi') RETURNING id",
+				Integer.class);
+		int category = jdbc.queryForObject(
+				"INSERT INTO categories (name, type, user_id) VALUES ('Hrana', 'EXPENSE', NULL) RETURNING id", Integer.class);
+
+		// 3 datuma x 3 iznosa, svaka kombinacija ~7 puta; redovi drugog korisnika ne smiju upasti u stranice
+		LocalDate today = LocalDate.now();
+		for (int i = 0; i < ROWS; i++) {
+			transaction(userId, category, AMOUNTS.get(i % 3), today.minusDays(i / 3 % 3));
+			if (i % 10 == 0) transaction(other, category, AMOUNTS.get(i % 3), today.minusDays(i / 3 % 3));
+		}
+	}
+
+	@AfterAll
+	static void stopDatabase() throws IOException {
+		if (postgres != null) postgres.close();
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {"date_desc", "date_asc", "amount_desc", "amount_asc"})
+	void pagesCoverEveryRowOnceInOrder(String sortBy) {
+		List<Integer> walked = new ArrayList<>();
+		String cursor = null;
+		do {
+			TransactionSliceResponse page = transactionService.searchTransactionsAfter(filter(sortBy), cursor, PAGE_SIZE, userId);
+			assertTrue(page.content().size() <= PAGE_SIZE);
+			assertEquals(page.hasNext(), page.nextCursor() != null);
+			page.content().stream().map(TransactionResponse::id).forEach(walked::add);
+			// cursor koji ne napreduje bi vrtio istu stranicu
+			assertTrue(walked.size() <= ROWS, () -> sortBy + " returned more rows than there are: " + walked);
+			cursor = page.nextCursor();
+		} while (cursor != null);
+
+		List<Integer> expected = jdbc.queryForList(
+				"SELECT id FROM transactions WHERE user_id = ? ORDER BY " + ORDER_BY.get(sortBy), Integer.class, userId);
+		assertEquals(ROWS, expected.size());
+		assertEquals(expected, walked);
+	}
+
+	@Test
+	void cursorOfAnotherSortOrderIsBadRequest() {
+		String amountCursor = transactionService
+				.searchTransactionsAfter(filter("amount_desc"), null, PAGE_SIZE, userId)
+				.nextCursor();
+
+		ResponseStatusException search = assertThrows(ResponseStatusException.class,
+				() -> transactionService.searchTransactionsAfter(filter("date_desc"), amountCursor, PAGE_SIZE, userId));
+		assertEquals(HttpStatus.BAD_REQUEST, search.getStatusCode());
+
+		// lista bez filtera je uvijek date_desc
+		ResponseStatusException list = assertThrows(ResponseStatusException.class,
+				() -> transactionService.getTransactionsAfter(amountCursor, PAGE_SIZE, userId));
+		assertEquals(HttpStatus.BAD_REQUEST, list.getStatusCode());
+	}
+
+	private static TransactionFilterRequest filter(String sortBy) {
+		return new TransactionFilterRequest(null, null, null, null, null, null, null, sortBy, null);
+	}
+
+	private void transaction(int user, int category, BigDecimal amount, LocalDate date) {
+		jdbc.update("""
+				INSERT INTO transactions (user_id, category_id, amount, transaction_date, description)
+				VALUES (?, ?, ?, ?, 'test')
+				""", user, category, amount, date);
+	}
+}
@@ -0,0 +1,88 @@
+package com.havana.backend.service;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Several replicas opening or archiving the same year at once, each on its own connection: one of
+ * them does the work, the others get {@code false} instead of an error.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TransactionPartitionIntegrationTest {
+
+	private static final int REPLICAS = 8;
+	private static final int YEAR = LocalDate.now().getYear() - 10;
+
+	private EmbeddedPostgres postgres;
+	private JdbcTemplate jdbc;
+
+	@BeforeAll
+	void migrate() throws IOException {
+		postgres = EmbeddedPostgres.builder().start();
+		Flyway.configure()
+				.dataSource(postgres.getPostgresDatabase())
+				.load()
+				.migrate();
+		jdbc = new JdbcTemplate(postgres.getPostgresDatabase());
+	}
+
+	@AfterAll
+	void stopDatabase() throws IOException {
+		postgres.close();
+	}
+
+	@Test
+	void concurrentMaintenanceCreatesAndArchivesEachYearOnce() throws Exception {
+		int userId = jdbc.queryForObject(
+				"INSERT INTO users (email, password_hash, username) VALUES ('stari@fintrack.local', 'x', 'stari') RETURNING id",
+				Integer.class);
+		jdbc.update("""
+				INSERT INTO transactions (user_id, amount, transaction_date, description)
+				VALUES (?, 10.00, ?, 'stari izvod')
+				""", userId, LocalDate.of(YEAR, 6, 1));
+
+		assertEquals(1, concurrently("SELECT fintrack_create_transaction_partition(?)"));
+		assertEquals(1, jdbc.queryForObject("SELECT count(*) FROM transactions_" + YEAR, Integer.class));
+		assertEquals(0, jdbc.queryForObject("SELECT count(*) FROM transactions_default", Integer.class));
+
+		assertEquals(1, concurrently("SELECT fintrack_archive_transaction_partition(?)"));
+		assertEquals(1, jdbc.queryForObject("SELECT count(*) FROM transactions_archive", Integer.class));
+	}
+
+	// koliko poziva je vratilo true; iznimka bilo kojeg poziva rusi test
+	private int concurrently(String sql) throws Exception {
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Boolean>> results = new ArrayList<>();
+		try (ExecutorService executor = Executors.newFixedThreadPool(REPLICAS)) {
+			for (int i = 0; i < REPLICAS; i++) {
+				results.add(executor.submit(() -> {
+					start.await();
+					return jdbc.queryForObject(sql, Boolean.class, YEAR);
+				}));
+			}
+			start.countDown();
+
+			int done = 0;
+			for (Future<Boolean> result : results) {
+				if (Boolean.TRUE.equals(result.get())) done++;
+			}
+			return done;
+		}
+	}
+}
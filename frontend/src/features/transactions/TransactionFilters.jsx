@@ -15,6 +15,21 @@ export default function TransactionFilters({ filters, onChange, categories }) {
           </label>
         </div>
 
+        <div style={{ flex: "0 1 160px" }}>
+          <label>
+            Način pretrage
+            <select
+              value={filters.searchMode}
+              onChange={(e) =>
+                onChange({ ...filters, searchMode: e.target.value })
+              }
+            >
+              <option value="contains">Dio teksta</option>
+              <option value="words">Cijele riječi</option>
+            </select>
+          </label>
+        </div>
+
         <div style={{ flex: "1 1 200px" }}>
           <label>
             Kategorija
@@ -124,6 +139,7 @@ export default function TransactionFilters({ filters, onChange, categories }) {
               <option value="date_asc">Datum (najstarije)</option>
               <option value="amount_desc">Iznos (veći prvo)</option>
               <option value="amount_asc">Iznos (manji prvo)</option>
+              <option value="relevance">Relevantnost</option>
             </select>
           </label>
         </div>
@@ -133,6 +149,7 @@ export default function TransactionFilters({ filters, onChange, categories }) {
             onClick={() =>
               onChange({
                 search: "",
+                searchMode: "contains",
                 category: ALL,
                 type: ALL,
                 from: "",
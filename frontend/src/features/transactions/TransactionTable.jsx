@@ -10,6 +10,22 @@ function formatAmount(amount) {
   return amount.toFixed(2);
 }
 
+// oznacava dijelove opisa koje je backend vratio kao pogotke pretrage
+function highlightDescription(text, highlights) {
+  if (!text) return "-";
+  if (!highlights || highlights.length === 0) return text;
+
+  const parts = [];
+  let last = 0;
+  highlights.forEach(({ start, end }, i) => {
+    if (start > last) parts.push(text.slice(last, start));
+    parts.push(<mark key={i}>{text.slice(start, end)}</mark>);
+    last = end;
+  });
+  if (last < text.length) parts.push(text.slice(last));
+  return parts;
+}
+
 function typeLabel(type) {
   return type === "income" ? "Prihod" : "Trošak";
 }
@@ -45,7 +61,9 @@ export default function TransactionTable({ transactions, onDelete }) {
               </span>
             </td>
             <td style={td}>{t.category}</td>
-            <td style={td}>{t.description || "-"}</td>
+            <td style={td}>
+              {highlightDescription(t.description, t.highlights)}
+            </td>
             <td
               style={{
                 ...td,
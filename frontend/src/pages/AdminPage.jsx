@@ -11,6 +11,11 @@ const AdminPage = () => {
   // User management states
   const [admins, setAdmins] = useState([]);
   const [regularUsers, setRegularUsers] = useState([]);
+  const [usersPage, setUsersPage] = useState(0);
+  const [usersTotal, setUsersTotal] = useState(0);
+  const [usersTotalPages, setUsersTotalPages] = useState(0);
+  const [userSearch, setUserSearch] = useState("");
+  const [balanceSort, setBalanceSort] = useState(null); // null | "asc" | "desc"
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState(null);
   const [success, setSuccess] = useState(null);
@@ -91,17 +96,33 @@ const AdminPage = () => {
     loadAllData();
   }, []);
 
+  // korisnici se stranice na serveru, pa se ponovno dohvacaju kad se promijeni stranica, pretraga ili sort
+  useEffect(() => {
+    loadRegularUsers().catch((err) => setError(err.message));
+  }, [usersPage, userSearch, balanceSort]);
+
+  const loadRegularUsers = async () => {
+    const usersData = await admin.getRegularUsers({
+      page: usersPage,
+      sort: balanceSort ? "balance" : "id",
+      direction: balanceSort || "asc",
+      email: userSearch,
+    });
+    setRegularUsers(usersData.content);
+    setUsersTotal(usersData.totalElements ?? usersData.page?.totalElements ?? 0);
+    setUsersTotalPages(usersData.totalPages ?? usersData.page?.totalPages ?? 0);
+  };
+
   const loadAllData = async () => {
     try {
       setLoading(true);
       setError(null);
-      const [adminsData, usersData, categoriesData] = await Promise.all([
+      const [adminsData, categoriesData] = await Promise.all([
         admin.getAdmins(),
-        admin.getRegularUsers(),
         api.categories.getAll(),
+        loadRegularUsers(),
       ]);
       setAdmins(adminsData);
-      setRegularUsers(usersData);
       setCategories(categoriesData);
     } catch (err) {
       setError(err.message);
@@ -110,6 +131,11 @@ const AdminPage = () => {
     }
   };
 
+  const toggleBalanceSort = () => {
+    setUsersPage(0);
+    setBalanceSort((prev) => (prev === "desc" ? "asc" : prev === "asc" ? null : "desc"));
+  };
+
   const handleDeleteUser = async (userId) => {
     if (
       !window.confirm("Jeste li sigurni da želite obrisati ovog korisnika?")
@@ -800,7 +826,7 @@ const AdminPage = () => {
               }}
             >
               <span>👥</span>
-              Korisnici ({regularUsers.length})
+              Korisnici ({usersTotal})
             </h3>
             <button
               onClick={() => {
@@ -826,6 +852,25 @@ const AdminPage = () => {
             </button>
           </div>
 
+          <input
+            type="text"
+            placeholder="Pretraži po emailu..."
+            value={userSearch}
+            onChange={(e) => {
+              setUsersPage(0);
+              setUserSearch(e.target.value);
+            }}
+            style={{
+              width: "100%",
+              marginBottom: "12px",
+              padding: "8px 12px",
+              borderRadius: "10px",
+              border: "1px solid var(--border)",
+              background: "var(--panel-2)",
+              color: "inherit",
+            }}
+          />
+
           <div
             style={{
               overflowX: "auto",
@@ -852,7 +897,12 @@ const AdminPage = () => {
                   <th style={th}>Status</th>
                   <th style={th}>Prihodi</th>
                   <th style={th}>Rashodi</th>
-                  <th style={th}>Saldo</th>
+                  <th
+                    style={{ ...th, cursor: "pointer" }}
+                    onClick={toggleBalanceSort}
+                  >
+                    Saldo {balanceSort === "desc" ? "↓" : balanceSort === "asc" ? "↑" : ""}
+                  </th>
                   <th style={thRight}>Akcije</th>
                 </tr>
               </thead>
@@ -1053,6 +1103,34 @@ const AdminPage = () => {
               </p>
             </div>
           )}
+
+          {usersTotalPages > 1 && (
+            <div
+              style={{
+                display: "flex",
+                justifyContent: "center",
+                alignItems: "center",
+                gap: "12px",
+                marginTop: "12px",
+              }}
+            >
+              <button
+                disabled={usersPage === 0}
+                onClick={() => setUsersPage((p) => p - 1)}
+              >
+                ←
+              </button>
+              <span className="muted">
+                {usersPage + 1} / {usersTotalPages}
+              </span>
+              <button
+                disabled={usersPage + 1 >= usersTotalPages}
+                onClick={() => setUsersPage((p) => p + 1)}
+              >
+                →
+              </button>
+            </div>
+          )}
         </div>
       </div>
 
@@ -1,23 +1,33 @@
 import { useEffect, useState } from "react";
 import { useAuth } from "../auth/AuthContext";
-import { PieChart, Pie, Tooltip, Legend, ResponsiveContainer } from "recharts";
+import {
+  PieChart,
+  Pie,
+  BarChart,
+  Bar,
+  XAxis,
+  YAxis,
+  Tooltip,
+  Legend,
+  ResponsiveContainer,
+} from "recharts";
 import * as api from "../services/api";
 
 export default function DashboardPage() {
   const { user } = useAuth();
   const [spending, setSpending] = useState([]);
   const [weeklyData, setWeeklyData] = useState(null);
+  const [summary, setSummary] = useState(null);
   const [loading, setLoading] = useState(true);
 
   useEffect(() => {
     const fetchData = async () => {
       try {
-        // Koristi dashboard endpoint koji radi sve na backend-u
-        const spendingData = await api.dashboard.getSpendingByCategory();
-        setSpending(spendingData);
-
-        const weeklyData = await api.dashboard.getWeeklyGoal();
-        setWeeklyData(weeklyData);
+        // Jedan summary poziv, backend paralelno racuna sve dijelove
+        const summary = await api.dashboard.getSummary();
+        setSpending(summary.spendingByCategory);
+        setWeeklyData(summary.weeklyGoal);
+        setSummary(summary);
       } catch (err) {
         console.error("Greška pri učitavanju podataka", err);
       } finally {
@@ -49,6 +59,37 @@ export default function DashboardPage() {
     "#6366f1", // Indigo
   ];
 
+  const panelStyle = {
+    background: "var(--panel)",
+    padding: 16,
+    borderRadius: 14,
+    border: "1px solid var(--border)",
+    backdropFilter: "blur(10px)",
+  };
+
+  const tooltipStyle = {
+    background: "rgba(30, 30, 50, 0.98)",
+    border: "1px solid rgba(124, 58, 237, 0.6)",
+    borderRadius: 8,
+    padding: "8px 12px",
+  };
+
+  const euro = (value) => `${Number(value ?? 0).toFixed(2)} €`;
+
+  const monthlyData = Object.entries(summary?.monthlySpending ?? {}).map(
+    ([month, amount]) => ({ month, amount: Number(amount) }),
+  );
+
+  const dailyData = Object.entries(summary?.dailySpending?.series ?? {}).map(
+    ([date, amount]) => ({
+      date: new Date(date).toLocaleDateString("hr-HR", {
+        month: "short",
+        day: "numeric",
+      }),
+      amount: Number(amount),
+    }),
+  );
+
   // Dodaj boje svakom elementu u spending nizu
   const spendingWithColors = spending.map((item, index) => ({
     ...item,
@@ -207,6 +248,134 @@ export default function DashboardPage() {
           )}
         </div>
       </div>
+
+      {summary && (
+        <div
+          style={{
+            display: "grid",
+            gridTemplateColumns: "1fr 1fr",
+            gap: 24,
+            marginTop: 24,
+          }}
+        >
+          {/* Stanje mjeseca i predikcija */}
+          <div style={panelStyle}>
+            <h3>Ovaj mjesec</h3>
+            <p style={{ color: "var(--muted)", marginBottom: 8 }}>
+              Prihodi:{" "}
+              <b style={{ color: "var(--text)" }}>
+                {euro(summary.monthlyBalance?.totalIncome)}
+              </b>
+            </p>
+            <p style={{ color: "var(--muted)", marginBottom: 8 }}>
+              Rashodi:{" "}
+              <b style={{ color: "var(--text)" }}>
+                {euro(summary.monthlyBalance?.totalExpense)}
+              </b>
+            </p>
+            <p style={{ color: "var(--muted)", marginBottom: 8 }}>
+              Stanje:{" "}
+              <b
+                style={{
+                  color:
+                    Number(summary.monthlyBalance?.balance ?? 0) >= 0
+                      ? "#22c55e"
+                      : "#ef4444",
+                }}
+              >
+                {euro(summary.monthlyBalance?.balance)}
+              </b>
+            </p>
+            <p style={{ color: "var(--muted)", marginBottom: 8 }}>
+              Predviđena potrošnja sutra:{" "}
+              <b style={{ color: "var(--text)" }}>
+                {euro(summary.predictedTomorrow)}
+              </b>
+            </p>
+            <p style={{ color: "var(--muted)", marginBottom: 8 }}>
+              Prosjek zadnja 3 mjeseca:{" "}
+              <b style={{ color: "var(--text)" }}>
+                {euro(summary.rollingMonthlyAverage)}
+              </b>
+            </p>
+          </div>
+
+          {/* Ciljevi štednje */}
+          <div style={panelStyle}>
+            <h3>Ciljevi štednje</h3>
+            {summary.savingGoals?.length > 0 ? (
+              summary.savingGoals.map((goal) => {
+                const percentage =
+                  Number(goal.targetAmount) > 0
+                    ? (Number(goal.currentAmount) / Number(goal.targetAmount)) *
+                      100
+                    : 0;
+                return (
+                  <div key={goal.id} style={{ marginBottom: 16 }}>
+                    <p style={{ color: "var(--muted)", marginBottom: 6 }}>
+                      <b style={{ color: "var(--text)" }}>{goal.name}</b>:{" "}
+                      {euro(goal.currentAmount)} / {euro(goal.targetAmount)}
+                      {goal.deadline &&
+                        ` (do ${new Date(goal.deadline).toLocaleDateString("hr-HR")})`}
+                    </p>
+                    <div
+                      style={{
+                        background: "rgba(255, 255, 255, 0.06)",
+                        borderRadius: 4,
+                        overflow: "hidden",
+                        height: 12,
+                        border: "1px solid var(--border)",
+                      }}
+                    >
+                      <div
+                        style={{
+                          background: "#22c55e",
+                          width: `${Math.min(percentage, 100)}%`,
+                          height: "100%",
+                        }}
+                      />
+                    </div>
+                  </div>
+                );
+              })
+            ) : (
+              <p style={{ color: "var(--muted)" }}>Nema ciljeva štednje</p>
+            )}
+          </div>
+
+          {/* Potrošnja po mjesecima */}
+          <div style={panelStyle}>
+            <h3>Potrošnja po mjesecima</h3>
+            <ResponsiveContainer width="100%" height={260}>
+              <BarChart data={monthlyData}>
+                <XAxis dataKey="month" tick={{ fontSize: 12 }} />
+                <YAxis tick={{ fontSize: 12 }} />
+                <Tooltip formatter={euro} contentStyle={tooltipStyle} />
+                <Bar dataKey="amount" fill="#7c3aed" />
+              </BarChart>
+            </ResponsiveContainer>
+          </div>
+
+          {/* Zadnjih 30 dana */}
+          <div style={panelStyle}>
+            <h3>Zadnjih 30 dana</h3>
+            <p style={{ color: "var(--muted)", marginBottom: 8 }}>
+              Ukupno:{" "}
+              <b style={{ color: "var(--text)" }}>
+                {euro(summary.dailySpending?.total)}
+              </b>
+            </p>
+            <ResponsiveContainer width="100%" height={230}>
+              <BarChart data={dailyData}>
+                <XAxis dataKey="date" tick={{ fontSize: 12 }} />
+                <YAxis tick={{ fontSize: 12 }} />
+                <Tooltip formatter={euro} contentStyle={tooltipStyle} />
+                <Bar dataKey="amount" fill="#06b6d4" />
+              </BarChart>
+            </ResponsiveContainer>
+          </div>
+        </div>
+      )}
     </div>
   );
 }
@@ -1,4 +1,4 @@
-import { useRef, useState } from "react";
+import { useEffect, useRef, useState } from "react";
 import { Link } from "react-router-dom";
 import * as XLSX from "xlsx";
 import * as api from "../services/api";
@@ -8,6 +8,41 @@ export default function ImportPage() {
   const [loading, setLoading] = useState(false);
   const [error, setError] = useState("");
   const [result, setResult] = useState(null);
+  const [job, setJob] = useState(null);
+
+  const jobRunning = job && (job.status === "QUEUED" || job.status === "RUNNING");
+
+  // import se vrti u pozadini, pa pratimo napredak dok ne zavrsi
+  useEffect(() => {
+    if (!jobRunning) return;
+
+    const timer = setTimeout(async () => {
+      try {
+        const updated = await api.transactions.getImportJob(job.id);
+        setJob(updated);
+        if (updated.status === "COMPLETED") {
+          setResult(updated);
+        } else if (updated.status === "FAILED") {
+          setError(updated.errorMessage || "Greška pri uvozu datoteke");
+        } else if (updated.status === "CANCELLED") {
+          setError("Uvoz je prekinut");
+        }
+      } catch (err) {
+        console.error(err);
+      }
+    }, 1000);
+
+    return () => clearTimeout(timer);
+  }, [job, jobRunning]);
+
+  const handleCancel = async () => {
+    if (!job) return;
+    try {
+      setJob(await api.transactions.cancelImport(job.id));
+    } catch (err) {
+      console.error(err);
+    }
+  };
 
   const handleDownloadTemplate = async () => {
     try {
@@ -38,12 +73,13 @@ export default function ImportPage() {
     setLoading(true);
     setError("");
     setResult(null);
+    setJob(null);
 
     try {
       let fileToUpload = file;
 
-      // Ako je XLSX datoteka, konvertuj je u CSV
-      if (file.name.endsWith(".xlsx") || file.name.endsWith(".xls")) {
+      // XLSX backend cita direktno, samo stari XLS format konvertiramo u CSV
+      if (file.name.endsWith(".xls")) {
         try {
           const arrayBuffer = await file.arrayBuffer();
           const workbook = XLSX.read(arrayBuffer, { type: "array" });
@@ -55,7 +91,7 @@ export default function ImportPage() {
           // Kreiraj CSV datoteku
           fileToUpload = new File(
             [csvContent],
-            file.name.replace(/\.(xlsx|xls)$/, ".csv"),
+            file.name.replace(/\.xls$/, ".csv"),
             { type: "text/csv" },
           );
         } catch (convertErr) {
@@ -66,8 +102,8 @@ export default function ImportPage() {
         }
       }
 
-      const importResult = await api.transactions.import(fileToUpload);
-      setResult(importResult);
+      const importJob = await api.transactions.import(fileToUpload);
+      setJob(importJob);
     } catch (err) {
       setError(err.message || "Greška pri uvozu datoteke");
       console.error(err);
@@ -85,8 +121,8 @@ export default function ImportPage() {
         <div className="card">
           <h2>Uvoz transakcija (XLSX)</h2>
           <p className="muted">
-            Preuzmi XLSX template, popuni ga s transakcijama i učitaj. Datoteka
-            će se automatski konvertirati u CSV i učitati.
+            Preuzmi XLSX template, popuni ga s transakcijama i učitaj ga
+            direktno.
           </p>
 
           {error && (
@@ -115,18 +151,20 @@ export default function ImportPage() {
                 ✓ Uvoz uspješan!
               </p>
               <p style={{ color: "black", margin: "8px 0 0 0", fontSize: 13 }}>
-                Učitano: <b>{result.successCount}</b> transakcija
-                {result.errorCount > 0 && ` | Greške: ${result.errorCount}`}
+                Učitano: <b>{result.rowsImported}</b> transakcija
+                {result.rowsFailed > 0 && ` | Greške: ${result.rowsFailed}`}
               </p>
               {result.errors && result.errors.length > 0 && (
                 <div style={{ marginTop: 12, fontSize: 12, color: "#333" }}>
                   <b>Greške pri uvozu:</b>
                   <ul style={{ margin: "8px 0", paddingLeft: 20 }}>
                     {result.errors.slice(0, 5).map((err, i) => (
-                      <li key={i}>{err}</li>
+                      <li key={i}>
+                        Red {err.row}: {err.reason}
+                      </li>
                     ))}
-                    {result.errors.length > 5 && (
-                      <li>... i {result.errors.length - 5} više grešaka</li>
+                    {result.rowsFailed > 5 && (
+                      <li>... i {result.rowsFailed - 5} više grešaka</li>
                     )}
                   </ul>
                 </div>
@@ -146,6 +184,29 @@ export default function ImportPage() {
             </div>
           )}
 
+          {jobRunning && (
+            <div
+              style={{
+                padding: 12,
+                border: "1px solid var(--border)",
+                borderRadius: 4,
+                marginBottom: 16,
+              }}
+            >
+              <p style={{ margin: 0, fontWeight: "bold" }}>
+                Uvoz u tijeku... {job.percentComplete.toFixed(0)}%
+              </p>
+              <p style={{ margin: "8px 0", fontSize: 13, color: "var(--muted)" }}>
+                Obrađeno: {job.rowsParsed} | Učitano: {job.rowsImported} |
+                Greške: {job.rowsFailed}
+                {job.etaSeconds != null && ` | Preostalo: ~${job.etaSeconds}s`}
+              </p>
+              <button onClick={handleCancel}>
+                Prekini uvoz
+              </button>
+            </div>
+          )}
+
           <div style={{ display: "grid", gap: 16 }}>
             <div>
               <h3 style={{ marginTop: 0, marginBottom: 12 }}>
@@ -172,12 +233,12 @@ export default function ImportPage() {
                 type="file"
                 accept=".xlsx,.xls,.csv"
                 onChange={handleFileChange}
-                disabled={loading}
+                disabled={loading || jobRunning}
                 style={{ display: "none" }}
               />
               <button
                 onClick={() => fileInputRef.current?.click()}
-                disabled={loading}
+                disabled={loading || jobRunning}
                 className="btn-primary"
                 style={{ width: "100%" }}
               >
@@ -186,7 +247,7 @@ export default function ImportPage() {
               <p style={{ fontSize: 12, color: "var(--muted)", marginTop: 12 }}>
                 Podržani formati: XLSX, XLS, CSV
                 <br />
-                Maksimalna veličina: 10 MB
+                Maksimalna veličina: 200 MB
               </p>
             </div>
           </div>
@@ -10,6 +10,21 @@ import TransactionTableSkeleton from "../components/TransactionTableSkeleton";
 import Skeleton from "../components/Skeleton";
 import * as api from "../services/api";
 
+// filter objekt za backend (search i export)
+function toSearchFilter(filters) {
+  return {
+    description: filters.search || null,
+    categoryName: filters.category !== ALL ? filters.category : null,
+    categoryType: filters.type !== ALL ? filters.type.toUpperCase() : null,
+    fromDate: filters.from || null,
+    toDate: filters.to || null,
+    minAmount: filters.minAmount ? Number(filters.minAmount) : null,
+    maxAmount: filters.maxAmount ? Number(filters.maxAmount) : null,
+    sortBy: filters.sort,
+    searchMode: filters.searchMode,
+  };
+}
+
 export default function TransactionsPage() {
   const { user } = useAuth();
   const [paginatedTransactions, setPaginatedTransactions] = useState([]);
@@ -20,8 +35,10 @@ export default function TransactionsPage() {
   const [initialLoading, setInitialLoading] = useState(true);
   const [monthlyBalance, setMonthlyBalance] = useState(null);
   const [allCategories, setAllCategories] = useState([]);
+  const [exporting, setExporting] = useState(false);
   const [filters, setFilters] = useState({
     search: "",
+    searchMode: "contains",
     category: ALL,
     type: ALL,
     from: "",
@@ -38,21 +55,9 @@ export default function TransactionsPage() {
       return;
     }
     try {
-      // Gradi filter objekat za backend
-      const searchFilter = {
-        description: filters.search || null,
-        categoryName: filters.category !== ALL ? filters.category : null,
-        categoryType: filters.type !== ALL ? filters.type.toUpperCase() : null,
-        fromDate: filters.from || null,
-        toDate: filters.to || null,
-        minAmount: filters.minAmount ? Number(filters.minAmount) : null,
-        maxAmount: filters.maxAmount ? Number(filters.maxAmount) : null,
-        sortBy: filters.sort,
-      };
-
       // Pozovi server-side search endpoint
       const data = await api.transactions.search(
-        searchFilter,
+        toSearchFilter(filters),
         displayPage,
         pageSize,
       );
@@ -65,6 +70,7 @@ export default function TransactionsPage() {
         categoryId: t.categoryId,
         date: t.transactionDate,
         description: t.description || "",
+        highlights: t.highlights || [],
       }));
 
       setPaginatedTransactions(formatted);
@@ -77,11 +83,32 @@ export default function TransactionsPage() {
     }
   }, [user?.id, displayPage, pageSize, filters]);
 
+  // izvoz koristi isti filter kao popis, ali vraca sve retke
+  const exportTransactions = async (format) => {
+    setExporting(true);
+    try {
+      const blob = await api.transactions.export(toSearchFilter(filters), format);
+      const url = window.URL.createObjectURL(blob);
+      const a = document.createElement("a");
+      a.href = url;
+      a.download = `transactions.${format}`;
+      document.body.appendChild(a);
+      a.click();
+      window.URL.revokeObjectURL(url);
+      document.body.removeChild(a);
+    } catch (err) {
+      console.error("Greška pri izvozu transakcija", err);
+    } finally {
+      setExporting(false);
+    }
+  };
+
   // Resetuj stranicu kada se filter promijeni
   useEffect(() => {
     setDisplayPage(0);
   }, [
     filters.search,
+    filters.searchMode,
     filters.category,
     filters.type,
     filters.from,
@@ -278,6 +305,20 @@ export default function TransactionsPage() {
             <b>{Math.max(1, totalPages)}</b> | Ukupno: <b>{totalCount}</b>
           </div>
           <div style={{ display: "flex", gap: 8 }}>
+            <button
+              className="btn-secondary"
+              onClick={() => exportTransactions("csv")}
+              disabled={exporting}
+            >
+              ⬇ CSV
+            </button>
+            <button
+              className="btn-secondary"
+              onClick={() => exportTransactions("xlsx")}
+              disabled={exporting}
+            >
+              ⬇ XLSX
+            </button>
             <button
               className="btn-secondary"
               onClick={() => setDisplayPage(Math.max(0, displayPage - 1))}
@@ -156,6 +156,43 @@ export const transactions = {
     return parseJSON(res);
   },
 
+  // keyset stranice: { content, hasNext, nextCursor }, bez ukupnog broja
+  getAfter: async (cursor = null, size = 10) => {
+    const params = new URLSearchParams({ mode: "keyset", size });
+    if (cursor) params.set("cursor", cursor);
+    const res = await fetch(`${API_BASE}/transactions?${params}`, {
+      method: "GET",
+      credentials: "include",
+    });
+    if (!res.ok) throw new Error("Failed to fetch transactions");
+    return parseJSON(res);
+  },
+
+  searchAfter: async (filter, cursor = null, size = 10) => {
+    const params = new URLSearchParams({ mode: "keyset", size });
+    if (cursor) params.set("cursor", cursor);
+    const res = await fetch(`${API_BASE}/transactions/search?${params}`, {
+      method: "POST",
+      headers: { "Content-Type": "application/json" },
+      body: JSON.stringify(filter),
+      credentials: "include",
+    });
+    if (!res.ok) throw new Error("Failed to search transactions");
+    return parseJSON(res);
+  },
+
+  // svi rezultati filtera odjednom, format = "csv" | "xlsx"
+  export: async (filter, format = "csv") => {
+    const res = await fetch(`${API_BASE}/transactions/export?format=${format}`, {
+      method: "POST",
+      headers: { "Content-Type": "application/json" },
+      body: JSON.stringify(filter),
+      credentials: "include",
+    });
+    if (!res.ok) throw new Error("Failed to export transactions");
+    return res.blob();
+  },
+
   downloadTemplate: async () => {
     const res = await fetch(`${API_BASE}/transactions/template`, {
       method: "GET",
@@ -178,6 +215,24 @@ export const transactions = {
     return parseJSON(res);
   },
 
+  getImportJob: async (jobId) => {
+    const res = await fetch(`${API_BASE}/transactions/import/jobs/${jobId}`, {
+      method: "GET",
+      credentials: "include",
+    });
+    if (!res.ok) throw new Error("Failed to fetch import status");
+    return parseJSON(res);
+  },
+
+  cancelImport: async (jobId) => {
+    const res = await fetch(`${API_BASE}/transactions/import/jobs/${jobId}/cancel`, {
+      method: "POST",
+      credentials: "include",
+    });
+    if (!res.ok) throw new Error("Failed to cancel import");
+    return parseJSON(res);
+  },
+
   getMonthlyBalance: async () => {
     const res = await fetch(`${API_BASE}/transactions/monthly-balance`, {
       method: "GET",
@@ -192,8 +247,22 @@ export const transactions = {
 // DASHBOARD ENDPOINTS
 // =====================
 export const dashboard = {
-  getSpendingByCategory: async () => {
-    const res = await fetch(`${API_BASE}/dashboard/spending-by-category`, {
+  // potrosnja, tjedni cilj, stanje, ciljevi stednje, predikcija i analiza u jednom pozivu
+  getSummary: async () => {
+    const res = await fetch(`${API_BASE}/dashboard/summary`, {
+      method: "GET",
+      credentials: "include",
+    });
+    if (!res.ok) throw new Error("Failed to fetch dashboard summary");
+    return parseJSON(res);
+  },
+
+  getSpendingByCategory: async (from = null, to = null) => {
+    const params = new URLSearchParams();
+    if (from) params.set("from", from);
+    if (to) params.set("to", to);
+    const query = params.toString() ? `?${params}` : "";
+    const res = await fetch(`${API_BASE}/dashboard/spending-by-category${query}`, {
       method: "GET",
       credentials: "include",
     });
@@ -347,8 +416,11 @@ export const admin = {
     return parseJSON(res);
   },
 
-  getRegularUsers: async () => {
-    const res = await fetch(`${API_BASE}/admin/users/regular`, {
+  // vraca stranicu: { content, totalElements, totalPages, ... }
+  getRegularUsers: async ({ page = 0, size = 20, sort = "id", direction = "asc", email = "" } = {}) => {
+    const params = new URLSearchParams({ page, size, sort, direction });
+    if (email) params.set("email", email);
+    const res = await fetch(`${API_BASE}/admin/users/regular?${params}`, {
       method: "GET",
       credentials: "include",
     });